@@ -0,0 +1,143 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.benchmark;
+
+import com.yandex.money.api.model.Amount;
+import com.yandex.money.api.net.PostRequestBodyBuffer;
+import com.yandex.money.api.utils.Currency;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing, summing and encoding of 100 amounts with {@link Amount} and with {@link BigDecimal}.
+ * Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class AmountBenchmark {
+
+    private static final int COUNT = 100;
+
+    private String[] values;
+    private Amount[] amounts;
+    private BigDecimal[] decimals;
+
+    @Setup
+    public void setUp() {
+        values = new String[COUNT];
+        amounts = new Amount[COUNT];
+        decimals = new BigDecimal[COUNT];
+        for (int i = 0; i < COUNT; ++i) {
+            values[i] = (i * 137 % 100000) + "." + (10 + i % 90);
+            amounts[i] = Amount.parse(values[i], Currency.RUB);
+            decimals[i] = new BigDecimal(values[i]);
+        }
+    }
+
+    /**
+     * Parses with {@link Amount#parse(CharSequence, Currency)}.
+     */
+    @Benchmark
+    public void parseAmount(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(Amount.parse(value, Currency.RUB));
+        }
+    }
+
+    /**
+     * Baseline: parses with {@link BigDecimal#BigDecimal(String)}.
+     */
+    @Benchmark
+    public void parseBigDecimal(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(new BigDecimal(value));
+        }
+    }
+
+    /**
+     * Sums with {@link Amount#add(Amount)}.
+     */
+    @Benchmark
+    public Amount sumAmount() {
+        Amount sum = Amount.ofMinorUnits(0, Currency.RUB);
+        for (Amount amount : amounts) {
+            sum = sum.add(amount);
+        }
+        return sum;
+    }
+
+    /**
+     * Baseline: sums with {@link BigDecimal#add(BigDecimal)}.
+     */
+    @Benchmark
+    public BigDecimal sumBigDecimal() {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (BigDecimal decimal : decimals) {
+            sum = sum.add(decimal);
+        }
+        return sum;
+    }
+
+    /**
+     * Encodes with {@link PostRequestBodyBuffer#addParamIfNotNull(String, Amount)}.
+     */
+    @Benchmark
+    public PostRequestBodyBuffer encodeAmount() {
+        PostRequestBodyBuffer buffer = new PostRequestBodyBuffer();
+        for (Amount amount : amounts) {
+            buffer.addParamIfNotNull("amount", amount);
+        }
+        return buffer;
+    }
+
+    /**
+     * Baseline: encodes with {@link PostRequestBodyBuffer#addParamIfNotNull(String, BigDecimal)}.
+     */
+    @Benchmark
+    public PostRequestBodyBuffer encodeBigDecimal() {
+        PostRequestBodyBuffer buffer = new PostRequestBodyBuffer();
+        for (BigDecimal decimal : decimals) {
+            buffer.addParamIfNotNull("amount", decimal);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.benchmark;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonDeserializationContext;
+import com.google.gson.JsonDeserializer;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonPrimitive;
+import com.yandex.money.api.methods.JsonUtils;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.DigitalGoods;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.model.PayeeIdentifierType;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.ISODateTimeFormat;
+
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Copy of the tree model deserializers used before the shared type adapters registry. Every call
+ * builds its own {@link com.google.gson.Gson}: one for the page and two for each operation (the
+ * operation itself and its digital goods), and date-times are parsed with a new ISO parser.
+ */
+final class BaselineParsers {
+
+    private BaselineParsers() {
+    }
+
+    static OperationHistory parseOperationHistory(InputStream inputStream) {
+        return new GsonBuilder()
+                .registerTypeAdapter(OperationHistory.class, new OperationHistoryDeserializer())
+                .create()
+                .fromJson(new InputStreamReader(inputStream), OperationHistory.class);
+    }
+
+    static Operation parseOperation(JsonElement element) {
+        return new GsonBuilder()
+                .registerTypeAdapter(Operation.class, new OperationDeserializer())
+                .create()
+                .fromJson(element, Operation.class);
+    }
+
+    static DigitalGoods parseDigitalGoods(JsonElement element) {
+        return new GsonBuilder()
+                .registerTypeAdapter(DigitalGoods.class, new DigitalGoodsDeserializer())
+                .create()
+                .fromJson(element, DigitalGoods.class);
+    }
+
+    private static DateTime getDateTime(JsonObject object, String memberName) {
+        JsonElement element = object.get(memberName);
+        if (element == null || !element.isJsonPrimitive()) {
+            return null;
+        }
+        JsonPrimitive primitive = element.getAsJsonPrimitive();
+        return DateTime.parse(primitive.getAsString(),
+                ISODateTimeFormat.dateTimeParser().withOffsetParsed());
+    }
+
+    private static final class OperationHistoryDeserializer
+            implements JsonDeserializer<OperationHistory> {
+
+        @Override
+        public OperationHistory deserialize(JsonElement json, Type typeOfT,
+                                            JsonDeserializationContext context)
+                throws JsonParseException {
+
+            JsonObject object = json.getAsJsonObject();
+
+            final String operationsMember = "operations";
+            List<Operation> operations = null;
+            if (object.has(operationsMember)) {
+                operations = new ArrayList<Operation>();
+                JsonArray array = object.getAsJsonArray(operationsMember);
+                for (JsonElement element : array) {
+                    operations.add(parseOperation(element));
+                }
+            }
+
+            return new OperationHistory(Error.parse(JsonUtils.getString(object, "error")),
+                    JsonUtils.getString(object, "next_record"), operations);
+        }
+    }
+
+    private static final class OperationDeserializer implements JsonDeserializer<Operation> {
+
+        @Override
+        public Operation deserialize(JsonElement json, Type typeOfT,
+                                     JsonDeserializationContext context) throws JsonParseException {
+
+            final JsonObject o = json.getAsJsonObject();
+            final String paymentParametersMember = "payment_parameters";
+            return new Operation.Builder()
+                    .setOperationId(JsonUtils.getMandatoryString(o, "operation_id"))
+                    .setStatus(Operation.Status.parse(JsonUtils.getString(o, "status")))
+                    .setDatetime(getDateTime(o, "datetime"))
+                    .setTitle(JsonUtils.getMandatoryString(o, "title"))
+                    .setPatternId(JsonUtils.getString(o, "pattern_id"))
+                    .setDirection(Operation.Direction.parse(
+                            JsonUtils.getMandatoryString(o, "direction")))
+                    .setAmount(JsonUtils.getBigDecimal(o, "amount"))
+                    .setAmountDue(JsonUtils.getBigDecimal(o, "amount_due"))
+                    .setFee(JsonUtils.getBigDecimal(o, "fee"))
+                    .setLabel(JsonUtils.getString(o, "label"))
+                    .setType(Operation.Type.parse(JsonUtils.getString(o, "type")))
+                    .setSender(JsonUtils.getString(o, "sender"))
+                    .setRecipient(JsonUtils.getString(o, "recipient"))
+                    .setRecipientType(PayeeIdentifierType.parse(
+                            JsonUtils.getString(o, "recipient_type")))
+                    .setMessage(JsonUtils.getString(o, "message"))
+                    .setComment(JsonUtils.getString(o, "comment"))
+                    .setCodepro(JsonUtils.getBoolean(o, "codepro"))
+                    .setProtectionCode(JsonUtils.getString(o, "protection_code"))
+                    .setExpires(getDateTime(o, "expires"))
+                    .setAnswerDatetime(getDateTime(o, "answer_datetime"))
+                    .setDetails(JsonUtils.getString(o, "details"))
+                    .setRepeatable(JsonUtils.getBoolean(o, "repeatable"))
+                    .setPaymentParameters(o.has(paymentParametersMember) ?
+                            JsonUtils.map(o.getAsJsonObject(paymentParametersMember)) : null)
+                    .setFavorite(JsonUtils.getBoolean(o, "favourite"))
+                    .setDigitalGoods(parseDigitalGoods(o.get("digital_goods")))
+                    .createOperation();
+        }
+    }
+
+    private static final class DigitalGoodsDeserializer implements JsonDeserializer<DigitalGoods> {
+
+        @Override
+        public DigitalGoods deserialize(JsonElement json, Type typeOfT,
+                                        JsonDeserializationContext context)
+                throws JsonParseException {
+            return DigitalGoods.createFromJson(json);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.benchmark;
+
+import com.yandex.money.api.utils.DateTimes;
+
+import org.joda.time.DateTime;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and formatting of date-times of a full (100 records) operation history page: each
+ * operation has {@code datetime}, {@code expires} and {@code answer_datetime} fields. Run with
+ * {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateTimesBenchmark {
+
+    private static final int RECORDS = 100;
+
+    private static final DateTimeFormatter SHARED_PARSER =
+            ISODateTimeFormat.dateTimeParser().withOffsetParsed();
+
+    private String[] values;
+    private DateTime[] dateTimes;
+
+    @Setup
+    public void setUp() {
+        values = new String[RECORDS * 3];
+        for (int i = 0; i < RECORDS; ++i) {
+            String date = "2015-07-" + (10 + i % 20) + "T12:" + (10 + i % 50);
+            values[i * 3] = date + ":29.000+03:00";
+            values[i * 3 + 1] = date + ":29.000Z";
+            values[i * 3 + 2] = date + ":29.123-05:00";
+        }
+        dateTimes = new DateTime[values.length];
+        for (int i = 0; i < values.length; ++i) {
+            dateTimes[i] = DateTime.parse(values[i]);
+        }
+    }
+
+    /**
+     * Parses with {@link DateTimes#parse(String)}.
+     */
+    @Benchmark
+    public void parseFastPath(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(DateTimes.parse(value));
+        }
+    }
+
+    /**
+     * Baseline: builds a parser for each value as {@code JsonUtils} did.
+     */
+    @Benchmark
+    public void parserPerCall(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(DateTime.parse(value,
+                    ISODateTimeFormat.dateTimeParser().withOffsetParsed()));
+        }
+    }
+
+    /**
+     * Baseline: reuses one parser as {@code JsonReaders} did.
+     */
+    @Benchmark
+    public void sharedParser(Blackhole blackhole) {
+        for (String value : values) {
+            blackhole.consume(DateTime.parse(value, SHARED_PARSER));
+        }
+    }
+
+    /**
+     * Formats with {@link DateTimes#format(DateTime)}.
+     */
+    @Benchmark
+    public void formatFastPath(Blackhole blackhole) {
+        for (DateTime dateTime : dateTimes) {
+            blackhole.consume(DateTimes.format(dateTime));
+        }
+    }
+
+    /**
+     * Baseline: formats with {@link DateTime#toString()} as {@code PostRequestBodyBuffer} did.
+     */
+    @Benchmark
+    public void formatToString(Blackhole blackhole) {
+        for (DateTime dateTime : dateTimes) {
+            blackhole.consume(dateTime.toString());
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.benchmark;
+
+import com.yandex.money.api.utils.Streams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+
+/**
+ * JSON fixtures shaped after real API responses.
+ */
+final class Fixtures {
+
+    static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private Fixtures() {
+        // prevents instantiating of this class
+    }
+
+    /**
+     * Loads recorded response from {@code fixtures} resources.
+     *
+     * @param method API method name, e.g. {@code account-info}
+     * @return UTF-8 encoded JSON
+     */
+    static byte[] load(String method) {
+        InputStream stream = Fixtures.class.getResourceAsStream("/fixtures/" + method + ".json");
+        if (stream == null) {
+            throw new IllegalArgumentException("no fixture for " + method);
+        }
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            Streams.copy(stream, out);
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        } finally {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+    }
+
+    /**
+     * Creates a page of operation history.
+     *
+     * @param records number of operations in the page
+     * @return UTF-8 encoded JSON
+     */
+    static byte[] operationHistory(int records) {
+        StringBuilder builder = new StringBuilder("{\"next_record\":\"")
+                .append(records)
+                .append("\",\"operations\":[");
+        for (int i = 0; i < records; ++i) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            appendOperation(builder, i);
+        }
+        return builder.append("]}").toString().getBytes(UTF_8);
+    }
+
+    private static void appendOperation(StringBuilder builder, int index) {
+        builder.append("{\"operation_id\":\"")
+                .append(1122570744402000017L + index)
+                .append("\",\"status\":\"success\",\"pattern_id\":\"p2p\",\"direction\":\"")
+                .append(index % 2 == 0 ? "out" : "in")
+                .append("\",\"amount\":")
+                .append(index + 1)
+                .append(".50,\"datetime\":\"2015-07-")
+                .append(10 + index % 20)
+                .append("T12:")
+                .append(10 + index % 50)
+                .append(":29.000+03:00\",\"title\":\"Перевод на счет 4100123456789\"")
+                .append(",\"label\":\"order-")
+                .append(index)
+                .append("\",\"type\":\"outgoing-transfer\"}");
+    }
+}
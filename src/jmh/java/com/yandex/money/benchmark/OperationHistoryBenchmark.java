@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.benchmark;
+
+import com.yandex.money.api.methods.OperationHistory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of a full (100 records) {@link OperationHistory} page. Run with {@code -prof gc} and
+ * compare {@code gc.alloc.rate.norm} of both benchmarks to see allocations per parsed page.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class OperationHistoryBenchmark {
+
+    private static final int RECORDS = 100;
+
+    private byte[] page;
+    private OperationHistory.Request request;
+
+    @Setup
+    public void setUp() {
+        page = Fixtures.operationHistory(RECORDS);
+        request = new OperationHistory.Request.Builder()
+                .setRecords(RECORDS)
+                .createRequest();
+    }
+
+    /**
+     * Parses the page using shared type adapters registry.
+     */
+    @Benchmark
+    public OperationHistory sharedGson() {
+        return request.parseResponse(new ByteArrayInputStream(page));
+    }
+
+    /**
+     * Baseline: parses the page the way it was done before the shared registry was introduced,
+     * see {@link BaselineParsers}.
+     */
+    @Benchmark
+    public OperationHistory gsonPerCall() {
+        return BaselineParsers.parseOperationHistory(new ByteArrayInputStream(page));
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.benchmark;
+
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.AuxToken;
+import com.yandex.money.api.methods.IncomingTransferAccept;
+import com.yandex.money.api.methods.IncomingTransferReject;
+import com.yandex.money.api.methods.InstanceId;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.methods.ProcessExternalPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestExternalPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.methods.Token;
+import com.yandex.money.api.model.Scope;
+import com.yandex.money.api.net.MethodRequest;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of recorded responses of every API method by {@link MethodRequest#parseResponse}.
+ */
+@State(org.openjdk.jmh.annotations.Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseResponseBenchmark {
+
+    @Param({ "account-info", "aux-token", "incoming-transfer-accept", "incoming-transfer-reject",
+            "instance-id", "operation-details", "operation-history", "process-external-payment",
+            "process-payment", "request-external-payment", "request-payment", "token" })
+    public String method;
+
+    private byte[] response;
+    private MethodRequest<?> request;
+
+    @Setup
+    public void setUp() {
+        response = Fixtures.load(method);
+        request = createRequest(method);
+    }
+
+    @Benchmark
+    public Object parseResponse() {
+        return request.parseResponse(new ByteArrayInputStream(response));
+    }
+
+    private static MethodRequest<?> createRequest(String method) {
+        switch (method) {
+            case "account-info":
+                return new AccountInfo.Request();
+            case "aux-token":
+                return new AuxToken.Request(Collections.singleton(Scope.ACCOUNT_INFO));
+            case "incoming-transfer-accept":
+                return new IncomingTransferAccept.Request("1", "0123");
+            case "incoming-transfer-reject":
+                return new IncomingTransferReject.Request("1");
+            case "instance-id":
+                return new InstanceId.Request("client");
+            case "operation-details":
+                return new OperationDetails.Request("1");
+            case "operation-history":
+                return new OperationHistory.Request.Builder().createRequest();
+            case "process-external-payment":
+                return new ProcessExternalPayment.Request("instance", "1", "success", "fail",
+                        true);
+            case "process-payment":
+                return new ProcessPayment.Request("1");
+            case "request-external-payment":
+                return RequestExternalPayment.Request.newInstance("instance", "p2p",
+                        new HashMap<String, String>());
+            case "request-payment":
+                return new RequestPayment.Request("p2p", new HashMap<String, String>());
+            case "token":
+                return new Token.Request("code", "client", "https://example.com");
+            default:
+                throw new IllegalArgumentException("unknown method: " + method);
+        }
+    }
+}
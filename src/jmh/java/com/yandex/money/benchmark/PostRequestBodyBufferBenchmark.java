@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.benchmark;
+
+import com.yandex.money.api.net.PostRequestBodyBuffer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URLEncoder;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Encoding of typical payment parameters. Run with {@code -prof gc} to compare allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class PostRequestBodyBufferBenchmark {
+
+    private static final String[][] PARAMS = {
+            { "pattern_id", "p2p" },
+            { "to", "410011161616877" },
+            { "amount_due", "100.50" },
+            { "comment", "\u041f\u0435\u0440\u0435\u0432\u043e\u0434 \u0434\u0440\u0443\u0433\u0443" },
+            { "message", "Payment for order #1234 (2 items)" },
+            { "label", "order-1234" }
+    };
+
+    /**
+     * Encodes parameters directly into the buffer.
+     */
+    @Benchmark
+    public PostRequestBodyBuffer directEncoding() {
+        PostRequestBodyBuffer buffer = new PostRequestBodyBuffer();
+        for (String[] param : PARAMS) {
+            buffer.addParam(param[0], param[1]);
+        }
+        return buffer;
+    }
+
+    /**
+     * Baseline: encoding through {@link URLEncoder} as it was done before.
+     */
+    @Benchmark
+    public ByteArrayOutputStream urlEncoder() throws IOException {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        for (String[] param : PARAMS) {
+            if (stream.size() > 0) {
+                stream.write('&');
+            }
+            stream.write(URLEncoder.encode(param[0], "UTF-8").getBytes(Fixtures.UTF_8));
+            stream.write('=');
+            stream.write(URLEncoder.encode(param[1], "UTF-8").replace("+", "%20")
+                    .getBytes(Fixtures.UTF_8));
+        }
+        return stream;
+    }
+}
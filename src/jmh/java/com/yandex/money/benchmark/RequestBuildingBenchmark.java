@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.benchmark;
+
+import com.squareup.okhttp.CacheControl;
+import com.squareup.okhttp.Request;
+import com.yandex.money.api.net.AbstractSession;
+import com.yandex.money.api.net.ApiClient;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.DefaultUserAgent;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.Language;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building a request with default headers. Run with {@code -prof gc} to compare
+ * allocations per request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RequestBuildingBenchmark {
+
+    private URL url;
+    private BenchmarkSession session;
+
+    @Setup
+    public void setUp() throws MalformedURLException {
+        url = new URL("https://money.yandex.ru/api/account-info");
+        session = new BenchmarkSession(new DefaultApiClient("benchmark"));
+    }
+
+    /**
+     * Builds a request with precomputed default headers.
+     */
+    @Benchmark
+    public Request cachedHeaders() {
+        return session.build(url);
+    }
+
+    /**
+     * Baseline: builds a request the way it was done before default headers were precomputed.
+     */
+    @Benchmark
+    public Request perRequestHeaders() {
+        return new Request.Builder()
+                .url(url)
+                .cacheControl(new CacheControl.Builder().noCache().build())
+                .addHeader(HttpHeaders.USER_AGENT, new DefaultUserAgent("Java").getName())
+                .addHeader(HttpHeaders.ACCEPT_LANGUAGE, Language.getSupported(
+                        Locale.getDefault().getLanguage()).iso6391Code)
+                .build();
+    }
+
+    private static final class BenchmarkSession extends AbstractSession {
+
+        BenchmarkSession(ApiClient client) {
+            super(client);
+        }
+
+        Request build(URL url) {
+            return prepareRequestBuilder(url).build();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.exceptions;
+
+import java.io.IOException;
+
+/**
+ * Server has responded with a status code or a content type that is not expected by API, for
+ * instance, {@code 503 Service Unavailable} from a frontend.
+ * <p/>
+ * It extends {@link IOException}, so it is delivered the same way as network failures.
+ */
+public final class UnexpectedResponseException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * HTTP status code of response
+     */
+    public final int code;
+
+    public UnexpectedResponseException(int code, String error) {
+        super(error);
+        this.code = code;
+    }
+
+    /**
+     * @return {@code true} if server failed to process request (5xx status code)
+     */
+    public boolean isServerError() {
+        return code >= 500 && code < 600;
+    }
+}
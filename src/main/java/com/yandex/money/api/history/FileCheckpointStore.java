@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.history;
+
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.utils.DateTimes;
+import com.yandex.money.api.utils.PropertiesFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Stores checkpoints of {@link OperationHistorySync} in a directory, one properties file per
+ * wallet. Files are replaced atomically, so a checkpoint is never partially written.
+ */
+public class FileCheckpointStore implements OperationHistorySync.CheckpointStore {
+
+    private static final String DATETIME = "datetime";
+    private static final String OPERATION_ID = "operation_id";
+    private static final String STATUS_PREFIX = "status.";
+
+    private final File directory;
+
+    /**
+     * Constructor.
+     *
+     * @param directory directory to keep checkpoints in, created if not exists
+     */
+    public FileCheckpointStore(File directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory is null");
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public OperationHistorySync.Checkpoint load(String wallet) throws IOException {
+        File file = getFile(wallet);
+        Properties properties = PropertiesFiles.load(file);
+        if (properties == null) {
+            return null;
+        }
+
+        String datetime = properties.getProperty(DATETIME);
+        String operationId = properties.getProperty(OPERATION_ID);
+        if (datetime == null || operationId == null) {
+            throw new IOException("checkpoint is corrupted: " + file);
+        }
+
+        try {
+            Map<String, Operation.Status> statuses = new HashMap<>();
+            for (String name : properties.stringPropertyNames()) {
+                if (name.startsWith(STATUS_PREFIX)) {
+                    statuses.put(name.substring(STATUS_PREFIX.length()),
+                            Operation.Status.valueOf(properties.getProperty(name)));
+                }
+            }
+            return new OperationHistorySync.Checkpoint(DateTimes.parse(datetime), operationId,
+                    statuses);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("checkpoint is corrupted: " + file, e);
+        }
+    }
+
+    @Override
+    public void save(String wallet, OperationHistorySync.Checkpoint checkpoint)
+            throws IOException {
+
+        if (checkpoint == null) {
+            throw new NullPointerException("checkpoint is null");
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(DATETIME, DateTimes.format(checkpoint.datetime));
+        properties.setProperty(OPERATION_ID, checkpoint.operationId);
+        for (Map.Entry<String, Operation.Status> entry : checkpoint.getStatuses().entrySet()) {
+            Operation.Status status = entry.getValue();
+            properties.setProperty(STATUS_PREFIX + entry.getKey(),
+                    (status == null ? Operation.Status.UNKNOWN : status).name());
+        }
+        PropertiesFiles.store(getFile(wallet), properties);
+    }
+
+    private File getFile(String wallet) {
+        return new File(directory, PropertiesFiles.toFileName(wallet) + ".checkpoint");
+    }
+}
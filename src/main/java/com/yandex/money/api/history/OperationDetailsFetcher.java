@@ -0,0 +1,377 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.history;
+
+import com.yandex.money.api.exceptions.InsufficientScopeException;
+import com.yandex.money.api.exceptions.InvalidTokenException;
+import com.yandex.money.api.exceptions.RateLimitExceededException;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.OnResponseReady;
+import com.yandex.money.api.net.RateLimiter;
+import com.yandex.money.api.net.ResponseFuture;
+import com.yandex.money.api.utils.Threads;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fetches details of many operations. Operation ids are taken from an iterator lazily and no more
+ * than {@link Builder#setParallelism(Integer)} requests are in flight at once, so neither ids nor
+ * results have to be kept in memory: each result is passed to a {@link Listener} as soon as it is
+ * ready.
+ * <p/>
+ * Requests are executed with {@link OAuth2Session#executeAsync(com.yandex.money.api.net.MethodRequest)},
+ * so session's retry policy, rate limiter and cache apply. In addition the fetcher can be limited
+ * with {@link Builder#setRateLimit(int, long, TimeUnit)}: such requests are delayed rather than
+ * rejected.
+ */
+public class OperationDetailsFetcher {
+
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final OAuth2Session session;
+    private final int parallelism;
+    private final RateLimiter rateLimiter;
+
+    /**
+     * Use {@link OperationDetailsFetcher.Builder} to create an instance.
+     */
+    private OperationDetailsFetcher(OAuth2Session session, Integer parallelism,
+                                    RateLimiter rateLimiter) {
+
+        if (session == null) {
+            throw new NullPointerException("session is null");
+        }
+        this.session = session;
+        this.parallelism = parallelism == null ? DEFAULT_PARALLELISM : parallelism;
+        if (this.parallelism < 1) {
+            throw new IllegalArgumentException("parallelism should be positive");
+        }
+        this.rateLimiter = rateLimiter;
+    }
+
+    /**
+     * Fetches details of operations.
+     * <p/>
+     * Failure of a single operation is passed to
+     * {@link Listener#onFailure(String, Exception)} and fetching goes on. Fetching stops if
+     * access token is invalid or has insufficient scope, if iterator throws or if returned future
+     * is cancelled.
+     *
+     * @param operationIds ids of operations
+     * @param listener receives results, its methods are never called concurrently
+     * @return future of number of processed operations
+     */
+    public ResponseFuture<Integer> fetch(Iterator<String> operationIds, Listener listener) {
+        if (operationIds == null) {
+            throw new NullPointerException("operationIds is null");
+        }
+        if (listener == null) {
+            throw new NullPointerException("listener is null");
+        }
+        Fetch fetch = new Fetch(operationIds, listener);
+        fetch.start();
+        return fetch.future;
+    }
+
+    /**
+     * Fetches details of operations.
+     *
+     * @param operationIds ids of operations
+     * @param listener receives results, its methods are never called concurrently
+     * @return future of number of processed operations
+     * @see #fetch(Iterator, Listener)
+     */
+    public ResponseFuture<Integer> fetch(Iterable<String> operationIds, Listener listener) {
+        if (operationIds == null) {
+            throw new NullPointerException("operationIds is null");
+        }
+        return fetch(operationIds.iterator(), listener);
+    }
+
+    /**
+     * Receives results of {@link OperationDetailsFetcher}.
+     */
+    public interface Listener {
+
+        /**
+         * Called when details of an operation are fetched.
+         *
+         * @param operationId operation's id
+         * @param operationDetails details
+         */
+        void onOperationDetails(String operationId, OperationDetails operationDetails);
+
+        /**
+         * Called when details of an operation can not be fetched.
+         *
+         * @param operationId operation's id
+         * @param exception cause
+         */
+        void onFailure(String operationId, Exception exception);
+    }
+
+    /**
+     * Creates {@link OperationDetailsFetcher}.
+     */
+    public static class Builder {
+
+        private final OAuth2Session session;
+
+        private Integer parallelism;
+        private RateLimiter rateLimiter;
+
+        /**
+         * Constructor.
+         *
+         * @param session authorized session
+         */
+        public Builder(OAuth2Session session) {
+            this.session = session;
+        }
+
+        /**
+         * @param parallelism maximum number of requests in flight (4 by default)
+         */
+        public Builder setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * Limits rate of requests. Not limited by default.
+         *
+         * @param permits number of requests allowed per period
+         * @param period period
+         * @param unit time unit of period
+         */
+        public Builder setRateLimit(int permits, long period, TimeUnit unit) {
+            rateLimiter = new RateLimiter.Builder()
+                    .setDefaultLimit(permits, period, unit)
+                    .setMaxWait(Long.MAX_VALUE, TimeUnit.NANOSECONDS)
+                    .create();
+            return this;
+        }
+
+        /**
+         * @return {@link OperationDetailsFetcher}
+         */
+        public OperationDetailsFetcher create() {
+            return new OperationDetailsFetcher(session, parallelism, rateLimiter);
+        }
+    }
+
+    /**
+     * State of a single {@link #fetch(Iterator, Listener)}. Requests are started from
+     * {@link #drain()} only, so synchronously completed requests do not grow the stack.
+     */
+    private final class Fetch {
+
+        final ResponseFuture<Integer> future = new ResponseFuture<>();
+
+        private final Iterator<String> operationIds;
+        private final Listener listener;
+        private final Object listenerLock = new Object();
+        private final AtomicInteger drains = new AtomicInteger();
+        private final Set<ResponseFuture<OperationDetails>> calls = new HashSet<>();
+
+        // guarded by this
+        private int active;
+        private int processed;
+        private boolean exhausted;
+
+        Fetch(Iterator<String> operationIds, Listener listener) {
+            this.operationIds = operationIds;
+            this.listener = listener;
+        }
+
+        void start() {
+            future.addCallback(new OnResponseReady<Integer>() {
+                @Override
+                public void onFailure(Exception exception) {
+                    cancelCalls();
+                }
+
+                @Override
+                public void onResponse(Integer response) {
+                }
+            });
+            drain();
+        }
+
+        private void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                //noinspection StatementWithEmptyBody
+                while (startNext()) {
+                }
+            } while (drains.decrementAndGet() != 0);
+        }
+
+        /**
+         * @return {@code true} if a request was started
+         */
+        private boolean startNext() {
+            String operationId = null;
+            RuntimeException exception = null;
+            Integer completed = null;
+            synchronized (this) {
+                if (future.isDone() || active >= parallelism) {
+                    return false;
+                }
+                try {
+                    if (!exhausted && operationIds.hasNext()) {
+                        operationId = operationIds.next();
+                    }
+                } catch (RuntimeException e) {
+                    exception = e;
+                }
+                if (operationId != null) {
+                    ++active;
+                } else if (exception == null) {
+                    exhausted = true;
+                    if (active == 0) {
+                        completed = processed;
+                    }
+                }
+            }
+
+            if (exception != null) {
+                future.onFailure(exception);
+                return false;
+            }
+            if (operationId == null) {
+                if (completed != null) {
+                    future.onResponse(completed);
+                }
+                return false;
+            }
+
+            final OperationDetails.Request request;
+            try {
+                request = new OperationDetails.Request(operationId);
+            } catch (IllegalArgumentException e) {
+                onFailure(operationId, e);
+                return true;
+            }
+
+            long wait = 0;
+            if (rateLimiter != null) {
+                try {
+                    wait = rateLimiter.acquire(request, null);
+                } catch (RateLimitExceededException e) {
+                    // never happens, requests wait as long as required
+                    onFailure(operationId, e);
+                    return true;
+                }
+            }
+
+            if (wait == 0) {
+                execute(operationId, request);
+            } else {
+                final String id = operationId;
+                Threads.getScheduler().schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        execute(id, request);
+                    }
+                }, wait, TimeUnit.NANOSECONDS);
+            }
+            return true;
+        }
+
+        private void execute(final String operationId, OperationDetails.Request request) {
+            if (future.isDone()) {
+                return;
+            }
+
+            final ResponseFuture<OperationDetails> call = session.executeAsync(request);
+            synchronized (this) {
+                calls.add(call);
+            }
+            if (future.isDone()) {
+                call.cancel(true);
+            }
+
+            call.addCallback(new OnResponseReady<OperationDetails>() {
+                @Override
+                public void onFailure(Exception exception) {
+                    removeCall(call);
+                    if (exception instanceof InvalidTokenException ||
+                            exception instanceof InsufficientScopeException) {
+                        future.onFailure(exception);
+                    } else if (!(exception instanceof CancellationException && future.isDone())) {
+                        Fetch.this.onFailure(operationId, exception);
+                    }
+                }
+
+                @Override
+                public void onResponse(OperationDetails response) {
+                    removeCall(call);
+                    synchronized (listenerLock) {
+                        listener.onOperationDetails(operationId, response);
+                    }
+                    release();
+                }
+            });
+        }
+
+        private void onFailure(String operationId, Exception exception) {
+            synchronized (listenerLock) {
+                listener.onFailure(operationId, exception);
+            }
+            release();
+        }
+
+        private void release() {
+            synchronized (this) {
+                --active;
+                ++processed;
+            }
+            drain();
+        }
+
+        private synchronized void removeCall(ResponseFuture<OperationDetails> call) {
+            calls.remove(call);
+        }
+
+        private void cancelCalls() {
+            Set<ResponseFuture<OperationDetails>> calls;
+            synchronized (this) {
+                calls = new HashSet<>(this.calls);
+                this.calls.clear();
+            }
+            for (ResponseFuture<OperationDetails> call : calls) {
+                call.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.history;
+
+import com.squareup.okhttp.Call;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.OnResponseReady;
+
+import org.joda.time.DateTime;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Iterates over operations of user's history page by page using {@code next_record} marker.
+ * <p/>
+ * Pages are fetched with {@link OAuth2Session#enqueue(
+ * com.yandex.money.api.net.MethodRequest, OnResponseReady)}: as soon as a page is received a
+ * request for the next one is sent, so the next page is downloaded while operations of the
+ * current one are being processed. At most two pages are held in memory at any time regardless
+ * of history length.
+ * <p/>
+ * Errors are thrown from {@link #hasNext()} and {@link #next()} as
+ * {@link OperationHistoryCursor.FetchException}. Cursor is not thread safe. Call
+ * {@link #close()} if iteration is stopped before the end of history to cancel prefetching.
+ */
+public class OperationHistoryCursor implements Iterator<Operation>, Closeable {
+
+    private final OAuth2Session session;
+    private final Set<OperationHistory.FilterType> types;
+    private final String label;
+    private final DateTime from;
+    private final DateTime till;
+    private final Integer pageSize;
+    private final Boolean details;
+
+    private Iterator<Operation> current = Collections.<Operation>emptyList().iterator();
+    private Page next;
+    private boolean started;
+    private boolean closed;
+
+    /**
+     * Use {@link OperationHistoryCursor.Builder} to create an instance.
+     */
+    private OperationHistoryCursor(OAuth2Session session, Set<OperationHistory.FilterType> types,
+                                   String label, DateTime from, DateTime till, Integer pageSize,
+                                   Boolean details) {
+
+        if (session == null) {
+            throw new NullPointerException("session is null");
+        }
+        if (from != null && till != null && from.isAfter(till)) {
+            throw new IllegalArgumentException("\'from\' should be before \'till\'");
+        }
+        this.session = session;
+        this.types = types;
+        this.label = label;
+        this.from = from;
+        this.till = till;
+        this.pageSize = pageSize;
+        this.details = details;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            started = true;
+            next = fetch(null);
+        }
+        while (!current.hasNext()) {
+            if (next == null || closed) {
+                return false;
+            }
+            OperationHistory history = next.await();
+            next = history.nextRecord == null ? null : fetch(history.nextRecord);
+            current = history.operations.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public Operation next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return current.next();
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("operations can not be removed");
+    }
+
+    /**
+     * Stops iteration and cancels request for the next page if any.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        current = Collections.<Operation>emptyList().iterator();
+        if (next != null) {
+            next.cancel();
+            next = null;
+        }
+    }
+
+    private Page fetch(String startRecord) {
+        OperationHistory.Request request = new OperationHistory.Request.Builder()
+                .setTypes(types)
+                .setLabel(label)
+                .setFrom(from)
+                .setTill(till)
+                .setStartRecord(startRecord)
+                .setRecords(pageSize)
+                .setDetails(details)
+                .createRequest();
+
+        Page page = new Page();
+        try {
+            page.call = session.enqueue(request, page);
+        } catch (IOException e) {
+            page.onFailure(e);
+        }
+        return page;
+    }
+
+    /**
+     * Thrown when a page of history can not be fetched. Cause contains original exception if
+     * any.
+     */
+    public static final class FetchException extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * error code if server has responded with an error
+         */
+        public final Error error;
+
+        FetchException(String message, Throwable cause) {
+            super(message, cause);
+            this.error = null;
+        }
+
+        FetchException(Error error) {
+            super("server has responded with an error: " + error);
+            this.error = error;
+        }
+    }
+
+    /**
+     * Creates {@link OperationHistoryCursor}.
+     */
+    public static class Builder {
+
+        private final OAuth2Session session;
+
+        private Set<OperationHistory.FilterType> types;
+        private String label;
+        private DateTime from;
+        private DateTime till;
+        private Integer pageSize;
+        private Boolean details;
+
+        /**
+         * Constructor.
+         *
+         * @param session authorized session
+         */
+        public Builder(OAuth2Session session) {
+            this.session = session;
+        }
+
+        /**
+         * @param types types of operations, all types if omitted
+         * @see OperationHistory.Request.Builder#setTypes(Set)
+         */
+        public Builder setTypes(Set<OperationHistory.FilterType> types) {
+            this.types = types;
+            return this;
+        }
+
+        /**
+         * @param label label of operations
+         */
+        public Builder setLabel(String label) {
+            this.label = label;
+            return this;
+        }
+
+        /**
+         * @param from iterate over operations starting from specified time
+         */
+        public Builder setFrom(DateTime from) {
+            this.from = from;
+            return this;
+        }
+
+        /**
+         * @param till iterate over operations till specified time
+         */
+        public Builder setTill(DateTime till) {
+            this.till = till;
+            return this;
+        }
+
+        /**
+         * @param pageSize number of records requested at once (from 1 to 100)
+         */
+        public Builder setPageSize(Integer pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param details {@code true} if detailed operations are required
+         */
+        public Builder setDetails(Boolean details) {
+            this.details = details;
+            return this;
+        }
+
+        /**
+         * @return {@link OperationHistoryCursor}
+         */
+        public OperationHistoryCursor create() {
+            return new OperationHistoryCursor(session, types, label, from, till, pageSize,
+                    details);
+        }
+    }
+
+    private static final class Page implements OnResponseReady<OperationHistory> {
+
+        private final CountDownLatch latch = new CountDownLatch(1);
+
+        private volatile OperationHistory history;
+        private volatile Exception exception;
+        private volatile Call call;
+
+        @Override
+        public void onFailure(Exception exception) {
+            this.exception = exception;
+            latch.countDown();
+        }
+
+        @Override
+        public void onResponse(OperationHistory response) {
+            this.history = response;
+            latch.countDown();
+        }
+
+        OperationHistory await() {
+            try {
+                latch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FetchException("interrupted while waiting for a page", e);
+            }
+            if (exception != null) {
+                throw new FetchException("unable to fetch a page of history", exception);
+            }
+            if (history.error != null) {
+                throw new FetchException(history.error);
+            }
+            return history;
+        }
+
+        void cancel() {
+            Call call = this.call;
+            if (call != null) {
+                call.cancel();
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.history;
+
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.OAuth2Session;
+
+import org.joda.time.DateTime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Exports operations of a time window. The window is split into equal slices which are fetched
+ * concurrently, each with its own {@link OperationHistoryCursor}. Operations from all slices are
+ * de-duplicated by {@link Operation#operationId} and sorted by {@link Operation#datetime}
+ * (oldest first).
+ * <p/>
+ * Slices are fetched asynchronously via the session's {@link com.squareup.okhttp.OkHttpClient}, so
+ * the number of simultaneous requests is also limited by its
+ * {@link com.squareup.okhttp.Dispatcher#setMaxRequestsPerHost(int)}.
+ */
+public class OperationHistoryExporter {
+
+    private static final int DEFAULT_PARALLELISM = 4;
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    private static final Comparator<Operation> DATETIME_COMPARATOR = new Comparator<Operation>() {
+        @Override
+        public int compare(Operation lhs, Operation rhs) {
+            if (lhs.datetime == null) {
+                return rhs.datetime == null ? 0 : -1;
+            }
+            return rhs.datetime == null ? 1 : lhs.datetime.compareTo(rhs.datetime);
+        }
+    };
+
+    private final OAuth2Session session;
+    private final DateTime from;
+    private final DateTime till;
+    private final Set<OperationHistory.FilterType> types;
+    private final Boolean details;
+    private final int slices;
+    private final int parallelism;
+    private final int pageSize;
+
+    /**
+     * Use {@link OperationHistoryExporter.Builder} to create an instance.
+     */
+    private OperationHistoryExporter(OAuth2Session session, DateTime from, DateTime till,
+                                     Set<OperationHistory.FilterType> types, Boolean details,
+                                     Integer slices, Integer parallelism, Integer pageSize) {
+
+        if (session == null) {
+            throw new NullPointerException("session is null");
+        }
+        if (from == null) {
+            throw new NullPointerException("from is null");
+        }
+        if (till == null) {
+            throw new NullPointerException("till is null");
+        }
+        if (!from.isBefore(till)) {
+            throw new IllegalArgumentException("\'from\' should be before \'till\'");
+        }
+        this.session = session;
+        this.from = from;
+        this.till = till;
+        this.types = types;
+        this.details = details;
+        this.parallelism = checkPositive(parallelism == null ? DEFAULT_PARALLELISM : parallelism,
+                "parallelism");
+        this.slices = checkPositive(slices == null ? this.parallelism : slices, "slices");
+        this.pageSize = checkPositive(pageSize == null ? DEFAULT_PAGE_SIZE : pageSize,
+                "pageSize");
+    }
+
+    /**
+     * Exports operations. Blocks until all slices are fetched.
+     *
+     * @return de-duplicated operations sorted by datetime
+     * @throws OperationHistoryCursor.FetchException if any slice can not be fetched
+     * @throws InterruptedException if current thread was interrupted while waiting
+     */
+    public List<Operation> export() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, slices));
+        try {
+            List<Future<List<Operation>>> futures = new ArrayList<>(slices);
+            for (int i = 0; i < slices; ++i) {
+                futures.add(executor.submit(new Slice(sliceBound(i), sliceBound(i + 1))));
+            }
+
+            Set<String> ids = new HashSet<>();
+            List<Operation> operations = new ArrayList<>();
+            for (Future<List<Operation>> future : futures) {
+                for (Operation operation : get(future)) {
+                    if (ids.add(operation.operationId)) {
+                        operations.add(operation);
+                    }
+                }
+            }
+            Collections.sort(operations, DATETIME_COMPARATOR);
+            return operations;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private DateTime sliceBound(int index) {
+        if (index == slices) {
+            return till;
+        }
+        long span = till.getMillis() - from.getMillis();
+        return from.plus(span / slices * index + span % slices * index / slices);
+    }
+
+    private static List<Operation> get(Future<List<Operation>> future)
+            throws InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new OperationHistoryCursor.FetchException("unable to export a slice", cause);
+        }
+    }
+
+    private static int checkPositive(int value, String name) {
+        if (value < 1) {
+            throw new IllegalArgumentException(name + " should be positive");
+        }
+        return value;
+    }
+
+    /**
+     * Creates {@link OperationHistoryExporter}.
+     */
+    public static class Builder {
+
+        private final OAuth2Session session;
+
+        private DateTime from;
+        private DateTime till;
+        private Set<OperationHistory.FilterType> types;
+        private Boolean details;
+        private Integer slices;
+        private Integer parallelism;
+        private Integer pageSize;
+
+        /**
+         * Constructor.
+         *
+         * @param session authorized session
+         */
+        public Builder(OAuth2Session session) {
+            this.session = session;
+        }
+
+        /**
+         * @param from beginning of the window (required)
+         */
+        public Builder setFrom(DateTime from) {
+            this.from = from;
+            return this;
+        }
+
+        /**
+         * @param till end of the window (required)
+         */
+        public Builder setTill(DateTime till) {
+            this.till = till;
+            return this;
+        }
+
+        /**
+         * @param types types of operations, all types if omitted
+         */
+        public Builder setTypes(Set<OperationHistory.FilterType> types) {
+            this.types = types;
+            return this;
+        }
+
+        /**
+         * @param details {@code true} if detailed operations are required
+         */
+        public Builder setDetails(Boolean details) {
+            this.details = details;
+            return this;
+        }
+
+        /**
+         * @param slices number of slices the window is split into, equals to parallelism by
+         *               default
+         */
+        public Builder setSlices(Integer slices) {
+            this.slices = slices;
+            return this;
+        }
+
+        /**
+         * @param parallelism maximum number of slices fetched at once (4 by default)
+         */
+        public Builder setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @param pageSize number of records requested at once per slice (100 by default)
+         */
+        public Builder setPageSize(Integer pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @return {@link OperationHistoryExporter}
+         */
+        public OperationHistoryExporter create() {
+            return new OperationHistoryExporter(session, from, till, types, details, slices,
+                    parallelism, pageSize);
+        }
+    }
+
+    private final class Slice implements Callable<List<Operation>> {
+
+        private final DateTime from;
+        private final DateTime till;
+
+        Slice(DateTime from, DateTime till) {
+            this.from = from;
+            this.till = till;
+        }
+
+        @Override
+        public List<Operation> call() {
+            List<Operation> operations = new ArrayList<>();
+            OperationHistoryCursor cursor = new OperationHistoryCursor.Builder(session)
+                    .setTypes(types)
+                    .setDetails(details)
+                    .setFrom(from)
+                    .setTill(till)
+                    .setPageSize(pageSize)
+                    .create();
+            try {
+                while (cursor.hasNext()) {
+                    operations.add(cursor.next());
+                }
+            } finally {
+                cursor.close();
+            }
+            return operations;
+        }
+    }
+}
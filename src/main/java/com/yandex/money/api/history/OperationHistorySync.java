@@ -0,0 +1,316 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.history;
+
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.OAuth2Session;
+
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Incrementally synchronizes operation history of a wallet. Each {@link #sync()} fetches only
+ * operations newer than a {@link Checkpoint} kept in a {@link CheckpointStore} and returns the
+ * delta: new operations and operations which status has changed since they were seen.
+ * <p/>
+ * Operations can appear in history later than their {@link Operation#datetime} and change
+ * their status (e.g. from {@link Operation.Status#IN_PROGRESS} to
+ * {@link Operation.Status#SUCCESS}), so each sync fetches operations starting from the high-water
+ * mark minus an overlap window. Statuses of operations inside the window are kept in the
+ * checkpoint to tell changed operations from already seen ones.
+ * <p/>
+ * Synchronization is not thread safe: use one instance per wallet.
+ */
+public class OperationHistorySync {
+
+    private static final long DEFAULT_OVERLAP = TimeUnit.MINUTES.toMillis(10);
+
+    private final OAuth2Session session;
+    private final CheckpointStore store;
+    private final String wallet;
+    private final Set<OperationHistory.FilterType> types;
+    private final Boolean details;
+    private final Integer pageSize;
+    private final DateTime startFrom;
+    private final long overlap;
+
+    /**
+     * Use {@link OperationHistorySync.Builder} to create an instance.
+     */
+    private OperationHistorySync(Builder builder) {
+        if (builder.session == null) {
+            throw new NullPointerException("session is null");
+        }
+        if (builder.store == null) {
+            throw new NullPointerException("store is null");
+        }
+        if (builder.wallet == null || builder.wallet.isEmpty()) {
+            throw new IllegalArgumentException("wallet is null or empty");
+        }
+        session = builder.session;
+        store = builder.store;
+        wallet = builder.wallet;
+        types = builder.types;
+        details = builder.details;
+        pageSize = builder.pageSize;
+        startFrom = builder.startFrom;
+        overlap = builder.overlap;
+    }
+
+    /**
+     * Fetches operations which are new or have changed since previous synchronization and
+     * saves new checkpoint. If fetching fails the checkpoint is not changed, so the next sync
+     * returns the same operations.
+     *
+     * @return delta sorted by datetime (oldest first)
+     * @throws IOException if checkpoint can not be loaded or saved
+     * @throws OperationHistoryCursor.FetchException if history can not be fetched
+     */
+    public List<Operation> sync() throws IOException {
+        Checkpoint checkpoint = store.load(wallet);
+        DateTime from = checkpoint == null ? startFrom : checkpoint.datetime.minus(overlap);
+        Map<String, Operation.Status> seen = checkpoint == null ?
+                Collections.<String, Operation.Status>emptyMap() : checkpoint.statuses;
+
+        List<Operation> operations = new ArrayList<>();
+        OperationHistoryCursor cursor = new OperationHistoryCursor.Builder(session)
+                .setTypes(types)
+                .setDetails(details)
+                .setPageSize(pageSize)
+                .setFrom(from)
+                .create();
+        try {
+            while (cursor.hasNext()) {
+                operations.add(cursor.next());
+            }
+        } finally {
+            cursor.close();
+        }
+
+        List<Operation> delta = new ArrayList<>();
+        DateTime datetime = checkpoint == null ? null : checkpoint.datetime;
+        String operationId = checkpoint == null ? null : checkpoint.operationId;
+        for (Operation operation : operations) {
+            if (operation.status != seen.get(operation.operationId)) {
+                delta.add(operation);
+            }
+            if (operation.datetime != null && (datetime == null ||
+                    operation.datetime.isAfter(datetime) || operation.datetime.isEqual(datetime) &&
+                    operation.operationId.compareTo(operationId) > 0)) {
+                datetime = operation.datetime;
+                operationId = operation.operationId;
+            }
+        }
+
+        if (datetime != null) {
+            store.save(wallet, createCheckpoint(datetime, operationId, operations));
+        }
+
+        Collections.reverse(delta);
+        return delta;
+    }
+
+    /**
+     * Creates checkpoint that remembers statuses of operations inside overlap window. All of
+     * them have just been fetched, because the window never moves back.
+     */
+    private Checkpoint createCheckpoint(DateTime datetime, String operationId,
+                                        List<Operation> operations) {
+
+        DateTime windowStart = datetime.minus(overlap);
+        Map<String, Operation.Status> statuses = new HashMap<>();
+        for (Operation operation : operations) {
+            if (operation.datetime == null || !operation.datetime.isBefore(windowStart)) {
+                statuses.put(operation.operationId, operation.status);
+            }
+        }
+        return new Checkpoint(datetime, operationId, statuses);
+    }
+
+    /**
+     * Position of synchronization: datetime and id of the latest seen operation (high-water
+     * mark) and statuses of operations inside overlap window.
+     */
+    public static final class Checkpoint {
+
+        public final DateTime datetime;
+        public final String operationId;
+
+        private final Map<String, Operation.Status> statuses;
+
+        /**
+         * Constructor.
+         *
+         * @param datetime datetime of the latest seen operation
+         * @param operationId id of the latest seen operation
+         * @param statuses statuses of operations inside overlap window by their ids
+         */
+        public Checkpoint(DateTime datetime, String operationId,
+                          Map<String, Operation.Status> statuses) {
+
+            if (datetime == null) {
+                throw new NullPointerException("datetime is null");
+            }
+            if (operationId == null) {
+                throw new NullPointerException("operationId is null");
+            }
+            if (statuses == null) {
+                throw new NullPointerException("statuses is null");
+            }
+            this.datetime = datetime;
+            this.operationId = operationId;
+            this.statuses = Collections.unmodifiableMap(new HashMap<>(statuses));
+        }
+
+        /**
+         * @return statuses of operations inside overlap window by their ids
+         */
+        public Map<String, Operation.Status> getStatuses() {
+            return statuses;
+        }
+
+        @Override
+        public String toString() {
+            return "Checkpoint{" +
+                    "datetime=" + datetime +
+                    ", operationId='" + operationId + '\'' +
+                    ", statuses=" + statuses.size() +
+                    '}';
+        }
+    }
+
+    /**
+     * Persists checkpoints of wallets.
+     *
+     * @see FileCheckpointStore
+     */
+    public interface CheckpointStore {
+
+        /**
+         * Loads checkpoint of a wallet.
+         *
+         * @param wallet wallet's identifier
+         * @return checkpoint or {@code null} if wallet was never synchronized
+         */
+        Checkpoint load(String wallet) throws IOException;
+
+        /**
+         * Saves checkpoint of a wallet.
+         *
+         * @param wallet wallet's identifier
+         * @param checkpoint the checkpoint
+         */
+        void save(String wallet, Checkpoint checkpoint) throws IOException;
+    }
+
+    /**
+     * Creates {@link OperationHistorySync}.
+     */
+    public static class Builder {
+
+        private final OAuth2Session session;
+        private final CheckpointStore store;
+        private final String wallet;
+
+        private Set<OperationHistory.FilterType> types;
+        private Boolean details;
+        private Integer pageSize;
+        private DateTime startFrom;
+        private long overlap = DEFAULT_OVERLAP;
+
+        /**
+         * Constructor.
+         *
+         * @param session session authorized for the wallet
+         * @param store store of checkpoints
+         * @param wallet wallet's identifier used as a key in the store, e.g. account number
+         */
+        public Builder(OAuth2Session session, CheckpointStore store, String wallet) {
+            this.session = session;
+            this.store = store;
+            this.wallet = wallet;
+        }
+
+        /**
+         * @param types types of operations, all types if omitted
+         */
+        public Builder setTypes(Set<OperationHistory.FilterType> types) {
+            this.types = types;
+            return this;
+        }
+
+        /**
+         * @param details {@code true} if detailed operations are required
+         */
+        public Builder setDetails(Boolean details) {
+            this.details = details;
+            return this;
+        }
+
+        /**
+         * @param pageSize number of records requested at once (from 1 to 100)
+         */
+        public Builder setPageSize(Integer pageSize) {
+            this.pageSize = pageSize;
+            return this;
+        }
+
+        /**
+         * @param startFrom time to start the first synchronization from, whole history is
+         *                  fetched if omitted
+         */
+        public Builder setStartFrom(DateTime startFrom) {
+            this.startFrom = startFrom;
+            return this;
+        }
+
+        /**
+         * @param overlap time before the high-water mark to fetch again (10 minutes by default)
+         * @param unit time unit
+         */
+        public Builder setOverlap(long overlap, TimeUnit unit) {
+            if (overlap < 0) {
+                throw new IllegalArgumentException("overlap is negative");
+            }
+            this.overlap = unit.toMillis(overlap);
+            return this;
+        }
+
+        /**
+         * @return {@link OperationHistorySync}
+         */
+        public OperationHistorySync create() {
+            return new OperationHistorySync(this);
+        }
+    }
+}
@@ -24,16 +24,10 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.model.AccountStatus;
 import com.yandex.money.api.model.AccountType;
+import com.yandex.money.api.model.Amount;
 import com.yandex.money.api.model.Avatar;
 import com.yandex.money.api.model.BalanceDetails;
 import com.yandex.money.api.model.Card;
@@ -47,7 +41,6 @@ import com.yandex.money.api.utils.Strings;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -64,6 +57,13 @@ public class AccountInfo implements MethodResponse {
 
     public final String account;
     public final BigDecimal balance;
+
+    /**
+     * {@link #balance} in {@link #currency}, {@code null} if currency is not set or balance can
+     * not be represented in minor units
+     */
+    public final Amount balanceValue;
+
     public final Currency currency;
     public final AccountStatus accountStatus;
     public final AccountType accountType;
@@ -90,6 +90,29 @@ public class AccountInfo implements MethodResponse {
                        BalanceDetails balanceDetails, List<Card> linkedCards,
                        List<String> additionalServices) {
 
+        this(account, balance, toAmount(balance, currency), currency, accountStatus, accountType,
+                avatar, balanceDetails, linkedCards, additionalServices);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param account account's number (required)
+     * @param balance current balance (required)
+     * @param balanceValue current balance as {@link Amount}
+     * @param currency selected currency
+     * @param accountStatus account's status
+     * @param accountType account's type
+     * @param avatar avatar's info
+     * @param balanceDetails detailed balance if available
+     * @param linkedCards linked cards
+     * @param additionalServices additional services
+     */
+    public AccountInfo(String account, BigDecimal balance, Amount balanceValue, Currency currency,
+                       AccountStatus accountStatus, AccountType accountType, Avatar avatar,
+                       BalanceDetails balanceDetails, List<Card> linkedCards,
+                       List<String> additionalServices) {
+
         if (Strings.isNullOrEmpty(account)) {
             throw new IllegalArgumentException("account is null or empty");
         }
@@ -107,6 +130,7 @@ public class AccountInfo implements MethodResponse {
         }
         this.account = account;
         this.balance = balance;
+        this.balanceValue = balanceValue;
         this.currency = currency;
         this.accountStatus = accountStatus;
         this.accountType = accountType;
@@ -135,6 +159,11 @@ public class AccountInfo implements MethodResponse {
         return accountStatus == AccountStatus.IDENTIFIED;
     }
 
+    private static Amount toAmount(BigDecimal balance, Currency currency) {
+        return balance == null || currency == null ? null :
+                Amount.tryParse(balance.toPlainString(), currency);
+    }
+
     /**
      * Requests for {@link com.yandex.money.api.methods.AccountInfo}.
      * <p/>
@@ -144,78 +173,98 @@ public class AccountInfo implements MethodResponse {
      */
     public static final class Request implements MethodRequest<AccountInfo> {
 
+        static {
+            GsonProvider.registerTypeAdapter(AccountInfo.class, new Deserializer());
+        }
+
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/account-info");
+            return hostsProvider.getMoneyApiUrl("/account-info");
         }
 
         @Override
         public AccountInfo parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream), AccountInfo.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    AccountInfo.class);
         }
 
         @Override
         public PostRequestBodyBuffer buildParameters() throws IOException {
             return null;
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(AccountInfo.class, new Deserializer())
-                    .create();
-        }
     }
 
-    private static final class Deserializer implements JsonDeserializer<AccountInfo> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<AccountInfo> {
         @Override
-        public AccountInfo deserialize(JsonElement json, Type typeOfT,
-                                       JsonDeserializationContext context)
-                throws JsonParseException {
+        protected AccountInfo readObject(JsonReader reader) throws IOException {
+            String account = null;
+            String balance = null;
+            String currencyCode = null;
+            AccountStatus accountStatus = null;
+            AccountType accountType = null;
+            Avatar avatar = null;
+            BalanceDetails balanceDetails = null;
+            List<Card> linkedCards = new ArrayList<>();
+            List<String> additionalServices = new ArrayList<>();
 
-            JsonObject object = json.getAsJsonObject();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "account":
+                        account = JsonReaders.nextString(reader);
+                        break;
+                    case "balance":
+                        // literal is kept until currency is known
+                        balance = JsonReaders.nextString(reader);
+                        break;
+                    case "currency":
+                        currencyCode = JsonReaders.nextString(reader);
+                        break;
+                    case "account_status":
+                        accountStatus = AccountStatus.parse(JsonReaders.nextString(reader));
+                        break;
+                    case "account_type":
+                        accountType = AccountType.parse(JsonReaders.nextString(reader));
+                        break;
+                    case "avatar":
+                        avatar = Avatar.createFromJson(reader);
+                        break;
+                    case "balance_details":
+                        balanceDetails = BalanceDetails.createFromJson(reader);
+                        break;
+                    case "cards_linked":
+                        if (!JsonReaders.skipNull(reader)) {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                linkedCards.add(Card.createFromJson(reader));
+                            }
+                            reader.endArray();
+                        }
+                        break;
+                    case "services_additional":
+                        List<String> services = JsonReaders.nextStringList(reader);
+                        if (services != null) {
+                            additionalServices = services;
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
 
             Currency currency;
             try {
-                int parsed = Integer.parseInt(JsonUtils.getString(object, "currency"));
-                currency = Currency.parseNumericCode(parsed);
+                currency = Currency.parseNumericCode(Integer.parseInt(currencyCode));
             } catch (NumberFormatException e) {
                 currency = Currency.RUB;
             }
 
-            final String memberAvatar = "avatar";
-            Avatar avatar = null;
-            if (object.has(memberAvatar)) {
-                avatar = Avatar.createFromJson(object.get(memberAvatar));
-            }
-
-            BalanceDetails balanceDetails = BalanceDetails.createFromJson(
-                    object.get("balance_details"));
-
-            final String memberLinkedCards = "cards_linked";
-            List<Card> linkedCards = new ArrayList<>();
-            if (object.has(memberLinkedCards)) {
-                JsonArray array = object.getAsJsonArray(memberLinkedCards);
-                final int size = array.size();
-                for (int i = 0; i < size; ++i) {
-                    linkedCards.add(Card.createFromJson(array.get(i)));
-                }
-            }
-
-            final String memberAdditionalServices = "services_additional";
-            List<String> additionalServices = new ArrayList<>();
-            if (object.has(memberAdditionalServices)) {
-                JsonArray array = object.getAsJsonArray(memberAdditionalServices);
-                final int size = array.size();
-                for (int i = 0; i < size; ++i) {
-                    additionalServices.add(array.get(i).getAsString());
-                }
-            }
-
-            return new AccountInfo(JsonUtils.getMandatoryString(object, "account"),
-                    JsonUtils.getMandatoryBigDecimal(object, "balance"), currency,
-                    AccountStatus.parse(JsonUtils.getString(object, "account_status")),
-                    AccountType.parse(JsonUtils.getString(object, "account_type")),
-                    avatar, balanceDetails, linkedCards, additionalServices);
+            return new AccountInfo(JsonReaders.checkMandatoryValue(account, "account"),
+                    new BigDecimal(JsonReaders.checkMandatoryValue(balance, "balance")),
+                    Amount.tryParse(balance, currency), currency,
+                    accountStatus, accountType, avatar, balanceDetails, linkedCards,
+                    additionalServices);
         }
     }
 }
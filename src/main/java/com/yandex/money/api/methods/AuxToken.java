@@ -24,8 +24,6 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -86,6 +84,10 @@ public class AuxToken implements MethodResponse {
      */
     public static final class Request implements MethodRequest<AuxToken> {
 
+        static {
+            GsonProvider.registerTypeAdapter(AuxToken.class, new Deserializer());
+        }
+
         private final Set<Scope> scopes;
 
         public Request(Set<Scope> scopes) {
@@ -97,12 +99,13 @@ public class AuxToken implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/token-aux");
+            return hostsProvider.getMoneyApiUrl("/token-aux");
         }
 
         @Override
         public AuxToken parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream), AuxToken.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    AuxToken.class);
         }
 
         @Override
@@ -110,12 +113,6 @@ public class AuxToken implements MethodResponse {
             return new PostRequestBodyBuffer()
                     .addParam("scope", Scope.createScopeParameter(scopes.iterator()));
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(AuxToken.class, new Deserializer())
-                    .create();
-        }
     }
 
     private static final class Deserializer implements JsonDeserializer<AuxToken> {
@@ -0,0 +1,84 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.methods;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import java.lang.reflect.Type;
+
+/**
+ * Shared registry of type adapters used to parse API responses.
+ * <p/>
+ * Every class that needs JSON (de)serialization registers its type adapter once in its static
+ * initializer. The {@link Gson} instance is built lazily on first use and is rebuilt only if a new
+ * adapter was registered since then, so parsing itself never creates a {@link GsonBuilder}.
+ */
+public final class GsonProvider {
+
+    private static final GsonBuilder BUILDER = new GsonBuilder();
+
+    private static volatile Gson gson;
+
+    private GsonProvider() {
+        // prevents instantiating of this class
+    }
+
+    /**
+     * Registers type adapter for specified type. Can be safely called from any thread.
+     *
+     * @param type type to register adapter for
+     * @param typeAdapter type adapter (see {@link GsonBuilder#registerTypeAdapter(Type, Object)})
+     */
+    public static void registerTypeAdapter(Type type, Object typeAdapter) {
+        if (type == null) {
+            throw new NullPointerException("type is null");
+        }
+        if (typeAdapter == null) {
+            throw new NullPointerException("typeAdapter is null");
+        }
+        synchronized (BUILDER) {
+            BUILDER.registerTypeAdapter(type, typeAdapter);
+            gson = null;
+        }
+    }
+
+    /**
+     * @return shared {@link Gson} instance with all registered type adapters
+     */
+    public static Gson getGson() {
+        Gson result = gson;
+        if (result == null) {
+            synchronized (BUILDER) {
+                result = gson;
+                if (result == null) {
+                    result = BUILDER.create();
+                    gson = result;
+                }
+            }
+        }
+        return result;
+    }
+}
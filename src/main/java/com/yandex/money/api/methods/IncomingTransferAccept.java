@@ -24,8 +24,6 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -125,6 +123,10 @@ public class IncomingTransferAccept implements MethodResponse {
      */
     public static final class Request implements MethodRequest<IncomingTransferAccept> {
 
+        static {
+            GsonProvider.registerTypeAdapter(IncomingTransferAccept.class, new Deserializer());
+        }
+
         private final String operationId;
         private final String protectionCode;
 
@@ -144,12 +146,12 @@ public class IncomingTransferAccept implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/incoming-transfer-accept");
+            return hostsProvider.getMoneyApiUrl("/incoming-transfer-accept");
         }
 
         @Override
         public IncomingTransferAccept parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream),
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
                     IncomingTransferAccept.class);
         }
 
@@ -159,12 +161,6 @@ public class IncomingTransferAccept implements MethodResponse {
                     .addParam("operation_id", operationId)
                     .addParamIfNotNull("protection_code", protectionCode);
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(IncomingTransferAccept.class, new Deserializer())
-                    .create();
-        }
     }
 
     private static final class Deserializer implements JsonDeserializer<IncomingTransferAccept> {
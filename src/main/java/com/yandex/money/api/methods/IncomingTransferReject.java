@@ -24,8 +24,6 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -115,6 +113,10 @@ public class IncomingTransferReject implements MethodResponse {
      */
     public static final class Request implements MethodRequest<IncomingTransferReject> {
 
+        static {
+            GsonProvider.registerTypeAdapter(IncomingTransferReject.class, new Deserializer());
+        }
+
         private String operationId;
 
         /**
@@ -131,12 +133,12 @@ public class IncomingTransferReject implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/incoming-transfer-reject");
+            return hostsProvider.getMoneyApiUrl("/incoming-transfer-reject");
         }
 
         @Override
         public IncomingTransferReject parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream),
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
                     IncomingTransferReject.class);
         }
 
@@ -145,12 +147,6 @@ public class IncomingTransferReject implements MethodResponse {
             return new PostRequestBodyBuffer()
                     .addParam("operation_id", operationId);
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(Request.class, new Deserializer())
-                    .create();
-        }
     }
 
     private static final class Deserializer implements JsonDeserializer<IncomingTransferReject> {
@@ -24,7 +24,6 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -119,6 +118,10 @@ public class InstanceId implements MethodResponse {
      */
     public static class Request implements MethodRequest<InstanceId> {
 
+        static {
+            GsonProvider.registerTypeAdapter(InstanceId.class, new Deserializer());
+        }
+
         private String clientId;
 
         /**
@@ -134,21 +137,13 @@ public class InstanceId implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/instance-id");
+            return hostsProvider.getMoneyApiUrl("/instance-id");
         }
 
         @Override
         public InstanceId parseResponse(InputStream inputStream) {
-            return new GsonBuilder().registerTypeAdapter(InstanceId.class, new JsonDeserializer<InstanceId>() {
-                @Override
-                public InstanceId deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                    JsonObject o = json.getAsJsonObject();
-                    return new InstanceId(
-                            Status.parse(JsonUtils.getString(o, "status")),
-                            Error.parse(JsonUtils.getString(o, "error")),
-                            JsonUtils.getString(o, "instance_id"));
-                }
-            }).create().fromJson(new InputStreamReader(inputStream), InstanceId.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    InstanceId.class);
         }
 
         @Override
@@ -156,4 +151,18 @@ public class InstanceId implements MethodResponse {
             return new PostRequestBodyBuffer().addParam("client_id", clientId);
         }
     }
+
+    private static final class Deserializer implements JsonDeserializer<InstanceId> {
+        @Override
+        public InstanceId deserialize(JsonElement json, Type typeOfT,
+                                      JsonDeserializationContext context)
+                throws JsonParseException {
+
+            JsonObject o = json.getAsJsonObject();
+            return new InstanceId(
+                    Status.parse(JsonUtils.getString(o, "status")),
+                    Error.parse(JsonUtils.getString(o, "error")),
+                    JsonUtils.getString(o, "instance_id"));
+        }
+    }
 }
@@ -0,0 +1,225 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.methods;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.yandex.money.api.model.Amount;
+import com.yandex.money.api.utils.Currency;
+import com.yandex.money.api.utils.DateTimes;
+
+import org.joda.time.DateTime;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Static class for streaming JSON parsing process. Counterpart of {@link JsonUtils} that reads
+ * values directly from a {@link JsonReader} without building a tree of JSON elements.
+ * <p/>
+ * Every method expects a reader positioned on a value and consumes it. JSON nulls are returned
+ * as {@code null}.
+ */
+public final class JsonReaders {
+
+    /**
+     * This class contains only static methods.
+     */
+    private JsonReaders() {
+        // disallow instance creation
+    }
+
+    /**
+     * Reads nullable String. Numbers and booleans are returned as strings.
+     *
+     * @param reader JSON reader
+     * @return {@link String} value
+     */
+    public static String nextString(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return String.valueOf(reader.nextBoolean());
+            default:
+                return reader.nextString();
+        }
+    }
+
+    /**
+     * Reads nullable Boolean.
+     *
+     * @param reader JSON reader
+     * @return {@link Boolean} value
+     */
+    public static Boolean nextBoolean(JsonReader reader) throws IOException {
+        switch (reader.peek()) {
+            case NULL:
+                reader.nextNull();
+                return null;
+            case BOOLEAN:
+                return reader.nextBoolean();
+            default:
+                return Boolean.parseBoolean(reader.nextString());
+        }
+    }
+
+    /**
+     * Reads nullable Long.
+     *
+     * @param reader JSON reader
+     * @return {@link Long} value
+     */
+    public static Long nextLong(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        return reader.nextLong();
+    }
+
+    /**
+     * Reads nullable BigDecimal. Value is created from the literal of a number, so no precision
+     * is lost.
+     *
+     * @param reader JSON reader
+     * @return {@link java.math.BigDecimal} value
+     */
+    public static BigDecimal nextBigDecimal(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        return new BigDecimal(reader.nextString());
+    }
+
+    /**
+     * Reads nullable Amount. Value is parsed from the literal of a number without creating
+     * {@link BigDecimal}.
+     *
+     * @param reader JSON reader
+     * @param currency currency of amount
+     * @return {@link Amount} value
+     */
+    public static Amount nextAmount(JsonReader reader, Currency currency) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        return Amount.parse(reader.nextString(), currency);
+    }
+
+    /**
+     * Reads nullable DateTime.
+     *
+     * @param reader JSON reader
+     * @return {@link org.joda.time.DateTime} value
+     */
+    public static DateTime nextDateTime(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        return DateTimes.parse(reader.nextString());
+    }
+
+    /**
+     * Reads JSON object as key-value pairs. If the object contains non-primitive entries they
+     * are skipped and {@code null} value added using specified key.
+     *
+     * @param reader JSON reader
+     * @return map of string key-value pairs
+     */
+    public static Map<String, String> nextMap(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        Map<String, String> result = new HashMap<>();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            String name = reader.nextName();
+            String value = null;
+            switch (reader.peek()) {
+                case BEGIN_OBJECT:
+                case BEGIN_ARRAY:
+                    reader.skipValue();
+                    break;
+                default:
+                    value = nextString(reader);
+            }
+            result.put(name, value);
+        }
+        reader.endObject();
+        return result;
+    }
+
+    /**
+     * Reads JSON array of strings.
+     *
+     * @param reader JSON reader
+     * @return list of strings
+     */
+    public static List<String> nextStringList(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        List<String> result = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            result.add(nextString(reader));
+        }
+        reader.endArray();
+        return result;
+    }
+
+    /**
+     * Checks that mandatory value is present.
+     *
+     * @param value value
+     * @param memberName member's name
+     * @return the value
+     */
+    public static <T> T checkMandatoryValue(T value, String memberName) {
+        if (value == null) {
+            throw new NullPointerException("mandatory value \'" + memberName + "\' is null");
+        }
+        return value;
+    }
+
+    /**
+     * Consumes JSON null if reader is positioned on it.
+     *
+     * @param reader JSON reader
+     * @return {@code true} if null was consumed
+     */
+    public static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+}
@@ -27,9 +27,9 @@ package com.yandex.money.api.methods;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import com.google.gson.JsonPrimitive;
+import com.yandex.money.api.utils.DateTimes;
 
 import org.joda.time.DateTime;
-import org.joda.time.format.ISODateTimeFormat;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
@@ -198,8 +198,7 @@ public final class JsonUtils {
     public static DateTime getDateTime(JsonObject object, String memberName) {
         JsonPrimitive primitive = getPrimitiveChecked(object, memberName);
         return primitive == null ? null :
-                DateTime.parse(primitive.getAsString(),
-                        ISODateTimeFormat.dateTimeParser().withOffsetParsed());
+                DateTimes.parse(primitive.getAsString());
     }
 
     /**
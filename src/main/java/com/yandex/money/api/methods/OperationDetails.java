@@ -24,8 +24,6 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -83,6 +81,10 @@ public class OperationDetails implements MethodResponse {
      */
     public static class Request implements MethodRequest<OperationDetails> {
 
+        static {
+            GsonProvider.registerTypeAdapter(OperationDetails.class, new Deserializer());
+        }
+
         private final String operationId;
 
         /**
@@ -99,12 +101,13 @@ public class OperationDetails implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/operation-details");
+            return hostsProvider.getMoneyApiUrl("/operation-details");
         }
 
         @Override
         public OperationDetails parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream), OperationDetails.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    OperationDetails.class);
         }
 
         @Override
@@ -112,12 +115,6 @@ public class OperationDetails implements MethodResponse {
             return new PostRequestBodyBuffer()
                     .addParam("operation_id", operationId);
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(OperationDetails.class, new Deserializer())
-                    .create();
-        }
     }
 
     private static final class Deserializer implements JsonDeserializer<OperationDetails> {
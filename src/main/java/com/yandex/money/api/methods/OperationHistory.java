@@ -24,13 +24,7 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.model.Error;
 import com.yandex.money.api.model.Operation;
 import com.yandex.money.api.net.HostsProvider;
@@ -43,7 +37,6 @@ import org.joda.time.DateTime;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
@@ -100,6 +93,10 @@ public class OperationHistory implements MethodResponse {
      */
     public static class Request implements MethodRequest<OperationHistory> {
 
+        static {
+            GsonProvider.registerTypeAdapter(OperationHistory.class, new Deserializer());
+        }
+
         private final Set<FilterType> types;
         private final String label;
         private final DateTime from;
@@ -135,12 +132,13 @@ public class OperationHistory implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/operation-history");
+            return hostsProvider.getMoneyApiUrl("/operation-history");
         }
 
         @Override
         public OperationHistory parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream), OperationHistory.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    OperationHistory.class);
         }
 
         @Override
@@ -164,12 +162,6 @@ public class OperationHistory implements MethodResponse {
                     .addParamIfNotNull("details", details);
         }
 
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(OperationHistory.class, new Deserializer())
-                    .create();
-        }
-
         /**
          * Builder for a {@link com.yandex.money.api.methods.OperationHistory.Request}.
          */
@@ -289,24 +281,38 @@ public class OperationHistory implements MethodResponse {
         }
     }
 
-    private static final class Deserializer implements JsonDeserializer<OperationHistory> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<OperationHistory> {
         @Override
-        public OperationHistory deserialize(JsonElement json, Type typeOfT,
-                                            JsonDeserializationContext context)
-                throws JsonParseException {
-
-            JsonObject object = json.getAsJsonObject();
-
-            final String operationsMember = "operations";
+        protected OperationHistory readObject(JsonReader reader) throws IOException {
+            Error error = null;
+            String nextRecord = null;
             List<Operation> operations = new ArrayList<>();
-            if (object.has(operationsMember)) {
-                for (JsonElement element : object.getAsJsonArray(operationsMember)) {
-                    operations.add(Operation.createFromJson(element));
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "error":
+                        error = Error.parse(JsonReaders.nextString(reader));
+                        break;
+                    case "next_record":
+                        nextRecord = JsonReaders.nextString(reader);
+                        break;
+                    case "operations":
+                        if (!JsonReaders.skipNull(reader)) {
+                            reader.beginArray();
+                            while (reader.hasNext()) {
+                                operations.add(Operation.createFromJson(reader));
+                            }
+                            reader.endArray();
+                        }
+                        break;
+                    default:
+                        reader.skipValue();
                 }
             }
+            reader.endObject();
 
-            return new OperationHistory(Error.parse(JsonUtils.getString(object, "error")),
-                    JsonUtils.getString(object, "next_record"), operations);
+            return new OperationHistory(error, nextRecord, operations);
         }
     }
 }
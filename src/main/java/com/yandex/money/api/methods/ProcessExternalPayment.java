@@ -24,12 +24,7 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.model.Error;
 import com.yandex.money.api.model.ExternalCard;
 import com.yandex.money.api.net.HostsProvider;
@@ -40,7 +35,6 @@ import com.yandex.money.api.utils.Strings;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.HashMap;
@@ -97,6 +91,10 @@ public class ProcessExternalPayment extends BaseProcessPayment {
      */
     public static class Request implements MethodRequest<ProcessExternalPayment> {
 
+        static {
+            GsonProvider.registerTypeAdapter(ProcessExternalPayment.class, new Deserializer());
+        }
+
         private final String instanceId;
         private final String requestId;
         private final String extAuthSuccessUri;
@@ -168,35 +166,13 @@ public class ProcessExternalPayment extends BaseProcessPayment {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/process-external-payment");
+            return hostsProvider.getMoneyApiUrl("/process-external-payment");
         }
 
         @Override
         public ProcessExternalPayment parseResponse(InputStream inputStream) {
-            return new GsonBuilder().registerTypeAdapter(ProcessExternalPayment.class, new JsonDeserializer<ProcessExternalPayment>() {
-                @Override
-                public ProcessExternalPayment deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                    JsonObject o = json.getAsJsonObject();
-
-                    JsonObject paramsObj = o.getAsJsonObject(MEMBER_ACS_PARAMS);
-                    Map<String, String> acsParams = paramsObj == null ?
-                            new HashMap<String, String>() : JsonUtils.map(paramsObj);
-
-                    final String moneySourceMember = "money_source";
-                    ExternalCard moneySource = o.has(moneySourceMember) ?
-                            ExternalCard.createFromJson(o.get(moneySourceMember)) : null;
-
-                    return new ProcessExternalPayment(
-                            Status.parse(JsonUtils.getString(o, MEMBER_STATUS)),
-                            Error.parse(JsonUtils.getString(o, MEMBER_ERROR)),
-                            JsonUtils.getString(o, "invoice_id"),
-                            JsonUtils.getString(o, MEMBER_ACS_URI),
-                            acsParams,
-                            JsonUtils.getLong(o, MEMBER_NEXT_RETRY),
-                            moneySource
-                    );
-                }
-            }).create().fromJson(new InputStreamReader(inputStream), ProcessExternalPayment.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    ProcessExternalPayment.class);
         }
 
         @Override
@@ -217,4 +193,51 @@ public class ProcessExternalPayment extends BaseProcessPayment {
             return bb;
         }
     }
+
+    private static final class Deserializer extends ReadOnlyTypeAdapter<ProcessExternalPayment> {
+        @Override
+        protected ProcessExternalPayment readObject(JsonReader reader) throws IOException {
+            String status = null;
+            String error = null;
+            String invoiceId = null;
+            String acsUri = null;
+            Map<String, String> acsParams = null;
+            Long nextRetry = null;
+            ExternalCard moneySource = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case MEMBER_STATUS:
+                        status = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_ERROR:
+                        error = JsonReaders.nextString(reader);
+                        break;
+                    case "invoice_id":
+                        invoiceId = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_ACS_URI:
+                        acsUri = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_ACS_PARAMS:
+                        acsParams = JsonReaders.nextMap(reader);
+                        break;
+                    case MEMBER_NEXT_RETRY:
+                        nextRetry = JsonReaders.nextLong(reader);
+                        break;
+                    case "money_source":
+                        moneySource = ExternalCard.createFromJson(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return new ProcessExternalPayment(Status.parse(status), Error.parse(error), invoiceId,
+                    acsUri, acsParams == null ? new HashMap<String, String>() : acsParams,
+                    nextRetry, moneySource);
+        }
+    }
 }
@@ -24,13 +24,7 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.model.DigitalGoods;
 import com.yandex.money.api.model.Error;
 import com.yandex.money.api.model.MoneySource;
@@ -41,7 +35,6 @@ import com.yandex.money.api.net.PostRequestBodyBuffer;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -113,6 +106,10 @@ public class ProcessPayment extends BaseProcessPayment {
      */
     public static final class Request implements MethodRequest<ProcessPayment> {
 
+        static {
+            GsonProvider.registerTypeAdapter(ProcessPayment.class, new Deserializer());
+        }
+
         private final String requestId;
         private final MoneySource moneySource;
         private final String csc;
@@ -158,12 +155,13 @@ public class ProcessPayment extends BaseProcessPayment {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/process-payment");
+            return hostsProvider.getMoneyApiUrl("/process-payment");
         }
 
         @Override
         public ProcessPayment parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream), ProcessPayment.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    ProcessPayment.class);
         }
 
         @Override
@@ -214,12 +212,6 @@ public class ProcessPayment extends BaseProcessPayment {
         public void setTestResult(TestResult testResult) {
             this.testResult = testResult;
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(ProcessPayment.class, new Deserializer())
-                    .create();
-        }
     }
 
     /**
@@ -396,30 +388,69 @@ public class ProcessPayment extends BaseProcessPayment {
         }
     }
 
-    private static final class Deserializer implements JsonDeserializer<ProcessPayment> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<ProcessPayment> {
         @Override
-        public ProcessPayment deserialize(JsonElement json, Type typeOfT,
-                                          JsonDeserializationContext context)
-                throws JsonParseException {
-
-            JsonObject object = json.getAsJsonObject();
-            return new Builder()
-                    .setStatus(Status.parse(JsonUtils.getMandatoryString(object, MEMBER_STATUS)))
-                    .setError(Error.parse(JsonUtils.getString(object, MEMBER_ERROR)))
-                    .setPaymentId(JsonUtils.getString(object, "payment_id"))
-                    .setBalance(JsonUtils.getBigDecimal(object, "balance"))
-                    .setInvoiceId(JsonUtils.getString(object, "invoice_id"))
-                    .setPayer(JsonUtils.getString(object, "payer"))
-                    .setPayee(JsonUtils.getString(object, "payee"))
-                    .setCreditAmount(JsonUtils.getBigDecimal(object, "credit_amount"))
-                    .setAccountUnblockUri(JsonUtils.getString(object, "account_unblock_uri"))
-                    .setPayeeUid(JsonUtils.getString(object, "payee_uid"))
-                    .setHoldForPickupLink(JsonUtils.getString(object, "hold_for_pickup_link"))
-                    .setAcsUri(JsonUtils.getString(object, MEMBER_ACS_URI))
-                    .setAcsParams(object.has(MEMBER_ACS_PARAMS) ?
-                            JsonUtils.map(object.getAsJsonObject(MEMBER_ACS_PARAMS)) : null)
-                    .setNextRetry(JsonUtils.getLong(object, MEMBER_NEXT_RETRY))
-                    .setDigitalGoods(DigitalGoods.createFromJson(object.get("digital_goods")))
+        protected ProcessPayment readObject(JsonReader reader) throws IOException {
+            Builder builder = new Builder();
+            String status = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case MEMBER_STATUS:
+                        status = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_ERROR:
+                        builder.setError(Error.parse(JsonReaders.nextString(reader)));
+                        break;
+                    case "payment_id":
+                        builder.setPaymentId(JsonReaders.nextString(reader));
+                        break;
+                    case "balance":
+                        builder.setBalance(JsonReaders.nextBigDecimal(reader));
+                        break;
+                    case "invoice_id":
+                        builder.setInvoiceId(JsonReaders.nextString(reader));
+                        break;
+                    case "payer":
+                        builder.setPayer(JsonReaders.nextString(reader));
+                        break;
+                    case "payee":
+                        builder.setPayee(JsonReaders.nextString(reader));
+                        break;
+                    case "credit_amount":
+                        builder.setCreditAmount(JsonReaders.nextBigDecimal(reader));
+                        break;
+                    case "account_unblock_uri":
+                        builder.setAccountUnblockUri(JsonReaders.nextString(reader));
+                        break;
+                    case "payee_uid":
+                        builder.setPayeeUid(JsonReaders.nextString(reader));
+                        break;
+                    case "hold_for_pickup_link":
+                        builder.setHoldForPickupLink(JsonReaders.nextString(reader));
+                        break;
+                    case MEMBER_ACS_URI:
+                        builder.setAcsUri(JsonReaders.nextString(reader));
+                        break;
+                    case MEMBER_ACS_PARAMS:
+                        builder.setAcsParams(JsonReaders.nextMap(reader));
+                        break;
+                    case MEMBER_NEXT_RETRY:
+                        builder.setNextRetry(JsonReaders.nextLong(reader));
+                        break;
+                    case "digital_goods":
+                        builder.setDigitalGoods(DigitalGoods.createFromJson(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return builder
+                    .setStatus(Status.parse(JsonReaders.checkMandatoryValue(status,
+                            MEMBER_STATUS)))
                     .createProcessPayment();
         }
     }
@@ -0,0 +1,56 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.methods;
+
+import com.google.gson.TypeAdapter;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+
+/**
+ * Type adapter for API responses which are only read from JSON. JSON null is read as
+ * {@code null}, the rest is delegated to {@link #readObject(JsonReader)}.
+ */
+public abstract class ReadOnlyTypeAdapter<T> extends TypeAdapter<T> {
+
+    @Override
+    public final T read(JsonReader reader) throws IOException {
+        return JsonReaders.skipNull(reader) ? null : readObject(reader);
+    }
+
+    @Override
+    public void write(JsonWriter writer, T value) throws IOException {
+        throw new UnsupportedOperationException("serialization is not supported");
+    }
+
+    /**
+     * Reads non-null value.
+     *
+     * @param reader JSON reader positioned on a value
+     * @return read value
+     */
+    protected abstract T readObject(JsonReader reader) throws IOException;
+}
@@ -24,12 +24,7 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
 import com.yandex.money.api.methods.params.P2pParams;
 import com.yandex.money.api.methods.params.PhoneParams;
 import com.yandex.money.api.model.Error;
@@ -41,7 +36,6 @@ import com.yandex.money.api.utils.Strings;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -80,6 +74,10 @@ public class RequestExternalPayment extends BaseRequestPayment {
      */
     public static class Request implements MethodRequest<RequestExternalPayment> {
 
+        static {
+            GsonProvider.registerTypeAdapter(RequestExternalPayment.class, new Deserializer());
+        }
+
         private final String instanceId;
         private final String patternId;
         private final Map<String, String> params;
@@ -146,23 +144,13 @@ public class RequestExternalPayment extends BaseRequestPayment {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/request-external-payment");
+            return hostsProvider.getMoneyApiUrl("/request-external-payment");
         }
 
         @Override
         public RequestExternalPayment parseResponse(InputStream inputStream) {
-            return new GsonBuilder().registerTypeAdapter(RequestExternalPayment.class, new JsonDeserializer<RequestExternalPayment>() {
-                @Override
-                public RequestExternalPayment deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context) throws JsonParseException {
-                    JsonObject o = json.getAsJsonObject();
-                    return new RequestExternalPayment(
-                            Status.parse(JsonUtils.getString(o, MEMBER_STATUS)),
-                            Error.parse(JsonUtils.getString(o, MEMBER_ERROR)),
-                            JsonUtils.getString(o, MEMBER_REQUEST_ID),
-                            JsonUtils.getBigDecimal(o, MEMBER_CONTRACT_AMOUNT),
-                            JsonUtils.getString(o, "title"));
-                }
-            }).create().fromJson(new InputStreamReader(inputStream), RequestExternalPayment.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    RequestExternalPayment.class);
         }
 
         @Override
@@ -173,4 +161,42 @@ public class RequestExternalPayment extends BaseRequestPayment {
                     .addParams(params);
         }
     }
+
+    private static final class Deserializer extends ReadOnlyTypeAdapter<RequestExternalPayment> {
+        @Override
+        protected RequestExternalPayment readObject(JsonReader reader) throws IOException {
+            String status = null;
+            String error = null;
+            String requestId = null;
+            BigDecimal contractAmount = null;
+            String title = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case MEMBER_STATUS:
+                        status = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_ERROR:
+                        error = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_REQUEST_ID:
+                        requestId = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_CONTRACT_AMOUNT:
+                        contractAmount = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    case "title":
+                        title = JsonReaders.nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return new RequestExternalPayment(Status.parse(status), Error.parse(error), requestId,
+                    contractAmount, title);
+        }
+    }
 }
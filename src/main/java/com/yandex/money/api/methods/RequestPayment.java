@@ -24,14 +24,8 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
-import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.params.ParamsValidator;
 import com.yandex.money.api.model.AccountStatus;
 import com.yandex.money.api.model.AccountType;
 import com.yandex.money.api.model.Card;
@@ -46,7 +40,6 @@ import com.yandex.money.api.utils.Strings;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.lang.reflect.Type;
 import java.math.BigDecimal;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -117,8 +110,12 @@ public class RequestPayment extends BaseRequestPayment {
      */
     public static final class Request implements MethodRequest<RequestPayment> {
 
-        private static final BigDecimal ABSOLUTE_MINIMUM_AMOUNT = new BigDecimal(0.02);
-        private static final BigDecimal ABSOLUTE_MINIMUM_AMOUNT_DUE = new BigDecimal(0.01);
+        private static final BigDecimal ABSOLUTE_MINIMUM_AMOUNT = BigDecimal.valueOf(2, 2);
+        private static final BigDecimal ABSOLUTE_MINIMUM_AMOUNT_DUE = BigDecimal.valueOf(1, 2);
+
+        static {
+            GsonProvider.registerTypeAdapter(RequestPayment.class, new Deserializer());
+        }
 
         private final String patternId;
         private final String to;
@@ -234,12 +231,13 @@ public class RequestPayment extends BaseRequestPayment {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/request-payment");
+            return hostsProvider.getMoneyApiUrl("/request-payment");
         }
 
         @Override
         public RequestPayment parseResponse(InputStream inputStream) {
-            return createGson().fromJson(new InputStreamReader(inputStream), RequestPayment.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    RequestPayment.class);
         }
 
         @Override
@@ -285,12 +283,6 @@ public class RequestPayment extends BaseRequestPayment {
             return this;
         }
 
-        private static Gson createGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(RequestPayment.class, new Deserializer())
-                    .create();
-        }
-
         private void checkNotNullAndNotEmpty(String value, String field) {
             if (Strings.isNullOrEmpty(value)) {
                 throw new IllegalArgumentException(field + " is null or empty");
@@ -384,6 +376,16 @@ public class RequestPayment extends BaseRequestPayment {
                 return this;
             }
 
+            /**
+             * Validates parameters locally. Unlike {@link #createRequest()} reports all invalid
+             * parameters including ones that are checked by server only.
+             *
+             * @return violations or empty list if parameters are valid
+             */
+            public List<ParamsValidator.Violation> validate() {
+                return ParamsValidator.validateP2p(to, amount, amountDue, label, expirePeriod);
+            }
+
             /**
              * @return {@link com.yandex.money.api.methods.RequestPayment.Request} for P2P
              * transaction
@@ -548,52 +550,143 @@ public class RequestPayment extends BaseRequestPayment {
         }
     }
 
-    private static final class Deserializer implements JsonDeserializer<RequestPayment> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<RequestPayment> {
         @Override
-        public RequestPayment deserialize(JsonElement json, Type typeOfT,
-                                          JsonDeserializationContext context)
-                throws JsonParseException {
+        protected RequestPayment readObject(JsonReader reader) throws IOException {
+            Builder builder = new Builder()
+                    .setMoneySources(new ArrayList<MoneySource>());
+            String status = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case MEMBER_STATUS:
+                        status = JsonReaders.nextString(reader);
+                        break;
+                    case MEMBER_ERROR:
+                        builder.setError(Error.parse(JsonReaders.nextString(reader)));
+                        break;
+                    case "money_source":
+                        readMoneySource(reader, builder);
+                        break;
+                    case MEMBER_REQUEST_ID:
+                        builder.setRequestId(JsonReaders.nextString(reader));
+                        break;
+                    case MEMBER_CONTRACT_AMOUNT:
+                        builder.setContractAmount(JsonReaders.nextBigDecimal(reader));
+                        break;
+                    case "balance":
+                        builder.setBalance(JsonReaders.nextBigDecimal(reader));
+                        break;
+                    case "recipient_account_status":
+                        builder.setRecipientAccountStatus(AccountStatus.parse(
+                                JsonReaders.nextString(reader)));
+                        break;
+                    case "recipient_account_type":
+                        builder.setRecipientAccountType(AccountType.parse(
+                                JsonReaders.nextString(reader)));
+                        break;
+                    case "protection_code":
+                        builder.setProtectionCode(JsonReaders.nextString(reader));
+                        break;
+                    case "account_unblock_uri":
+                        builder.setAccountUnblockUri(JsonReaders.nextString(reader));
+                        break;
+                    case "ext_action_uri":
+                        builder.setExtActionUri(JsonReaders.nextString(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
 
-            JsonObject object = json.getAsJsonObject();
-            JsonObject moneySource = object.getAsJsonObject("money_source");
-            List<MoneySource> moneySources = new ArrayList<>();
+            return builder
+                    .setStatus(Status.parse(JsonReaders.checkMandatoryValue(status,
+                            MEMBER_STATUS)))
+                    .createRequestPayment();
+        }
+
+        private static void readMoneySource(JsonReader reader, Builder builder)
+                throws IOException {
+
+            if (JsonReaders.skipNull(reader)) {
+                return;
+            }
+
+            boolean walletAllowed = false;
+            Boolean cardsAllowed = null;
             Boolean cscRequired = null;
-            if (moneySource != null) {
-                final String walletMember = "wallet";
-                if (moneySource.has(walletMember)) {
-                    JsonObject wallet = moneySource.getAsJsonObject(walletMember);
-                    if (JsonUtils.getMandatoryBoolean(wallet, "allowed")) {
-                        moneySources.add(new Wallet());
-                    }
-                }
-                final String cardsMember = "cards";
-                if (moneySource.has(cardsMember)) {
-                    JsonObject cards = moneySource.getAsJsonObject(cardsMember);
-                    if (JsonUtils.getMandatoryBoolean(cards, "allowed")) {
-                        cscRequired = JsonUtils.getMandatoryBoolean(cards, "csc_required");
-                        JsonArray items = cards.getAsJsonArray("items");
-                        for (JsonElement item : items) {
-                            moneySources.add(Card.createFromJson(item));
+            List<Card> cards = new ArrayList<>();
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "wallet":
+                        walletAllowed = readAllowed(reader);
+                        break;
+                    case "cards":
+                        reader.beginObject();
+                        while (reader.hasNext()) {
+                            switch (reader.nextName()) {
+                                case "allowed":
+                                    cardsAllowed = JsonReaders.nextBoolean(reader);
+                                    break;
+                                case "csc_required":
+                                    cscRequired = JsonReaders.nextBoolean(reader);
+                                    break;
+                                case "items":
+                                    // items are not read if cards are not allowed
+                                    if (Boolean.FALSE.equals(cardsAllowed)) {
+                                        reader.skipValue();
+                                        break;
+                                    }
+                                    if (JsonReaders.skipNull(reader)) {
+                                        break;
+                                    }
+                                    reader.beginArray();
+                                    while (reader.hasNext()) {
+                                        cards.add(Card.createFromJson(reader));
+                                    }
+                                    reader.endArray();
+                                    break;
+                                default:
+                                    reader.skipValue();
+                            }
                         }
-                    }
+                        reader.endObject();
+                        JsonReaders.checkMandatoryValue(cardsAllowed, "allowed");
+                        break;
+                    default:
+                        reader.skipValue();
                 }
             }
-            return new Builder()
-                    .setStatus(Status.parse(JsonUtils.getMandatoryString(object, MEMBER_STATUS)))
-                    .setError(Error.parse(JsonUtils.getString(object, MEMBER_ERROR)))
-                    .setMoneySources(moneySources)
-                    .setCscRequired(cscRequired)
-                    .setRequestId(JsonUtils.getString(object, MEMBER_REQUEST_ID))
-                    .setContractAmount(JsonUtils.getBigDecimal(object, MEMBER_CONTRACT_AMOUNT))
-                    .setBalance(JsonUtils.getBigDecimal(object, "balance"))
-                    .setRecipientAccountStatus(AccountStatus.parse(
-                            JsonUtils.getString(object, "recipient_account_status")))
-                    .setRecipientAccountType(AccountType.parse(
-                            JsonUtils.getString(object, "recipient_account_type")))
-                    .setProtectionCode(JsonUtils.getString(object, "protection_code"))
-                    .setAccountUnblockUri(JsonUtils.getString(object, "account_unblock_uri"))
-                    .setExtActionUri(JsonUtils.getString(object, "ext_action_uri"))
-                    .createRequestPayment();
+            reader.endObject();
+
+            List<MoneySource> moneySources = new ArrayList<>();
+            if (walletAllowed) {
+                moneySources.add(new Wallet());
+            }
+            if (cardsAllowed != null && cardsAllowed) {
+                builder.setCscRequired(JsonReaders.checkMandatoryValue(cscRequired,
+                        "csc_required"));
+                moneySources.addAll(cards);
+            }
+            builder.setMoneySources(moneySources);
+        }
+
+        private static boolean readAllowed(JsonReader reader) throws IOException {
+            Boolean allowed = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                if ("allowed".equals(reader.nextName())) {
+                    allowed = JsonReaders.nextBoolean(reader);
+                } else {
+                    reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return JsonReaders.checkMandatoryValue(allowed, "allowed");
         }
     }
 }
@@ -24,8 +24,6 @@
 
 package com.yandex.money.api.methods;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
 import com.google.gson.JsonDeserializationContext;
 import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
@@ -79,6 +77,10 @@ public class Token implements MethodResponse {
      */
     public static class Request implements MethodRequest<Token> {
 
+        static {
+            GsonProvider.registerTypeAdapter(Token.class, new Deserializer());
+        }
+
         protected final String code;
         protected final String clientId;
 
@@ -124,12 +126,13 @@ public class Token implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getSpMoney() + "/oauth/token");
+            return hostsProvider.getSpMoneyUrl("/oauth/token");
         }
 
         @Override
         public Token parseResponse(InputStream inputStream) {
-            return buildGson().fromJson(new InputStreamReader(inputStream), Token.class);
+            return GsonProvider.getGson().fromJson(new InputStreamReader(inputStream),
+                    Token.class);
         }
 
         @Override
@@ -141,12 +144,6 @@ public class Token implements MethodResponse {
                     .addParamIfNotNull("redirect_uri", redirectUri)
                     .addParamIfNotNull("client_secret", clientSecret);
         }
-
-        private static Gson buildGson() {
-            return new GsonBuilder()
-                    .registerTypeAdapter(Token.class, new Deserializer())
-                    .create();
-        }
     }
 
     /**
@@ -174,7 +171,7 @@ public class Token implements MethodResponse {
 
         @Override
         public URL requestURL(HostsProvider hostsProvider) throws MalformedURLException {
-            return new URL(hostsProvider.getMoneyApi() + "/revoke");
+            return hostsProvider.getMoneyApiUrl("/revoke");
         }
 
         @Override
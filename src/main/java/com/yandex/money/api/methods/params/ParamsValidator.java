@@ -0,0 +1,309 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.methods.params;
+
+import com.yandex.money.api.model.Amount;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.PayeeIdentifierType;
+import com.yandex.money.api.utils.Currency;
+import com.yandex.money.api.utils.Strings;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local validation of payment parameters. Finds parameters the server would reject with
+ * {@code illegal_param_*} errors without making a request, so invalid payments do not spend
+ * API limits.
+ * <p/>
+ * All violations are reported at once. Valid parameters produce an empty list and no garbage
+ * except parsed amounts.
+ */
+public final class ParamsValidator {
+
+    private static final String PARAM_TO = "to";
+    private static final String PARAM_AMOUNT = "amount";
+    private static final String PARAM_AMOUNT_DUE = "amount_due";
+    private static final String PARAM_LABEL = "label";
+    private static final String PARAM_EXPIRE_PERIOD = "expire_period";
+    private static final String PARAM_PHONE_NUMBER = "phone-number";
+    private static final String PARAM_PATTERN_ID = "pattern_id";
+
+    private static final long MINIMUM_AMOUNT = 2;
+    private static final long MINIMUM_AMOUNT_DUE = 1;
+    private static final int MAX_LABEL_LENGTH = 64;
+    private static final int MAX_EXPIRE_PERIOD = 365;
+    private static final int MIN_PHONE_NUMBER_LENGTH = 10;
+    private static final int MAX_PHONE_NUMBER_LENGTH = 15;
+
+    private ParamsValidator() {
+        // prevents instantiating of this class
+    }
+
+    /**
+     * Validates payment parameters.
+     *
+     * @param params payment parameters
+     * @return violations or empty list if parameters are valid
+     */
+    public static List<Violation> validate(Params params) {
+        if (params == null) {
+            throw new NullPointerException("params is null");
+        }
+        return validate(params.getPatternId(), params.makeParams());
+    }
+
+    /**
+     * Validates payment parameters of a pattern. Parameters of {@link P2pParams#PATTERN_ID} and
+     * {@link PhoneParams#PATTERN_ID} are checked completely. Shops define their own parameters
+     * and limits, so their parameters are only checked for empty names and {@code null} values.
+     *
+     * @param patternId pattern id
+     * @param paymentParameters payment parameters
+     * @return violations or empty list if parameters are valid
+     */
+    public static List<Violation> validate(String patternId,
+                                           Map<String, String> paymentParameters) {
+        if (paymentParameters == null) {
+            throw new NullPointerException("paymentParameters is null");
+        }
+
+        List<Violation> violations = null;
+        if (Strings.isNullOrEmpty(patternId)) {
+            violations = add(violations, PARAM_PATTERN_ID, Error.ILLEGAL_PARAMS,
+                    "pattern id is null or empty");
+        }
+        for (Map.Entry<String, String> entry : paymentParameters.entrySet()) {
+            if (Strings.isNullOrEmpty(entry.getKey()) || entry.getValue() == null) {
+                violations = add(violations, entry.getKey(), Error.ILLEGAL_PARAMS,
+                        "parameter name is empty or value is null");
+            }
+        }
+
+        String amount = paymentParameters.get(PARAM_AMOUNT);
+        if (P2pParams.PATTERN_ID.equals(patternId)) {
+            String amountDue = paymentParameters.get(PARAM_AMOUNT_DUE);
+            violations = checkTo(violations, paymentParameters.get(PARAM_TO));
+            violations = checkAmounts(violations, parseAmount(amount), amount != null,
+                    parseAmount(amountDue), amountDue != null);
+            violations = checkLabel(violations, paymentParameters.get(PARAM_LABEL));
+            violations = checkExpirePeriod(violations,
+                    paymentParameters.get(PARAM_EXPIRE_PERIOD));
+        } else if (PhoneParams.PATTERN_ID.equals(patternId)) {
+            violations = checkPhoneNumber(violations, paymentParameters.get(PARAM_PHONE_NUMBER));
+            if (amount == null) {
+                violations = add(violations, PARAM_AMOUNT, Error.ILLEGAL_PARAM_AMOUNT,
+                        "amount is required");
+            } else {
+                violations = checkAmount(violations, parseAmount(amount), PARAM_AMOUNT,
+                        Error.ILLEGAL_PARAM_AMOUNT, MINIMUM_AMOUNT);
+            }
+        }
+        return result(violations);
+    }
+
+    /**
+     * Validates parameters of P2P payment.
+     *
+     * @param to account number, phone number or email of a recipient
+     * @param amount amount to pay
+     * @param amountDue amount to receive
+     * @param label payment label
+     * @param expirePeriod number of days during which a transfer can be received
+     * @return violations or empty list if parameters are valid
+     * @see com.yandex.money.api.methods.RequestPayment.Request.P2pBuilder#validate()
+     */
+    public static List<Violation> validateP2p(String to, BigDecimal amount, BigDecimal amountDue,
+                                              String label, Integer expirePeriod) {
+        List<Violation> violations = checkTo(null, to);
+        violations = checkAmounts(violations, toAmount(amount), amount != null,
+                toAmount(amountDue), amountDue != null);
+        violations = checkLabel(violations, label);
+        if (expirePeriod != null) {
+            violations = checkExpirePeriod(violations, expirePeriod);
+        }
+        return result(violations);
+    }
+
+    private static List<Violation> checkTo(List<Violation> violations, String to) {
+        if (Strings.isNullOrEmpty(to)) {
+            return add(violations, PARAM_TO, Error.ILLEGAL_PARAM_TO, "recipient is required");
+        }
+        if (PayeeIdentifierType.determine(to) == PayeeIdentifierType.UNKNOWN) {
+            return add(violations, PARAM_TO, Error.ILLEGAL_PARAM_TO,
+                    "recipient is not an account number, phone number or email");
+        }
+        return violations;
+    }
+
+    private static List<Violation> checkPhoneNumber(List<Violation> violations, String number) {
+        if (number == null || number.length() < MIN_PHONE_NUMBER_LENGTH ||
+                number.length() > MAX_PHONE_NUMBER_LENGTH || !Strings.containsDigitsOnly(number)) {
+            return add(violations, PARAM_PHONE_NUMBER, Error.ILLEGAL_PARAMS,
+                    "phone number should contain " + MIN_PHONE_NUMBER_LENGTH + "-" +
+                            MAX_PHONE_NUMBER_LENGTH + " digits");
+        }
+        return violations;
+    }
+
+    private static List<Violation> checkAmounts(List<Violation> violations, Amount amount,
+                                                boolean hasAmount, Amount amountDue,
+                                                boolean hasAmountDue) {
+        if (hasAmount && hasAmountDue) {
+            return add(violations, PARAM_AMOUNT, Error.ILLEGAL_PARAMS,
+                    "only one of amount and amount_due can be set");
+        }
+        if (hasAmount) {
+            return checkAmount(violations, amount, PARAM_AMOUNT, Error.ILLEGAL_PARAM_AMOUNT,
+                    MINIMUM_AMOUNT);
+        }
+        if (hasAmountDue) {
+            return checkAmount(violations, amountDue, PARAM_AMOUNT_DUE,
+                    Error.ILLEGAL_PARAM_AMOUNT_DUE, MINIMUM_AMOUNT_DUE);
+        }
+        return add(violations, PARAM_AMOUNT, Error.ILLEGAL_PARAM_AMOUNT,
+                "amount or amount_due is required");
+    }
+
+    /**
+     * @param amount parsed amount or {@code null} if it is not a valid amount
+     */
+    private static List<Violation> checkAmount(List<Violation> violations, Amount amount,
+                                               String parameter, Error error, long minimum) {
+        if (amount == null) {
+            return add(violations, parameter, error, parameter +
+                    " is not a decimal number with at most 2 fraction digits");
+        }
+        if (amount.minorUnits < minimum) {
+            return add(violations, parameter, error, parameter + " is less than " +
+                    Amount.ofMinorUnits(minimum, Currency.RUB).toPlainString());
+        }
+        return violations;
+    }
+
+    private static List<Violation> checkLabel(List<Violation> violations, String label) {
+        if (label != null && label.length() > MAX_LABEL_LENGTH) {
+            return add(violations, PARAM_LABEL, Error.ILLEGAL_PARAM_LABEL,
+                    "label is longer than " + MAX_LABEL_LENGTH + " characters");
+        }
+        return violations;
+    }
+
+    private static List<Violation> checkExpirePeriod(List<Violation> violations,
+                                                     String expirePeriod) {
+        if (expirePeriod == null) {
+            return violations;
+        }
+        int value = -1;
+        if (!expirePeriod.isEmpty() && expirePeriod.length() <= 3 &&
+                Strings.containsDigitsOnly(expirePeriod)) {
+            value = Integer.parseInt(expirePeriod);
+        }
+        return checkExpirePeriod(violations, value);
+    }
+
+    private static List<Violation> checkExpirePeriod(List<Violation> violations,
+                                                     int expirePeriod) {
+        if (expirePeriod < 1 || expirePeriod > MAX_EXPIRE_PERIOD) {
+            return add(violations, PARAM_EXPIRE_PERIOD, Error.ILLEGAL_PARAM_EXPIRE_PERIOD,
+                    "expire period should be from 1 to " + MAX_EXPIRE_PERIOD + " days");
+        }
+        return violations;
+    }
+
+    private static Amount parseAmount(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Amount.parse(value, Currency.RUB);
+        } catch (NumberFormatException | ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static Amount toAmount(BigDecimal value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Amount.valueOf(value, Currency.RUB);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static List<Violation> add(List<Violation> violations, String parameter, Error error,
+                                       String message) {
+        if (violations == null) {
+            violations = new ArrayList<>();
+        }
+        violations.add(new Violation(parameter, error, message));
+        return violations;
+    }
+
+    private static List<Violation> result(List<Violation> violations) {
+        return violations == null ? Collections.<Violation>emptyList() :
+                Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * Invalid parameter.
+     */
+    public static final class Violation {
+
+        /**
+         * name of parameter
+         */
+        public final String parameter;
+
+        /**
+         * error server would respond with
+         */
+        public final Error error;
+
+        /**
+         * description of violation
+         */
+        public final String message;
+
+        Violation(String parameter, Error error, String message) {
+            this.parameter = parameter;
+            this.error = error;
+            this.message = message;
+        }
+
+        @Override
+        public String toString() {
+            return "Violation{" +
+                    "parameter='" + parameter + '\'' +
+                    ", error=" + error +
+                    ", message='" + message + '\'' +
+                    '}';
+        }
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.model;
+
+import com.yandex.money.api.utils.Currency;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money in minor units of a currency (e.g. kopecks for {@link Currency#RUB}).
+ * <p/>
+ * Fixed-point counterpart of {@link BigDecimal} amounts of API responses and requests: values
+ * are exact, arithmetic does not allocate anything except the result and overflow is reported
+ * with {@link ArithmeticException}. Use {@link #valueOf(BigDecimal, Currency)} and
+ * {@link #toBigDecimal()} to convert existing amounts.
+ */
+public final class Amount implements Comparable<Amount> {
+
+    /**
+     * Maximum length of formatted amount: sign, 19 digits of a long, decimal separator and a
+     * leading zero.
+     */
+    public static final int MAX_LENGTH = 22;
+
+    /**
+     * amount in minor units
+     */
+    public final long minorUnits;
+
+    /**
+     * currency
+     */
+    public final Currency currency;
+
+    private Amount(long minorUnits, Currency currency) {
+        this.minorUnits = minorUnits;
+        this.currency = currency;
+    }
+
+    /**
+     * Creates amount from minor units.
+     *
+     * @param minorUnits amount in minor units
+     * @param currency currency
+     * @return amount
+     */
+    public static Amount ofMinorUnits(long minorUnits, Currency currency) {
+        return new Amount(minorUnits, checkCurrency(currency));
+    }
+
+    /**
+     * Creates amount from {@link BigDecimal}.
+     *
+     * @param value value
+     * @param currency currency
+     * @return amount
+     * @throws ArithmeticException if value has more fraction digits than currency or does not fit
+     * in long
+     */
+    public static Amount valueOf(BigDecimal value, Currency currency) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        BigInteger unscaled = value.setScale(checkCurrency(currency).getFractionDigits(),
+                RoundingMode.UNNECESSARY).unscaledValue();
+        if (unscaled.bitLength() > 63) {
+            throw new ArithmeticException("amount overflow: " + value.toPlainString());
+        }
+        return new Amount(unscaled.longValue(), currency);
+    }
+
+    /**
+     * Parses decimal string like {@code 100.50}. Plain values are parsed without creating
+     * intermediate objects, values with exponent are parsed with {@link BigDecimal}.
+     *
+     * @param value decimal string
+     * @param currency currency
+     * @return amount
+     * @throws NumberFormatException if value is not a decimal number
+     * @throws ArithmeticException if value has more fraction digits than currency or does not fit
+     * in long
+     */
+    public static Amount parse(CharSequence value, Currency currency) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        int scale = checkCurrency(currency).getFractionDigits();
+        int length = value.length();
+
+        int index = 0;
+        boolean negative = false;
+        if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+            negative = value.charAt(0) == '-';
+            ++index;
+        }
+
+        long units = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; index < length; ++index) {
+            char c = value.charAt(index);
+            if (c >= '0' && c <= '9') {
+                int digit = c - '0';
+                if (fractionDigits == scale) {
+                    if (digit != 0) {
+                        throw new ArithmeticException("too many fraction digits: " + value);
+                    }
+                    continue;
+                }
+                if (fractionDigits >= 0) {
+                    ++fractionDigits;
+                }
+                units = add(multiply(units, 10), negative ? -digit : digit);
+                ++digits;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else if ((c == 'e' || c == 'E') && digits > 0) {
+                return valueOf(new BigDecimal(value.toString()), currency);
+            } else {
+                throw new NumberFormatException("illegal amount: " + value);
+            }
+        }
+        if (digits == 0) {
+            throw new NumberFormatException("illegal amount: " + value);
+        }
+
+        for (int i = Math.max(fractionDigits, 0); i < scale; ++i) {
+            units = multiply(units, 10);
+        }
+        return new Amount(units, currency);
+    }
+
+    /**
+     * Parses decimal string like {@link #parse(CharSequence, Currency)}, but does not fail if value
+     * can not be represented in minor units of a currency.
+     *
+     * @param value decimal string, can be {@code null}
+     * @param currency currency
+     * @return amount or {@code null} if value is {@code null}, has more fraction digits than
+     * currency or does not fit in long
+     * @throws NumberFormatException if value is not a decimal number
+     */
+    public static Amount tryParse(CharSequence value, Currency currency) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return parse(value, currency);
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Sums amounts without creating intermediate objects.
+     *
+     * @param amounts amounts to sum
+     * @param currency currency of amounts
+     * @return sum or zero if there are no amounts
+     * @throws IllegalArgumentException if some amount has different currency
+     */
+    public static Amount sum(Iterable<Amount> amounts, Currency currency) {
+        if (amounts == null) {
+            throw new NullPointerException("amounts is null");
+        }
+        checkCurrency(currency);
+        long sum = 0;
+        for (Amount amount : amounts) {
+            sum = add(sum, amount.unitsIn(currency));
+        }
+        return new Amount(sum, currency);
+    }
+
+    /**
+     * @param other amount to add
+     * @return sum of amounts
+     * @throws IllegalArgumentException if currencies differ
+     */
+    public Amount add(Amount other) {
+        return new Amount(add(minorUnits, other.unitsIn(currency)), currency);
+    }
+
+    /**
+     * @param other amount to subtract
+     * @return difference of amounts
+     * @throws IllegalArgumentException if currencies differ
+     */
+    public Amount subtract(Amount other) {
+        return new Amount(add(minorUnits, negate(other.unitsIn(currency))), currency);
+    }
+
+    /**
+     * @param multiplier multiplier
+     * @return amount multiplied by {@code multiplier}
+     */
+    public Amount multiply(long multiplier) {
+        return new Amount(multiply(minorUnits, multiplier), currency);
+    }
+
+    /**
+     * @return amount with opposite sign
+     */
+    public Amount negate() {
+        return new Amount(negate(minorUnits), currency);
+    }
+
+    /**
+     * @return -1, 0 or 1 as amount is negative, zero or positive
+     */
+    public int signum() {
+        return Long.signum(minorUnits);
+    }
+
+    /**
+     * @return amount as {@link BigDecimal} with scale of currency's fraction digits
+     */
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, currency.getFractionDigits());
+    }
+
+    /**
+     * Formats amount as {@link BigDecimal#toPlainString()} of {@link #toBigDecimal()} does.
+     *
+     * @return formatted amount
+     */
+    public String toPlainString() {
+        char[] chars = new char[MAX_LENGTH];
+        int start = getChars(chars);
+        return new String(chars, start, MAX_LENGTH - start);
+    }
+
+    @Override
+    public int compareTo(Amount other) {
+        long units = other.unitsIn(currency);
+        return minorUnits < units ? -1 : (minorUnits == units ? 0 : 1);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj instanceof Amount) {
+            Amount amount = (Amount) obj;
+            return minorUnits == amount.minorUnits && currency == amount.currency;
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public int hashCode() {
+        int result = (int) (minorUnits ^ (minorUnits >>> 32));
+        result = 31 * result + currency.hashCode();
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return toPlainString() + ' ' + currency.alphaCode;
+    }
+
+    /**
+     * Writes {@link #toPlainString()} to the end of array without creating a string.
+     *
+     * @param chars array of at least {@link #MAX_LENGTH} chars
+     * @return index of the first written char
+     */
+    public int getChars(char[] chars) {
+        int index = chars.length;
+        // negative values have one more digit, so digits are taken from non-positive value
+        long value = minorUnits > 0 ? -minorUnits : minorUnits;
+        int scale = currency.getFractionDigits();
+        for (int i = 0; i < scale; ++i) {
+            chars[--index] = (char) ('0' - value % 10);
+            value /= 10;
+        }
+        if (scale > 0) {
+            chars[--index] = '.';
+        }
+        do {
+            chars[--index] = (char) ('0' - value % 10);
+            value /= 10;
+        } while (value != 0);
+        if (minorUnits < 0) {
+            chars[--index] = '-';
+        }
+        return index;
+    }
+
+    private long unitsIn(Currency currency) {
+        if (this.currency != currency) {
+            throw new IllegalArgumentException("currencies differ: " + this.currency + " and " +
+                    currency);
+        }
+        return minorUnits;
+    }
+
+    private static Currency checkCurrency(Currency currency) {
+        if (currency == null) {
+            throw new NullPointerException("currency is null");
+        }
+        return currency;
+    }
+
+    private static long add(long x, long y) {
+        long result = x + y;
+        if (((x ^ result) & (y ^ result)) < 0) {
+            throw new ArithmeticException("amount overflow");
+        }
+        return result;
+    }
+
+    private static long multiply(long x, long y) {
+        long result = x * y;
+        if (x != 0 && (result / x != y || x == -1 && y == Long.MIN_VALUE ||
+                y == -1 && x == Long.MIN_VALUE)) {
+            throw new ArithmeticException("amount overflow");
+        }
+        return result;
+    }
+
+    private static long negate(long x) {
+        if (x == Long.MIN_VALUE) {
+            throw new ArithmeticException("amount overflow");
+        }
+        return -x;
+    }
+}
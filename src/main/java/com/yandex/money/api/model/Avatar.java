@@ -24,18 +24,16 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.yandex.money.api.methods.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.ReadOnlyTypeAdapter;
 
 import org.joda.time.DateTime;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Describes avatar from {@link com.yandex.money.api.methods.AccountInfo}.
@@ -44,6 +42,12 @@ import java.lang.reflect.Type;
  */
 public class Avatar {
 
+    private static final Deserializer DESERIALIZER = new Deserializer();
+
+    static {
+        GsonProvider.registerTypeAdapter(Avatar.class, DESERIALIZER);
+    }
+
     /**
      * url to avatar
      */
@@ -86,22 +90,40 @@ public class Avatar {
      * @return {@link com.yandex.money.api.model.Avatar}
      */
     public static Avatar createFromJson(JsonElement json) {
-        return buildGson().fromJson(json, Avatar.class);
+        return GsonProvider.getGson().fromJson(json, Avatar.class);
     }
 
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(Avatar.class, new Deserializer())
-                .create();
+    /**
+     * Creates {@link com.yandex.money.api.model.Avatar} from a JSON stream.
+     *
+     * @param reader JSON reader
+     * @return {@link com.yandex.money.api.model.Avatar}
+     */
+    public static Avatar createFromJson(JsonReader reader) throws IOException {
+        return DESERIALIZER.read(reader);
     }
 
-    private static class Deserializer implements JsonDeserializer<Avatar> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<Avatar> {
         @Override
-        public Avatar deserialize(JsonElement json, Type typeOfT,
-                                  JsonDeserializationContext context) throws JsonParseException {
-            JsonObject object = json.getAsJsonObject();
-            return new Avatar(JsonUtils.getMandatoryString(object, "url"),
-                    JsonUtils.getMandatoryDateTime(object, "ts"));
+        protected Avatar readObject(JsonReader reader) throws IOException {
+            String url = null;
+            DateTime timestamp = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "url":
+                        url = JsonReaders.nextString(reader);
+                        break;
+                    case "ts":
+                        timestamp = JsonReaders.nextDateTime(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new Avatar(JsonReaders.checkMandatoryValue(url, "url"),
+                    JsonReaders.checkMandatoryValue(timestamp, "ts"));
         }
     }
 }
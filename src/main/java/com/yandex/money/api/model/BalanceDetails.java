@@ -24,16 +24,14 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
-import com.yandex.money.api.methods.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.ReadOnlyTypeAdapter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.math.BigDecimal;
 
 /**
@@ -43,6 +41,12 @@ import java.math.BigDecimal;
  */
 public class BalanceDetails {
 
+    private static final Deserializer DESERIALIZER = new Deserializer();
+
+    static {
+        GsonProvider.registerTypeAdapter(BalanceDetails.class, DESERIALIZER);
+    }
+
     /**
      * total balance
      */
@@ -106,7 +110,17 @@ public class BalanceDetails {
      * @return {@link com.yandex.money.api.model.BalanceDetails}
      */
     public static BalanceDetails createFromJson(JsonElement element) {
-        return buildGson().fromJson(element, BalanceDetails.class);
+        return GsonProvider.getGson().fromJson(element, BalanceDetails.class);
+    }
+
+    /**
+     * Creates {@link com.yandex.money.api.model.BalanceDetails} from JSON stream.
+     *
+     * @param reader JSON reader
+     * @return {@link com.yandex.money.api.model.BalanceDetails}
+     */
+    public static BalanceDetails createFromJson(JsonReader reader) throws IOException {
+        return DESERIALIZER.read(reader);
     }
 
     @Override
@@ -121,25 +135,44 @@ public class BalanceDetails {
                 '}';
     }
 
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(BalanceDetails.class, new Deserializer())
-                .create();
-    }
-
-    private static final class Deserializer implements JsonDeserializer<BalanceDetails> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<BalanceDetails> {
         @Override
-        public BalanceDetails deserialize(JsonElement json, Type typeOfT,
-                                          JsonDeserializationContext context)
-                throws JsonParseException {
-
-            JsonObject object = json.getAsJsonObject();
-            return new BalanceDetails(JsonUtils.getMandatoryBigDecimal(object, "total"),
-                    JsonUtils.getMandatoryBigDecimal(object, "available"),
-                    JsonUtils.getBigDecimal(object, "deposition_pending"),
-                    JsonUtils.getBigDecimal(object, "blocked"),
-                    JsonUtils.getBigDecimal(object, "debt"),
-                    JsonUtils.getBigDecimal(object, "hold"));
+        protected BalanceDetails readObject(JsonReader reader) throws IOException {
+            BigDecimal total = null;
+            BigDecimal available = null;
+            BigDecimal depositionPending = null;
+            BigDecimal blocked = null;
+            BigDecimal debt = null;
+            BigDecimal hold = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "total":
+                        total = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    case "available":
+                        available = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    case "deposition_pending":
+                        depositionPending = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    case "blocked":
+                        blocked = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    case "debt":
+                        debt = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    case "hold":
+                        hold = JsonReaders.nextBigDecimal(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new BalanceDetails(JsonReaders.checkMandatoryValue(total, "total"),
+                    JsonReaders.checkMandatoryValue(available, "available"), depositionPending,
+                    blocked, debt, hold);
         }
     }
 }
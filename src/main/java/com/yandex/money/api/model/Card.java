@@ -24,16 +24,13 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.google.gson.JsonSerializationContext;
-import com.google.gson.JsonSerializer;
-import com.yandex.money.api.methods.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+
+import java.io.IOException;
 
 /**
  * Bank card info.
@@ -42,6 +39,12 @@ import com.yandex.money.api.methods.JsonUtils;
  */
 public class Card extends MoneySource {
 
+    private static final TypeAdapter TYPE_ADAPTER = new TypeAdapter();
+
+    static {
+        GsonProvider.registerTypeAdapter(Card.class, TYPE_ADAPTER);
+    }
+
     /**
      * panned fragment of card's number
      */
@@ -72,14 +75,21 @@ public class Card extends MoneySource {
      * Creates {@link com.yandex.money.api.model.Card} from {@link com.google.gson.JsonElement}.
      */
     public static Card createFromJson(JsonElement element) {
-        return buildGson().fromJson(element, Card.class);
+        return GsonProvider.getGson().fromJson(element, Card.class);
     }
 
     /**
      * Creates {@link com.yandex.money.api.model.Card} from JSON.
      */
     public static Card createFromJson(String json) {
-        return buildGson().fromJson(json, Card.class);
+        return GsonProvider.getGson().fromJson(json, Card.class);
+    }
+
+    /**
+     * Creates {@link com.yandex.money.api.model.Card} from JSON stream.
+     */
+    public static Card createFromJson(JsonReader reader) throws IOException {
+        return TYPE_ADAPTER.read(reader);
     }
 
     @Override
@@ -96,13 +106,7 @@ public class Card extends MoneySource {
      * @return JSON text
      */
     public String serializeToJson() {
-        return buildGson().toJson(this);
-    }
-
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(Card.class, new TypeAdapter())
-                .create();
+        return GsonProvider.getGson().toJson(this);
     }
 
     public enum Type {
@@ -135,32 +139,53 @@ public class Card extends MoneySource {
         }
     }
 
-    private static final class TypeAdapter
-            implements JsonDeserializer<Card>, JsonSerializer<Card> {
+    private static final class TypeAdapter extends com.google.gson.TypeAdapter<Card> {
 
         private static final String FIELD_ID = "id";
         private static final String FIELD_PAN_FRAGMENT = "pan_fragment";
         private static final String FIELD_TYPE = "type";
 
         @Override
-        public Card deserialize(JsonElement json, java.lang.reflect.Type typeOfT,
-                                JsonDeserializationContext context) throws JsonParseException {
+        public Card read(JsonReader reader) throws IOException {
+            if (JsonReaders.skipNull(reader)) {
+                return null;
+            }
 
-            JsonObject object = json.getAsJsonObject();
-            return new Card(JsonUtils.getString(object, FIELD_ID),
-                    JsonUtils.getString(object, FIELD_PAN_FRAGMENT),
-                    Type.parse(JsonUtils.getString(object, FIELD_TYPE)));
+            String id = null;
+            String panFragment = null;
+            String type = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case FIELD_ID:
+                        id = JsonReaders.nextString(reader);
+                        break;
+                    case FIELD_PAN_FRAGMENT:
+                        panFragment = JsonReaders.nextString(reader);
+                        break;
+                    case FIELD_TYPE:
+                        type = JsonReaders.nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new Card(id, panFragment, Type.parse(type));
         }
 
         @Override
-        public JsonElement serialize(Card src, java.lang.reflect.Type typeOfSrc,
-                                     JsonSerializationContext context) {
-
-            JsonObject object = new JsonObject();
-            object.addProperty(FIELD_ID, src.id);
-            object.addProperty(FIELD_PAN_FRAGMENT, src.panFragment);
-            object.addProperty(FIELD_TYPE, src.type.name);
-            return object;
+        public void write(JsonWriter writer, Card value) throws IOException {
+            if (value == null) {
+                writer.nullValue();
+                return;
+            }
+
+            writer.beginObject()
+                    .name(FIELD_ID).value(value.id)
+                    .name(FIELD_PAN_FRAGMENT).value(value.panFragment)
+                    .name(FIELD_TYPE).value(value.type.name)
+                    .endObject();
         }
     }
 }
@@ -24,16 +24,13 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonArray;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.ReadOnlyTypeAdapter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -45,6 +42,12 @@ import java.util.List;
  */
 public class DigitalGoods {
 
+    private static final Deserializer DESERIALIZER = new Deserializer();
+
+    static {
+        GsonProvider.registerTypeAdapter(DigitalGoods.class, DESERIALIZER);
+    }
+
     /**
      * not null list of articles
      */
@@ -76,7 +79,14 @@ public class DigitalGoods {
      * Creates {@link com.yandex.money.api.model.DigitalGoods} from JSON.
      */
     public static DigitalGoods createFromJson(JsonElement element) {
-        return buildGson().fromJson(element, DigitalGoods.class);
+        return GsonProvider.getGson().fromJson(element, DigitalGoods.class);
+    }
+
+    /**
+     * Creates {@link com.yandex.money.api.model.DigitalGoods} from JSON stream.
+     */
+    public static DigitalGoods createFromJson(JsonReader reader) throws IOException {
+        return DESERIALIZER.read(reader);
     }
 
     @Override
@@ -87,31 +97,37 @@ public class DigitalGoods {
                 '}';
     }
 
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(DigitalGoods.class, new Deserializer())
-                .create();
-    }
-
-    private static final class Deserializer implements JsonDeserializer<DigitalGoods> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<DigitalGoods> {
         @Override
-        public DigitalGoods deserialize(JsonElement json, Type typeOfT,
-                                        JsonDeserializationContext context)
-                throws JsonParseException {
-
-            JsonObject object = json.getAsJsonObject();
-            return new DigitalGoods(deserializeGoods(object.getAsJsonArray("article")),
-                    deserializeGoods(object.getAsJsonArray("bonus")));
+        protected DigitalGoods readObject(JsonReader reader) throws IOException {
+            List<Good> article = new ArrayList<>();
+            List<Good> bonus = new ArrayList<>();
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "article":
+                        readGoods(reader, article);
+                        break;
+                    case "bonus":
+                        readGoods(reader, bonus);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new DigitalGoods(article, bonus);
         }
 
-        private List<Good> deserializeGoods(JsonArray array) {
-            List<Good> goods = new ArrayList<>();
-            if (array != null) {
-                for (JsonElement element : array) {
-                    goods.add(Good.createFromJson(element));
-                }
+        private void readGoods(JsonReader reader, List<Good> goods) throws IOException {
+            if (JsonReaders.skipNull(reader)) {
+                return;
+            }
+            reader.beginArray();
+            while (reader.hasNext()) {
+                goods.add(Good.createFromJson(reader));
             }
-            return goods;
+            reader.endArray();
         }
     }
 }
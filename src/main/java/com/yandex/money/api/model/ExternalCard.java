@@ -24,16 +24,15 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.yandex.money.api.methods.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.ReadOnlyTypeAdapter;
 import com.yandex.money.api.utils.Strings;
 
+import java.io.IOException;
+
 /**
  * Represents card that not bound to an account.
  *
@@ -41,6 +40,12 @@ import com.yandex.money.api.utils.Strings;
  */
 public class ExternalCard extends Card {
 
+    private static final Deserializer DESERIALIZER = new Deserializer();
+
+    static {
+        GsonProvider.registerTypeAdapter(ExternalCard.class, DESERIALIZER);
+    }
+
     public final String fundingSourceType;
     public final String moneySourceToken;
 
@@ -65,7 +70,11 @@ public class ExternalCard extends Card {
     }
 
     public static ExternalCard createFromJson(JsonElement jsonElement) {
-        return buildGson().fromJson(jsonElement, ExternalCard.class);
+        return GsonProvider.getGson().fromJson(jsonElement, ExternalCard.class);
+    }
+
+    public static ExternalCard createFromJson(JsonReader reader) throws IOException {
+        return DESERIALIZER.read(reader);
     }
 
     @Override
@@ -76,23 +85,38 @@ public class ExternalCard extends Card {
                 '}';
     }
 
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(ExternalCard.class, new Deserializer())
-                .create();
-    }
-
-    private static final class Deserializer implements JsonDeserializer<ExternalCard> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<ExternalCard> {
         @Override
-        public ExternalCard deserialize(JsonElement json, java.lang.reflect.Type typeOfT,
-                                        JsonDeserializationContext context)
-                throws JsonParseException {
-
-            JsonObject object = json.getAsJsonObject();
-            return new ExternalCard(JsonUtils.getMandatoryString(object, "pan_fragment"),
-                    Type.parse(JsonUtils.getMandatoryString(object, "payment_card_type")),
-                    JsonUtils.getMandatoryString(object, "type"),
-                    JsonUtils.getMandatoryString(object, "money_source_token"));
+        protected ExternalCard readObject(JsonReader reader) throws IOException {
+            String panFragment = null;
+            String paymentCardType = null;
+            String type = null;
+            String moneySourceToken = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "pan_fragment":
+                        panFragment = JsonReaders.nextString(reader);
+                        break;
+                    case "payment_card_type":
+                        paymentCardType = JsonReaders.nextString(reader);
+                        break;
+                    case "type":
+                        type = JsonReaders.nextString(reader);
+                        break;
+                    case "money_source_token":
+                        moneySourceToken = JsonReaders.nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new ExternalCard(JsonReaders.checkMandatoryValue(panFragment, "pan_fragment"),
+                    Type.parse(JsonReaders.checkMandatoryValue(paymentCardType,
+                            "payment_card_type")),
+                    JsonReaders.checkMandatoryValue(type, "type"),
+                    JsonReaders.checkMandatoryValue(moneySourceToken, "money_source_token"));
         }
     }
 }
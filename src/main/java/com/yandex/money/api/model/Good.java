@@ -24,22 +24,25 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.yandex.money.api.methods.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.ReadOnlyTypeAdapter;
 
-import java.lang.reflect.Type;
+import java.io.IOException;
 
 /**
  * Describes digital item, that user can obtain when paying for them.
  */
 public class Good {
 
+    private static final Deserializer DESERIALIZER = new Deserializer();
+
+    static {
+        GsonProvider.registerTypeAdapter(Good.class, DESERIALIZER);
+    }
+
     /**
      * serial number
      */
@@ -78,7 +81,14 @@ public class Good {
      * Creates {@link com.yandex.money.api.model.Good} from JSON.
      */
     public static Good createFromJson(JsonElement json) {
-        return buildGson().fromJson(json, Good.class);
+        return GsonProvider.getGson().fromJson(json, Good.class);
+    }
+
+    /**
+     * Creates {@link com.yandex.money.api.model.Good} from JSON stream.
+     */
+    public static Good createFromJson(JsonReader reader) throws IOException {
+        return DESERIALIZER.read(reader);
     }
 
     @Override
@@ -90,20 +100,31 @@ public class Good {
                 '}';
     }
 
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(Good.class, new Deserializer())
-                .create();
-    }
-
-    private static final class Deserializer implements JsonDeserializer<Good> {
+    private static final class Deserializer extends ReadOnlyTypeAdapter<Good> {
         @Override
-        public Good deserialize(JsonElement json, Type typeOfT, JsonDeserializationContext context)
-                throws JsonParseException {
-            JsonObject object = json.getAsJsonObject();
-            return new Good(JsonUtils.getMandatoryString(object, "serial"),
-                    JsonUtils.getMandatoryString(object, "secret"),
-                    JsonUtils.getString(object, "merchantArticleId"));
+        protected Good readObject(JsonReader reader) throws IOException {
+            String serial = null;
+            String secret = null;
+            String merchantArticleId = null;
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "serial":
+                        serial = JsonReaders.nextString(reader);
+                        break;
+                    case "secret":
+                        secret = JsonReaders.nextString(reader);
+                        break;
+                    case "merchantArticleId":
+                        merchantArticleId = JsonReaders.nextString(reader);
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+            return new Good(JsonReaders.checkMandatoryValue(serial, "serial"),
+                    JsonReaders.checkMandatoryValue(secret, "secret"), merchantArticleId);
         }
     }
 }
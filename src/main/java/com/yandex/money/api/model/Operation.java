@@ -24,17 +24,16 @@
 
 package com.yandex.money.api.model;
 
-import com.google.gson.Gson;
-import com.google.gson.GsonBuilder;
-import com.google.gson.JsonDeserializationContext;
-import com.google.gson.JsonDeserializer;
 import com.google.gson.JsonElement;
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParseException;
-import com.yandex.money.api.methods.JsonUtils;
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.GsonProvider;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.ReadOnlyTypeAdapter;
+import com.yandex.money.api.utils.Currency;
 
 import org.joda.time.DateTime;
 
+import java.io.IOException;
 import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Map;
@@ -44,6 +43,12 @@ import java.util.Map;
  */
 public class Operation {
 
+    private static final Deserializer DESERIALIZER = new Deserializer();
+
+    static {
+        GsonProvider.registerTypeAdapter(Operation.class, DESERIALIZER);
+    }
+
     /**
      * operation id
      */
@@ -79,6 +84,24 @@ public class Operation {
      */
     public final BigDecimal fee;
 
+    /**
+     * {@link #amount} in {@link Currency#RUB}, {@code null} if amount is not set or can not be
+     * represented in minor units
+     */
+    public final Amount amountValue;
+
+    /**
+     * {@link #amountDue} in {@link Currency#RUB}, {@code null} if amount is not set or can not be
+     * represented in minor units
+     */
+    public final Amount amountDueValue;
+
+    /**
+     * {@link #fee} in {@link Currency#RUB}, {@code null} if fee is not set or can not be
+     * represented in minor units
+     */
+    public final Amount feeValue;
+
     /**
      * operation datetime
      */
@@ -178,6 +201,26 @@ public class Operation {
                         Map<String, String> paymentParameters, Boolean favorite, Type type,
                         DigitalGoods digitalGoods) {
 
+        this(operationId, status, patternId, direction, amount, null, amountDue, null, fee, null,
+                datetime, title, sender, recipient, recipientType, message, comment, codepro,
+                protectionCode, expires, answerDatetime, label, details, repeatable,
+                paymentParameters, favorite, type, digitalGoods);
+    }
+
+    /**
+     * Use {@link com.yandex.money.api.model.Operation.Builder} instead. Amounts that are
+     * {@code null} are converted from corresponding {@link BigDecimal} values.
+     */
+    protected Operation(String operationId, Status status, String patternId, Direction direction,
+                        BigDecimal amount, Amount amountValue, BigDecimal amountDue,
+                        Amount amountDueValue, BigDecimal fee, Amount feeValue, DateTime datetime,
+                        String title, String sender, String recipient,
+                        PayeeIdentifierType recipientType, String message, String comment,
+                        Boolean codepro, String protectionCode, DateTime expires,
+                        DateTime answerDatetime, String label, String details, Boolean repeatable,
+                        Map<String, String> paymentParameters, Boolean favorite, Type type,
+                        DigitalGoods digitalGoods) {
+
         this.operationId = operationId;
         this.status = status;
         this.patternId = patternId;
@@ -185,6 +228,9 @@ public class Operation {
         this.amount = amount;
         this.amountDue = amountDue;
         this.fee = fee;
+        this.amountValue = amountValue == null ? toAmount(amount) : amountValue;
+        this.amountDueValue = amountDueValue == null ? toAmount(amountDue) : amountDueValue;
+        this.feeValue = feeValue == null ? toAmount(fee) : feeValue;
         this.datetime = datetime;
         this.title = title;
         this.sender = sender;
@@ -210,7 +256,18 @@ public class Operation {
      * Creates {@link com.yandex.money.api.model.Operation} from JSON.
      */
     public static Operation createFromJson(JsonElement element) {
-        return buildGson().fromJson(element, Operation.class);
+        return GsonProvider.getGson().fromJson(element, Operation.class);
+    }
+
+    /**
+     * Creates {@link com.yandex.money.api.model.Operation} from JSON stream.
+     */
+    public static Operation createFromJson(JsonReader reader) throws IOException {
+        return DESERIALIZER.read(reader);
+    }
+
+    private static Amount toAmount(BigDecimal value) {
+        return value == null ? null : Amount.tryParse(value.toPlainString(), Currency.RUB);
     }
 
     @Override
@@ -370,6 +427,9 @@ public class Operation {
         private BigDecimal amount;
         private BigDecimal amountDue;
         private BigDecimal fee;
+        private Amount amountValue;
+        private Amount amountDueValue;
+        private Amount feeValue;
         private DateTime datetime;
         private String title;
         private String sender;
@@ -424,6 +484,31 @@ public class Operation {
             return this;
         }
 
+        /**
+         * @param amountValue amount, converted from {@link #setAmount(BigDecimal)} if not set
+         */
+        public Builder setAmountValue(Amount amountValue) {
+            this.amountValue = amountValue;
+            return this;
+        }
+
+        /**
+         * @param amountDueValue received amount, converted from
+         *                       {@link #setAmountDue(BigDecimal)} if not set
+         */
+        public Builder setAmountDueValue(Amount amountDueValue) {
+            this.amountDueValue = amountDueValue;
+            return this;
+        }
+
+        /**
+         * @param feeValue fee, converted from {@link #setFee(BigDecimal)} if not set
+         */
+        public Builder setFeeValue(Amount feeValue) {
+            this.feeValue = feeValue;
+            return this;
+        }
+
         public Builder setDatetime(DateTime datetime) {
             this.datetime = datetime;
             return this;
@@ -515,57 +600,126 @@ public class Operation {
         }
 
         public Operation createOperation() {
-            return new Operation(operationId, status, patternId, direction, amount, amountDue, fee,
-                    datetime, title, sender, recipient, recipientType, message, comment, codepro,
-                    protectionCode, expires, answerDatetime, label, details, repeatable,
-                    paymentParameters, favorite, type, digitalGoods);
+            return new Operation(operationId, status, patternId, direction, amount, amountValue,
+                    amountDue, amountDueValue, fee, feeValue, datetime, title, sender, recipient,
+                    recipientType, message, comment, codepro, protectionCode, expires,
+                    answerDatetime, label, details, repeatable, paymentParameters, favorite, type,
+                    digitalGoods);
         }
     }
 
-    private static Gson buildGson() {
-        return new GsonBuilder()
-                .registerTypeAdapter(Operation.class, new Deserializer())
-                .create();
-    }
-
-    private static final class Deserializer implements JsonDeserializer<Operation> {
-
+    private static final class Deserializer extends ReadOnlyTypeAdapter<Operation> {
         @Override
-        public Operation deserialize(JsonElement json, java.lang.reflect.Type typeOfT,
-                                     JsonDeserializationContext context) throws JsonParseException {
-
-            final JsonObject o = json.getAsJsonObject();
-            final String paymentParametersMember = "payment_parameters";
-            return new Builder()
-                    .setOperationId(JsonUtils.getMandatoryString(o, "operation_id"))
-                    .setStatus(Status.parse(JsonUtils.getString(o, "status")))
-                    .setDatetime(JsonUtils.getDateTime(o, "datetime"))
-                    .setTitle(JsonUtils.getMandatoryString(o, "title"))
-                    .setPatternId(JsonUtils.getString(o, "pattern_id"))
+        protected Operation readObject(JsonReader reader) throws IOException {
+            Builder builder = new Builder()
+                    .setStatus(Status.UNKNOWN)
+                    .setType(Type.UNKNOWN);
+            String operationId = null;
+            String title = null;
+            String direction = null;
+
+            reader.beginObject();
+            while (reader.hasNext()) {
+                switch (reader.nextName()) {
+                    case "operation_id":
+                        operationId = JsonReaders.nextString(reader);
+                        break;
+                    case "status":
+                        builder.setStatus(Status.parse(JsonReaders.nextString(reader)));
+                        break;
+                    case "datetime":
+                        builder.setDatetime(JsonReaders.nextDateTime(reader));
+                        break;
+                    case "title":
+                        title = JsonReaders.nextString(reader);
+                        break;
+                    case "pattern_id":
+                        builder.setPatternId(JsonReaders.nextString(reader));
+                        break;
+                    case "direction":
+                        direction = JsonReaders.nextString(reader);
+                        break;
+                    // both values are created from the literal, so amounts are exact
+                    case "amount":
+                        String amount = JsonReaders.nextString(reader);
+                        builder.setAmount(toBigDecimal(amount))
+                                .setAmountValue(Amount.tryParse(amount, Currency.RUB));
+                        break;
+                    case "amount_due":
+                        String amountDue = JsonReaders.nextString(reader);
+                        builder.setAmountDue(toBigDecimal(amountDue))
+                                .setAmountDueValue(Amount.tryParse(amountDue, Currency.RUB));
+                        break;
+                    case "fee":
+                        String fee = JsonReaders.nextString(reader);
+                        builder.setFee(toBigDecimal(fee))
+                                .setFeeValue(Amount.tryParse(fee, Currency.RUB));
+                        break;
+                    case "label":
+                        builder.setLabel(JsonReaders.nextString(reader));
+                        break;
+                    case "type":
+                        builder.setType(Type.parse(JsonReaders.nextString(reader)));
+                        break;
+                    case "sender":
+                        builder.setSender(JsonReaders.nextString(reader));
+                        break;
+                    case "recipient":
+                        builder.setRecipient(JsonReaders.nextString(reader));
+                        break;
+                    case "recipient_type":
+                        builder.setRecipientType(PayeeIdentifierType.parse(
+                                JsonReaders.nextString(reader)));
+                        break;
+                    case "message":
+                        builder.setMessage(JsonReaders.nextString(reader));
+                        break;
+                    case "comment":
+                        builder.setComment(JsonReaders.nextString(reader));
+                        break;
+                    case "codepro":
+                        builder.setCodepro(JsonReaders.nextBoolean(reader));
+                        break;
+                    case "protection_code":
+                        builder.setProtectionCode(JsonReaders.nextString(reader));
+                        break;
+                    case "expires":
+                        builder.setExpires(JsonReaders.nextDateTime(reader));
+                        break;
+                    case "answer_datetime":
+                        builder.setAnswerDatetime(JsonReaders.nextDateTime(reader));
+                        break;
+                    case "details":
+                        builder.setDetails(JsonReaders.nextString(reader));
+                        break;
+                    case "repeatable":
+                        builder.setRepeatable(JsonReaders.nextBoolean(reader));
+                        break;
+                    case "payment_parameters":
+                        builder.setPaymentParameters(JsonReaders.nextMap(reader));
+                        break;
+                    case "favourite":
+                        builder.setFavorite(JsonReaders.nextBoolean(reader));
+                        break;
+                    case "digital_goods":
+                        builder.setDigitalGoods(DigitalGoods.createFromJson(reader));
+                        break;
+                    default:
+                        reader.skipValue();
+                }
+            }
+            reader.endObject();
+
+            return builder
+                    .setOperationId(JsonReaders.checkMandatoryValue(operationId, "operation_id"))
+                    .setTitle(JsonReaders.checkMandatoryValue(title, "title"))
                     .setDirection(Direction.parse(
-                            JsonUtils.getMandatoryString(o, "direction")))
-                    .setAmount(JsonUtils.getBigDecimal(o, "amount"))
-                    .setAmountDue(JsonUtils.getBigDecimal(o, "amount_due"))
-                    .setFee(JsonUtils.getBigDecimal(o, "fee"))
-                    .setLabel(JsonUtils.getString(o, "label"))
-                    .setType(Type.parse(JsonUtils.getString(o, "type")))
-                    .setSender(JsonUtils.getString(o, "sender"))
-                    .setRecipient(JsonUtils.getString(o, "recipient"))
-                    .setRecipientType(PayeeIdentifierType.parse(
-                            JsonUtils.getString(o, "recipient_type")))
-                    .setMessage(JsonUtils.getString(o, "message"))
-                    .setComment(JsonUtils.getString(o, "comment"))
-                    .setCodepro(JsonUtils.getBoolean(o, "codepro"))
-                    .setProtectionCode(JsonUtils.getString(o, "protection_code"))
-                    .setExpires(JsonUtils.getDateTime(o, "expires"))
-                    .setAnswerDatetime(JsonUtils.getDateTime(o, "answer_datetime"))
-                    .setDetails(JsonUtils.getString(o, "details"))
-                    .setRepeatable(JsonUtils.getBoolean(o, "repeatable"))
-                    .setPaymentParameters(o.has(paymentParametersMember) ?
-                            JsonUtils.map(o.getAsJsonObject(paymentParametersMember)) : null)
-                    .setFavorite(JsonUtils.getBoolean(o, "favourite"))
-                    .setDigitalGoods(DigitalGoods.createFromJson(o.get("digital_goods")))
+                            JsonReaders.checkMandatoryValue(direction, "direction")))
                     .createOperation();
         }
+
+        private static BigDecimal toBigDecimal(String value) {
+            return value == null ? null : new BigDecimal(value);
+        }
     }
 }
@@ -26,6 +26,8 @@ package com.yandex.money.api.model;
 
 import com.yandex.money.api.utils.Patterns;
 
+import java.util.regex.Pattern;
+
 /**
  * Type of payee identifier.
  * <p/>
@@ -51,6 +53,11 @@ public enum PayeeIdentifierType {
      */
     UNKNOWN("unknown");
 
+    private static final Pattern ACCOUNT_PATTERN = Pattern.compile(Patterns.ACCOUNT);
+    private static final Pattern PHONE_PATTERN = Pattern.compile(Patterns.PHONE);
+    private static final Pattern YANDEX_PATTERN = Pattern.compile(Patterns.YANDEX);
+    private static final Pattern EMAIL_PATTERN = Pattern.compile(Patterns.EMAIL);
+
     public final String code;
 
     PayeeIdentifierType(String code) {
@@ -80,11 +87,12 @@ public enum PayeeIdentifierType {
             return UNKNOWN;
         }
 
-        if (identifier.matches(Patterns.ACCOUNT)) {
+        if (ACCOUNT_PATTERN.matcher(identifier).matches()) {
             return ACCOUNT;
-        } else if (identifier.matches(Patterns.PHONE)) {
+        } else if (PHONE_PATTERN.matcher(identifier).matches()) {
             return PHONE;
-        } else if (identifier.matches(Patterns.YANDEX) || identifier.matches(Patterns.EMAIL)) {
+        } else if (YANDEX_PATTERN.matcher(identifier).matches() ||
+                EMAIL_PATTERN.matcher(identifier).matches()) {
             return EMAIL;
         } else {
             return UNKNOWN;
@@ -25,6 +25,7 @@
 package com.yandex.money.api.net;
 
 import com.squareup.okhttp.CacheControl;
+import com.squareup.okhttp.Headers;
 import com.squareup.okhttp.Request;
 import com.squareup.okhttp.Response;
 import com.yandex.money.api.utils.HttpHeaders;
@@ -47,6 +48,8 @@ public abstract class AbstractSession {
     protected final ApiClient client;
 
     private boolean debugLogging = false;
+    private volatile ApiMetricsListener metricsListener;
+    private volatile DefaultHeaders defaultHeaders;
 
     /**
      * Constructor.
@@ -61,14 +64,46 @@ public abstract class AbstractSession {
     }
 
     /**
-     * Set requests and responses logging.
+     * Set responses logging.
      *
      * @param debugLogging {@code true} if logging is required
+     * @throws UnsupportedOperationException if settings of the session can not be changed
+     * @deprecated copies every byte of a response and logs it on the calling thread, use
+     * {@link DefaultApiClient.Builder#setExchangeLogger(ExchangeLogger)} instead
      */
+    @Deprecated
     public final void setDebugLogging(boolean debugLogging) {
+        checkModifiable();
         this.debugLogging = debugLogging;
     }
 
+    /**
+     * Sets listener of requests' metrics. If no listener is set metrics are not collected.
+     *
+     * @param metricsListener listener or {@code null} to stop collecting metrics
+     * @throws UnsupportedOperationException if settings of the session can not be changed
+     * @see HistogramMetricsListener
+     */
+    public final void setMetricsListener(ApiMetricsListener metricsListener) {
+        checkModifiable();
+        this.metricsListener = metricsListener;
+    }
+
+    /**
+     * Called before settings of the session are changed. Does nothing by default.
+     *
+     * @throws UnsupportedOperationException if settings can not be changed
+     */
+    protected void checkModifiable() {
+    }
+
+    /**
+     * @return listener of requests' metrics or {@code null} if not set
+     */
+    protected final ApiMetricsListener getMetricsListener() {
+        return metricsListener;
+    }
+
     /**
      * Prepares request builder.
      *
@@ -76,21 +111,27 @@ public abstract class AbstractSession {
      * @return the builder
      */
     protected final Request.Builder prepareRequestBuilder(URL url) {
-        Request.Builder builder = new Request.Builder()
+        return new Request.Builder()
                 .url(url)
-                .cacheControl(new CacheControl.Builder().noCache().build());
+                .headers(getDefaultHeaders());
+    }
 
+    /**
+     * Gets headers that are added to each request: Cache-Control, User-Agent and Accept-Language.
+     * Headers are rebuilt only if client's user agent or language has changed.
+     *
+     * @return default headers
+     */
+    protected final Headers getDefaultHeaders() {
         UserAgent userAgent = client.getUserAgent();
-        if (userAgent != null) {
-            builder.addHeader(HttpHeaders.USER_AGENT, userAgent.getName());
-        }
-
         Language language = client.getLanguage();
-        if (language != null) {
-            builder.addHeader(HttpHeaders.ACCEPT_LANGUAGE, language.iso6391Code);
-        }
 
-        return builder;
+        DefaultHeaders defaultHeaders = this.defaultHeaders;
+        if (defaultHeaders == null || !defaultHeaders.isFor(userAgent, language)) {
+            defaultHeaders = new DefaultHeaders(userAgent, language);
+            this.defaultHeaders = defaultHeaders;
+        }
+        return defaultHeaders.headers;
     }
 
     /**
@@ -123,4 +164,36 @@ public abstract class AbstractSession {
     private String getError(Response response) {
         return "HTTP " + response.code() + " " + response.message();
     }
+
+    private static final class DefaultHeaders {
+
+        private static final String NO_CACHE = new CacheControl.Builder().noCache().build()
+                .toString();
+
+        final UserAgent userAgent;
+        final Language language;
+        final String userAgentName;
+        final Headers headers;
+
+        DefaultHeaders(UserAgent userAgent, Language language) {
+            this.userAgent = userAgent;
+            this.language = language;
+            this.userAgentName = userAgent == null ? null : userAgent.getName();
+
+            Headers.Builder builder = new Headers.Builder()
+                    .add(HttpHeaders.CACHE_CONTROL, NO_CACHE);
+            if (userAgentName != null) {
+                builder.add(HttpHeaders.USER_AGENT, userAgentName);
+            }
+            if (language != null) {
+                builder.add(HttpHeaders.ACCEPT_LANGUAGE, language.iso6391Code);
+            }
+            this.headers = builder.build();
+        }
+
+        boolean isFor(UserAgent userAgent, Language language) {
+            return this.language == language && (this.userAgent == userAgent ||
+                    userAgent != null && userAgent.getName().equals(userAgentName));
+        }
+    }
 }
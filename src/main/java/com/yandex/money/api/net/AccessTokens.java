@@ -0,0 +1,99 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net;
+
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Access tokens related utility methods.
+ */
+final class AccessTokens {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private AccessTokens() {
+    }
+
+    /**
+     * Hashes access token, so it can be used as a key without keeping the token in memory.
+     *
+     * @param accessToken access token
+     * @return hex encoded SHA-256 of access token or {@code null} if token is {@code null}
+     */
+    static String hash(String accessToken) {
+        if (accessToken == null) {
+            return null;
+        }
+
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(accessToken.getBytes(UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+
+        char[] chars = new char[digest.length * 2];
+        for (int i = 0; i < digest.length; ++i) {
+            chars[i * 2] = HEX[(digest[i] >> 4) & 0xf];
+            chars[i * 2 + 1] = HEX[digest[i] & 0xf];
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Access token with its hash. The hash is computed on first use only once, so the key can be
+     * passed to {@link ResponseCache} and {@link RateLimiter} several times per request.
+     */
+    static final class Key {
+
+        static final Key NONE = new Key(null);
+
+        final String accessToken;
+
+        // racy single-check: String is immutable, so the worst case is computing hash twice
+        private String hash;
+
+        Key(String accessToken) {
+            this.accessToken = accessToken;
+        }
+
+        /**
+         * @return hash of access token or {@code null} if token is {@code null}
+         * @see AccessTokens#hash(String)
+         */
+        String hash() {
+            String hash = this.hash;
+            if (hash == null && accessToken != null) {
+                hash = AccessTokens.hash(accessToken);
+                this.hash = hash;
+            }
+            return hash;
+        }
+    }
+}
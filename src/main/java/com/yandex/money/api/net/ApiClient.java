@@ -27,6 +27,9 @@ package com.yandex.money.api.net;
 import com.squareup.okhttp.OkHttpClient;
 import com.yandex.money.api.utils.Language;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
 /**
  * Yandex.Money API client. Provides necessary information for sessions.
  *
@@ -43,6 +46,42 @@ public interface ApiClient {
      */
     OkHttpClient getHttpClient();
 
+    /**
+     * Gets HTTP client to execute a specific type of requests. It may differ from
+     * {@link #getHttpClient()}, for instance, in read timeout.
+     *
+     * @param requestType type of request
+     * @return HTTP client
+     * @see DefaultApiClient.Builder#setReadTimeout(Class, long, TimeUnit)
+     */
+    OkHttpClient getHttpClient(Class<?> requestType);
+
+    /**
+     * @return executor for callbacks of async requests or {@code null} if callbacks are called on
+     * HTTP client threads
+     */
+    Executor getCallbackExecutor();
+
+    /**
+     * @return rate limiter of requests or {@code null} if requests are not limited
+     */
+    RateLimiter getRateLimiter();
+
+    /**
+     * @return retry policy or {@code null} if requests are not retried
+     */
+    RetryPolicy getRetryPolicy();
+
+    /**
+     * @return cache of responses or {@code null} if responses are not cached
+     */
+    ResponseCache getResponseCache();
+
+    /**
+     * @return registry of access tokens or {@code null} if revoked tokens are not tracked
+     */
+    CredentialRegistry getCredentialRegistry();
+
     /**
      * @return hosts provider
      */
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+/**
+ * Receives events of requests executed by a session. Register it with
+ * {@link AbstractSession#setMetricsListener(ApiMetricsListener)}.
+ * <p/>
+ * Methods are called on threads that execute requests, so implementations should be thread safe
+ * and return quickly. All durations are in nanoseconds and are measured from the moment the
+ * request was started.
+ *
+ * @see HistogramMetricsListener
+ */
+public interface ApiMetricsListener {
+
+    /**
+     * Called before a request is sent.
+     *
+     * @param request the request
+     */
+    void onRequestStarted(MethodRequest<?> request);
+
+    /**
+     * Called when response headers are received (first byte). If HTTP status is
+     * {@link java.net.HttpURLConnection#HTTP_OK} parsing of a response starts right after this
+     * call.
+     *
+     * @param request the request
+     * @param code HTTP status code
+     * @param elapsed time since request was started
+     */
+    void onResponseReceived(MethodRequest<?> request, int code, long elapsed);
+
+    /**
+     * Called when response is parsed successfully.
+     *
+     * @param request the request
+     * @param parseTime time spent on parsing
+     * @param elapsed time since request was started
+     */
+    void onResponseParsed(MethodRequest<?> request, long parseTime, long elapsed);
+
+    /**
+     * Called when request has failed.
+     *
+     * @param request the request
+     * @param exception exception thrown, for instance
+     *                  {@link com.yandex.money.api.exceptions.InvalidTokenException} or
+     *                  {@link java.io.IOException}
+     * @param elapsed time since request was started
+     */
+    void onRequestFailed(MethodRequest<?> request, Exception exception, long elapsed);
+}
@@ -0,0 +1,276 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import com.yandex.money.api.exceptions.InvalidTokenException;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.AuxToken;
+import com.yandex.money.api.methods.Token;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.utils.Strings;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Registry of access tokens keyed by wallet. Install it with
+ * {@link DefaultApiClient.Builder#setCredentialRegistry(CredentialRegistry)}.
+ * <p/>
+ * A registered token is marked as revoked when server responds with HTTP 401 or with
+ * {@link Error#INVALID_GRANT} to a request made with it. After that requests with the token fail
+ * with {@link InvalidTokenException} without a call until a new token is registered for the
+ * wallet. Lookups are lock-free.
+ */
+public class CredentialRegistry {
+
+    private final ConcurrentMap<String, Credential> wallets = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Credential> tokens = new ConcurrentHashMap<>();
+
+    /**
+     * Registers access token of a wallet replacing previous one.
+     *
+     * @param wallet wallet number
+     * @param accessToken access token
+     */
+    public synchronized void register(String wallet, String accessToken) {
+        if (Strings.isNullOrEmpty(wallet)) {
+            throw new IllegalArgumentException("wallet is null or empty");
+        }
+        if (Strings.isNullOrEmpty(accessToken)) {
+            throw new IllegalArgumentException("accessToken is null or empty");
+        }
+        Credential credential = new Credential(wallet, accessToken);
+        Credential previous = wallets.put(wallet, credential);
+        if (previous != null) {
+            tokens.remove(previous.accessToken, previous);
+        }
+        tokens.put(accessToken, credential);
+    }
+
+    /**
+     * Removes access token of a wallet.
+     *
+     * @param wallet wallet number
+     * @return {@code true} if wallet was registered
+     */
+    public synchronized boolean unregister(String wallet) {
+        if (wallet == null) {
+            throw new NullPointerException("wallet is null");
+        }
+        Credential credential = wallets.remove(wallet);
+        if (credential == null) {
+            return false;
+        }
+        tokens.remove(credential.accessToken, credential);
+        return true;
+    }
+
+    /**
+     * Gets access token of a wallet.
+     *
+     * @param wallet wallet number
+     * @return access token or {@code null} if wallet is not registered
+     * @throws InvalidTokenException if access token is revoked
+     */
+    public String getAccessToken(String wallet) throws InvalidTokenException {
+        Credential credential = getCredential(wallet);
+        if (credential == null) {
+            return null;
+        }
+        if (credential.revoked) {
+            throw revoked();
+        }
+        return credential.accessToken;
+    }
+
+    /**
+     * Creates a session bound to access token of a wallet.
+     *
+     * @param session session to bind
+     * @param wallet wallet number
+     * @return bound session
+     * @throws InvalidTokenException if access token is revoked
+     * @throws IllegalArgumentException if wallet is not registered
+     * @see OAuth2Session#withAccessToken(String)
+     */
+    public OAuth2Session bind(OAuth2Session session, String wallet) throws InvalidTokenException {
+        if (session == null) {
+            throw new NullPointerException("session is null");
+        }
+        String accessToken = getAccessToken(wallet);
+        if (accessToken == null) {
+            throw new IllegalArgumentException("wallet " + wallet + " is not registered");
+        }
+        return session.withAccessToken(accessToken);
+    }
+
+    /**
+     * @param wallet wallet number
+     * @return {@code true} if access token of a wallet is revoked
+     */
+    public boolean isRevoked(String wallet) {
+        Credential credential = getCredential(wallet);
+        return credential != null && credential.revoked;
+    }
+
+    /**
+     * Marks access token as revoked. Does nothing if token is not registered.
+     *
+     * @param accessToken access token
+     * @return {@code true} if token was registered and valid
+     */
+    public boolean revoke(String accessToken) {
+        Credential credential = accessToken == null ? null : tokens.get(accessToken);
+        if (credential == null || credential.revoked) {
+            return false;
+        }
+        credential.revoked = true;
+        return true;
+    }
+
+    /**
+     * @return registered wallets
+     */
+    public Set<String> getWallets() {
+        return Collections.unmodifiableSet(new HashSet<>(wallets.keySet()));
+    }
+
+    /**
+     * @return wallets with revoked access tokens
+     */
+    public Set<String> getRevokedWallets() {
+        Set<String> revoked = new HashSet<>();
+        for (Credential credential : wallets.values()) {
+            if (credential.revoked) {
+                revoked.add(credential.wallet);
+            }
+        }
+        return Collections.unmodifiableSet(revoked);
+    }
+
+    /**
+     * Checks all valid access tokens with {@link AccountInfo.Request}. Requests are executed
+     * concurrently over the session's client. Tokens the server rejects are marked as revoked.
+     * Tokens that could not be checked because of other errors stay valid.
+     *
+     * @param session session to execute requests with
+     * @return wallets which access tokens were revoked by this sweep
+     * @throws InterruptedException if interrupted while waiting for responses
+     */
+    public Set<String> revalidate(OAuth2Session session) throws InterruptedException {
+        if (session == null) {
+            throw new NullPointerException("session is null");
+        }
+
+        List<Credential> credentials = new ArrayList<>();
+        List<ResponseFuture<AccountInfo>> futures = new ArrayList<>();
+        for (Credential credential : wallets.values()) {
+            if (!credential.revoked) {
+                OAuth2Session bound = session.withAccessToken(credential.accessToken);
+                // cached account info does not prove that token is still valid
+                bound.invalidateCache(AccountInfo.Request.class);
+                credentials.add(credential);
+                futures.add(bound.executeAsync(new AccountInfo.Request()));
+            }
+        }
+
+        Set<String> revoked = new HashSet<>();
+        try {
+            for (int i = 0; i < futures.size(); ++i) {
+                try {
+                    futures.get(i).get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof InvalidTokenException) {
+                        // session marks token as revoked itself if it uses this registry
+                        Credential credential = credentials.get(i);
+                        credential.revoked = true;
+                        revoked.add(credential.wallet);
+                    }
+                }
+            }
+        } finally {
+            for (ResponseFuture<AccountInfo> future : futures) {
+                future.cancel(true);
+            }
+        }
+        return Collections.unmodifiableSet(revoked);
+    }
+
+    /**
+     * Checks that access token is not revoked.
+     *
+     * @param accessToken access token, can be {@code null}
+     * @throws InvalidTokenException if token is revoked
+     */
+    void check(String accessToken) throws InvalidTokenException {
+        Credential credential = accessToken == null ? null : tokens.get(accessToken);
+        if (credential != null && credential.revoked) {
+            throw revoked();
+        }
+    }
+
+    /**
+     * Marks access token as revoked if {@link AuxToken} response has {@link Error#INVALID_GRANT}
+     * error. {@link Token} responses are ignored: there the error refers to an authorization code,
+     * not to the access token of a request.
+     *
+     * @param accessToken access token of a request, can be {@code null}
+     * @param response parsed response
+     */
+    void onResponse(String accessToken, Object response) {
+        if (response instanceof AuxToken && ((AuxToken) response).error == Error.INVALID_GRANT) {
+            revoke(accessToken);
+        }
+    }
+
+    private Credential getCredential(String wallet) {
+        if (wallet == null) {
+            throw new NullPointerException("wallet is null");
+        }
+        return wallets.get(wallet);
+    }
+
+    private static InvalidTokenException revoked() {
+        return new InvalidTokenException("access token is revoked");
+    }
+
+    private static final class Credential {
+
+        final String wallet;
+        final String accessToken;
+
+        volatile boolean revoked;
+
+        Credential(String wallet, String accessToken) {
+            this.wallet = wallet;
+            this.accessToken = accessToken;
+        }
+    }
+}
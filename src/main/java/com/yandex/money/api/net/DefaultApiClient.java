@@ -25,30 +25,43 @@
 package com.yandex.money.api.net;
 
 import com.squareup.okhttp.ConnectionPool;
+import com.squareup.okhttp.Dispatcher;
 import com.squareup.okhttp.OkHttpClient;
 import com.yandex.money.api.utils.Language;
+import com.yandex.money.api.utils.MillisecondsIn;
 import com.yandex.money.api.utils.Strings;
 
-import java.security.GeneralSecurityException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 
-import javax.net.ssl.SSLContext;
-import javax.net.ssl.SSLSocketFactory;
-
 /**
  * Default implementation of {@link com.yandex.money.api.net.ApiClient} interface.
+ * <p/>
+ * Use {@link DefaultApiClient.Builder} to tune connection pool, dispatcher, timeouts and callback
+ * executor.
  *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
 public class DefaultApiClient implements ApiClient {
 
-    private static final long DEFAULT_TIMEOUT = 30;
+    private static final String DEFAULT_PLATFORM = "Java";
+    private static final long DEFAULT_TIMEOUT = 30 * MillisecondsIn.SECOND;
+    private static final int DEFAULT_MAX_IDLE_CONNECTIONS = 4;
+    private static final long DEFAULT_KEEP_ALIVE_DURATION = 10 * MillisecondsIn.MINUTE;
 
     private final String id;
     private final OkHttpClient httpClient;
+    private final Map<Class<?>, OkHttpClient> httpClients;
     private final HostsProvider hostsProvider;
-
-    private String platform = "Java";
+    private final Executor callbackExecutor;
+    private final UserAgent userAgent;
+    private final RateLimiter rateLimiter;
+    private final RetryPolicy retryPolicy;
+    private final ResponseCache responseCache;
+    private final CredentialRegistry credentialRegistry;
 
     /**
      * Constructor.
@@ -56,12 +69,7 @@ public class DefaultApiClient implements ApiClient {
      * @param clientId client id to use
      */
     public DefaultApiClient(String clientId) {
-        if (clientId == null) {
-            throw new NullPointerException("client id is null");
-        }
-        id = clientId;
-        httpClient = createHttpClient();
-        hostsProvider = new HostsProvider(false);
+        this(new Builder(clientId));
     }
 
     /**
@@ -71,11 +79,7 @@ public class DefaultApiClient implements ApiClient {
      * @param debugLogging {@code true} if logging is required
      */
     public DefaultApiClient(String clientId, boolean debugLogging) {
-        this(clientId);
-        if (debugLogging) {
-            SSLSocketFactory sslSocketFactory = createSslSocketFactory();
-            httpClient.setSslSocketFactory(new WireLoggingSocketFactory(sslSocketFactory));
-        }
+        this(new Builder(clientId).setDebugLogging(debugLogging));
     }
 
     /**
@@ -89,10 +93,31 @@ public class DefaultApiClient implements ApiClient {
      * @param platform the name of a platform client is running on
      */
     public DefaultApiClient(String clientId, boolean debugLogging, String platform) {
-        this(clientId, debugLogging);
-        if (!Strings.isNullOrEmpty(platform)) {
-            this.platform = platform;
+        this(new Builder(clientId).setDebugLogging(debugLogging).setPlatform(platform));
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param builder configured builder
+     */
+    protected DefaultApiClient(Builder builder) {
+        if (builder.clientId == null) {
+            throw new NullPointerException("client id is null");
         }
+        id = builder.clientId;
+        httpClient = createHttpClient(builder);
+        httpClients = createHttpClients(httpClient, builder.readTimeouts);
+        hostsProvider = builder.hostsProvider == null ? new HostsProvider(false) :
+                builder.hostsProvider;
+        callbackExecutor = builder.callbackExecutor;
+        rateLimiter = builder.rateLimiter;
+        retryPolicy = builder.retryPolicySet ? builder.retryPolicy :
+                new RetryPolicy.Builder().create();
+        responseCache = builder.responseCache;
+        credentialRegistry = builder.credentialRegistry;
+        userAgent = new DefaultUserAgent(Strings.isNullOrEmpty(builder.platform) ?
+                DEFAULT_PLATFORM : builder.platform);
     }
 
     @Override
@@ -105,6 +130,37 @@ public class DefaultApiClient implements ApiClient {
         return httpClient;
     }
 
+    @Override
+    public OkHttpClient getHttpClient(Class<?> requestType) {
+        OkHttpClient client = httpClients.get(requestType);
+        return client == null ? httpClient : client;
+    }
+
+    @Override
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    @Override
+    public RateLimiter getRateLimiter() {
+        return rateLimiter;
+    }
+
+    @Override
+    public RetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    @Override
+    public ResponseCache getResponseCache() {
+        return responseCache;
+    }
+
+    @Override
+    public CredentialRegistry getCredentialRegistry() {
+        return credentialRegistry;
+    }
+
     @Override
     public HostsProvider getHostsProvider() {
         return hostsProvider;
@@ -112,7 +168,7 @@ public class DefaultApiClient implements ApiClient {
 
     @Override
     public UserAgent getUserAgent() {
-        return new DefaultUserAgent(platform);
+        return userAgent;
     }
 
     @Override
@@ -120,23 +176,249 @@ public class DefaultApiClient implements ApiClient {
         return Language.getDefault();
     }
 
-    private static OkHttpClient createHttpClient() {
+    private static OkHttpClient createHttpClient(Builder builder) {
         OkHttpClient client = new OkHttpClient();
-        client.setReadTimeout(DEFAULT_TIMEOUT, TimeUnit.SECONDS);
-        client.setConnectTimeout(DEFAULT_TIMEOUT, TimeUnit.SECONDS);
-        client.setConnectionPool(new ConnectionPool(4, 10 * 60 * 1000L));
+        client.setReadTimeout(builder.readTimeout, TimeUnit.MILLISECONDS);
+        client.setConnectTimeout(builder.connectTimeout, TimeUnit.MILLISECONDS);
+        client.setConnectionPool(new ConnectionPool(builder.maxIdleConnections,
+                builder.keepAliveDuration));
         client.setFollowSslRedirects(false);
         client.setFollowRedirects(false);
+
+        Dispatcher dispatcher = new Dispatcher();
+        if (builder.maxRequests != null) {
+            dispatcher.setMaxRequests(builder.maxRequests);
+        }
+        if (builder.maxRequestsPerHost != null) {
+            dispatcher.setMaxRequestsPerHost(builder.maxRequestsPerHost);
+        }
+        client.setDispatcher(dispatcher);
+
+        ExchangeLogger exchangeLogger = builder.exchangeLogger;
+        if (exchangeLogger == null && builder.debugLogging) {
+            exchangeLogger = new ExchangeLogger.Builder().create();
+        }
+        if (exchangeLogger != null) {
+            client.interceptors().add(exchangeLogger);
+        }
         return client;
     }
 
-    private static SSLSocketFactory createSslSocketFactory() {
-        try {
-            SSLContext context = SSLContext.getInstance("TLS");
-            context.init(null, null, null);
-            return context.getSocketFactory();
-        } catch (GeneralSecurityException exception) {
-            throw new RuntimeException(exception);
+    private static Map<Class<?>, OkHttpClient> createHttpClients(OkHttpClient httpClient,
+                                                                 Map<Class<?>, Long> timeouts) {
+
+        Map<Class<?>, OkHttpClient> clients = new HashMap<>();
+        for (Map.Entry<Class<?>, Long> entry : timeouts.entrySet()) {
+            OkHttpClient client = httpClient.clone();
+            client.setReadTimeout(entry.getValue(), TimeUnit.MILLISECONDS);
+            clients.put(entry.getKey(), client);
+        }
+        return Collections.unmodifiableMap(clients);
+    }
+
+    /**
+     * Creates {@link DefaultApiClient}.
+     */
+    public static class Builder {
+
+        private final String clientId;
+        private final Map<Class<?>, Long> readTimeouts = new HashMap<>();
+
+        private boolean debugLogging;
+        private String platform;
+        private int maxIdleConnections = DEFAULT_MAX_IDLE_CONNECTIONS;
+        private long keepAliveDuration = DEFAULT_KEEP_ALIVE_DURATION;
+        private Integer maxRequests;
+        private Integer maxRequestsPerHost;
+        private long connectTimeout = DEFAULT_TIMEOUT;
+        private long readTimeout = DEFAULT_TIMEOUT;
+        private Executor callbackExecutor;
+        private HostsProvider hostsProvider;
+        private ExchangeLogger exchangeLogger;
+        private RateLimiter rateLimiter;
+        private RetryPolicy retryPolicy;
+        private boolean retryPolicySet;
+        private ResponseCache responseCache;
+        private CredentialRegistry credentialRegistry;
+
+        /**
+         * Constructor.
+         *
+         * @param clientId client id to use
+         */
+        public Builder(String clientId) {
+            this.clientId = clientId;
+        }
+
+        /**
+         * @param debugLogging {@code true} if logging is required, all exchanges are logged with
+         *                     default {@link ExchangeLogger}
+         * @see #setExchangeLogger(ExchangeLogger)
+         */
+        public Builder setDebugLogging(boolean debugLogging) {
+            this.debugLogging = debugLogging;
+            return this;
+        }
+
+        /**
+         * @param platform the name of a platform client is running on
+         */
+        public Builder setPlatform(String platform) {
+            this.platform = platform;
+            return this;
+        }
+
+        /**
+         * @param maxIdleConnections maximum number of idle connections kept in the pool
+         *                           (4 by default)
+         */
+        public Builder setMaxIdleConnections(int maxIdleConnections) {
+            if (maxIdleConnections < 0) {
+                throw new IllegalArgumentException("maxIdleConnections is negative");
+            }
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * @param keepAliveDuration time to keep idle connections alive (10 minutes by default)
+         * @param unit time unit
+         */
+        public Builder setKeepAliveDuration(long keepAliveDuration, TimeUnit unit) {
+            this.keepAliveDuration = toMillis(keepAliveDuration, unit);
+            return this;
+        }
+
+        /**
+         * @param maxRequests maximum number of simultaneous async requests
+         * @see Dispatcher#setMaxRequests(int)
+         */
+        public Builder setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * @param maxRequestsPerHost maximum number of simultaneous async requests to one host
+         * @see Dispatcher#setMaxRequestsPerHost(int)
+         */
+        public Builder setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * @param connectTimeout connect timeout (30 seconds by default)
+         * @param unit time unit
+         */
+        public Builder setConnectTimeout(long connectTimeout, TimeUnit unit) {
+            this.connectTimeout = toMillis(connectTimeout, unit);
+            return this;
+        }
+
+        /**
+         * @param readTimeout default read timeout (30 seconds by default)
+         * @param unit time unit
+         */
+        public Builder setReadTimeout(long readTimeout, TimeUnit unit) {
+            this.readTimeout = toMillis(readTimeout, unit);
+            return this;
+        }
+
+        /**
+         * Sets read timeout for a specific type of requests, e.g.
+         * {@link com.yandex.money.api.methods.OperationHistory.Request}.
+         *
+         * @param requestType type of request
+         * @param readTimeout read timeout
+         * @param unit time unit
+         */
+        public Builder setReadTimeout(Class<? extends MethodRequest<?>> requestType,
+                                      long readTimeout, TimeUnit unit) {
+
+            if (requestType == null) {
+                throw new NullPointerException("requestType is null");
+            }
+            readTimeouts.put(requestType, toMillis(readTimeout, unit));
+            return this;
+        }
+
+        /**
+         * @param callbackExecutor executor to call callbacks of async requests on, by default
+         *                         they are called on HTTP client threads
+         */
+        public Builder setCallbackExecutor(Executor callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        /**
+         * @param hostsProvider hosts to perform requests to, by default production hosts are used
+         */
+        public Builder setHostsProvider(HostsProvider hostsProvider) {
+            this.hostsProvider = hostsProvider;
+            return this;
+        }
+
+        /**
+         * @param exchangeLogger logger of HTTP exchanges, overrides default logger enabled with
+         *                       {@link #setDebugLogging(boolean)}
+         */
+        public Builder setExchangeLogger(ExchangeLogger exchangeLogger) {
+            this.exchangeLogger = exchangeLogger;
+            return this;
+        }
+
+        /**
+         * @param rateLimiter rate limiter of requests, by default requests are not limited
+         */
+        public Builder setRateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        /**
+         * @param retryPolicy retry policy or {@code null} to disable retries, by default
+         *                    {@link RetryPolicy.Builder} defaults are used
+         */
+        public Builder setRetryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            this.retryPolicySet = true;
+            return this;
+        }
+
+        /**
+         * @param responseCache cache of responses, by default responses are not cached
+         */
+        public Builder setResponseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * @param credentialRegistry registry of access tokens, requests with revoked tokens fail
+         *                           without a call; by default revoked tokens are not tracked
+         */
+        public Builder setCredentialRegistry(CredentialRegistry credentialRegistry) {
+            this.credentialRegistry = credentialRegistry;
+            return this;
+        }
+
+        /**
+         * @return {@link DefaultApiClient}
+         */
+        public DefaultApiClient create() {
+            return new DefaultApiClient(this);
+        }
+
+        private static long toMillis(long value, TimeUnit unit) {
+            if (value < 0) {
+                throw new IllegalArgumentException("value is negative");
+            }
+            if (unit == null) {
+                throw new NullPointerException("unit is null");
+            }
+            return unit.toMillis(value);
         }
     }
 }
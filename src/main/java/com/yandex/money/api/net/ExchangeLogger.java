@@ -0,0 +1,417 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import com.squareup.okhttp.Headers;
+import com.squareup.okhttp.Interceptor;
+import com.squareup.okhttp.MediaType;
+import com.squareup.okhttp.Request;
+import com.squareup.okhttp.RequestBody;
+import com.squareup.okhttp.Response;
+import com.squareup.okhttp.ResponseBody;
+import com.yandex.money.api.utils.HttpHeaders;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.regex.Pattern;
+
+import okio.Buffer;
+import okio.BufferedSource;
+
+/**
+ * Logs HTTP exchanges (requests and responses) of sampled calls. Install it with
+ * {@link DefaultApiClient.Builder#setExchangeLogger(ExchangeLogger)}.
+ * <p/>
+ * Request thread only captures exchange and puts it to a bounded ring buffer. Formatting,
+ * redaction of secrets ({@code Authorization} header, {@code access_token}, {@code csc} and
+ * similar fields) and logging happen on a drain thread. If the buffer is full new exchanges
+ * are dropped.
+ * <p/>
+ * By default each logger has its own daemon drain thread, so a slow {@link Sink} only delays
+ * logging and never blocks other scheduled tasks.
+ */
+public class ExchangeLogger implements Interceptor {
+
+    private static final Logger LOGGER = Logger.getLogger(ExchangeLogger.class.getName());
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String REDACTED = "<redacted>";
+    private static final String SECRETS =
+            "access_token|aux_token|csc|client_secret|code|money_source_token|password";
+    private static final Pattern FORM_SECRETS =
+            Pattern.compile("(^|&)(" + SECRETS + ")=[^&]*");
+    private static final Pattern JSON_SECRETS =
+            Pattern.compile("(\"(?:" + SECRETS + ")\"\\s*:\\s*)" +
+                    "(?:\"(?:[^\"\\\\]|\\\\.)*\"|[^\\s,}\\]]+)");
+
+    private final double sampleRate;
+    private final int maxBodySize;
+    private final long drainDelay;
+    private final Sink sink;
+    private final ScheduledExecutorService scheduler;
+
+    private final AtomicReferenceArray<Exchange> exchanges;
+    private final int mask;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private volatile long tail;
+
+    private final Runnable drainTask = new Runnable() {
+        @Override
+        public void run() {
+            drainScheduled.set(false);
+            drain();
+        }
+    };
+
+    protected ExchangeLogger(Builder builder) {
+        sampleRate = builder.sampleRate;
+        maxBodySize = builder.maxBodySize;
+        drainDelay = builder.drainDelay;
+        sink = builder.sink;
+        scheduler = builder.scheduler == null ? createScheduler() : builder.scheduler;
+
+        int capacity = Integer.highestOneBit(builder.bufferSize);
+        if (capacity < builder.bufferSize) {
+            capacity <<= 1;
+        }
+        exchanges = new AtomicReferenceArray<>(capacity);
+        mask = capacity - 1;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (sampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return chain.proceed(request);
+        }
+
+        Exchange exchange = new Exchange(request, readBody(request.body()));
+        long started = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            exchange.failure = e;
+            exchange.took = System.nanoTime() - started;
+            offer(exchange);
+            throw e;
+        }
+        exchange.took = System.nanoTime() - started;
+        exchange.code = response.code();
+        exchange.message = response.message();
+        exchange.responseHeaders = response.headers();
+
+        ResponseBody body = response.body();
+        if (body != null) {
+            exchange.responseBody = peekBody(body);
+        }
+        offer(exchange);
+        return response;
+    }
+
+    /**
+     * Logs all buffered exchanges. It is called automatically on a drain thread, but can be
+     * called explicitly, for instance before shutdown.
+     *
+     * @return number of logged exchanges
+     */
+    public int drain() {
+        List<Exchange> drained = take();
+        // sink is called without holding the lock, so it can not block concurrent drains
+        for (Exchange exchange : drained) {
+            try {
+                sink.log(exchange.format());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "unable to log exchange", e);
+            }
+        }
+        return drained.size();
+    }
+
+    /**
+     * @return number of exchanges dropped because buffer was full
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    private synchronized List<Exchange> take() {
+        List<Exchange> taken = new ArrayList<>();
+        long position = tail;
+        while (position < head.get()) {
+            Exchange exchange = exchanges.getAndSet((int) (position & mask), null);
+            if (exchange == null) {
+                // exchange is being written
+                break;
+            }
+            tail = ++position;
+            taken.add(exchange);
+        }
+        return taken;
+    }
+
+    private void offer(Exchange exchange) {
+        while (true) {
+            long position = head.get();
+            if (position - tail > mask) {
+                dropped.incrementAndGet();
+                return;
+            }
+            if (head.compareAndSet(position, position + 1)) {
+                exchanges.set((int) (position & mask), exchange);
+                break;
+            }
+        }
+        if (drainScheduled.compareAndSet(false, true)) {
+            scheduler.schedule(drainTask, drainDelay, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private byte[] readBody(RequestBody body) throws IOException {
+        if (body == null) {
+            return null;
+        }
+        Buffer buffer = new Buffer();
+        body.writeTo(buffer);
+        return buffer.readByteArray(Math.min(buffer.size(), maxBodySize));
+    }
+
+    /**
+     * Buffers at most {@code maxBodySize} bytes of a body and copies them. The body itself is not
+     * consumed, so it is passed to a caller untouched.
+     */
+    private byte[] peekBody(ResponseBody body) throws IOException {
+        if (maxBodySize == 0) {
+            return null;
+        }
+        BufferedSource source = body.source();
+        source.request(maxBodySize);
+        Buffer buffer = source.buffer();
+        return buffer.clone().readByteArray(Math.min(buffer.size(), maxBodySize));
+    }
+
+    private static ScheduledExecutorService createScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "YandexMoney ExchangeLogger");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    static String redactForm(String body) {
+        return FORM_SECRETS.matcher(body).replaceAll("$1$2=" + REDACTED);
+    }
+
+    static String redactJson(String body) {
+        return JSON_SECRETS.matcher(body).replaceAll("$1\"" + REDACTED + "\"");
+    }
+
+    /**
+     * Receives formatted exchanges.
+     */
+    public interface Sink {
+        /**
+         * @param exchange formatted exchange with secrets redacted
+         */
+        void log(String exchange);
+    }
+
+    /**
+     * Creates {@link ExchangeLogger}.
+     */
+    public static class Builder {
+
+        private double sampleRate = 1;
+        private int maxBodySize = 4096;
+        private int bufferSize = 256;
+        private long drainDelay = 100;
+        private ScheduledExecutorService scheduler;
+        private Sink sink = new Sink() {
+            @Override
+            public void log(String exchange) {
+                LOGGER.info(exchange);
+            }
+        };
+
+        /**
+         * @param sampleRate part of exchanges to log in range [0, 1], 1 by default
+         */
+        public Builder setSampleRate(double sampleRate) {
+            if (sampleRate < 0 || sampleRate > 1) {
+                throw new IllegalArgumentException("sampleRate should be in range [0, 1]");
+            }
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * @param maxBodySize maximum number of logged bytes of a body, 4096 by default
+         */
+        public Builder setMaxBodySize(int maxBodySize) {
+            if (maxBodySize < 0) {
+                throw new IllegalArgumentException("maxBodySize is negative");
+            }
+            this.maxBodySize = maxBodySize;
+            return this;
+        }
+
+        /**
+         * @param bufferSize maximum number of exchanges waiting to be logged (rounded up to a
+         *                   power of two), 256 by default
+         */
+        public Builder setBufferSize(int bufferSize) {
+            if (bufferSize < 1 || bufferSize > 1 << 20) {
+                throw new IllegalArgumentException("bufferSize should be in range [1, 2^20]");
+            }
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        /**
+         * @param drainDelay delay before buffered exchanges are logged, 100 ms by default
+         * @param unit time unit
+         */
+        public Builder setDrainDelay(long drainDelay, TimeUnit unit) {
+            if (drainDelay < 0) {
+                throw new IllegalArgumentException("drainDelay is negative");
+            }
+            this.drainDelay = unit.toMillis(drainDelay);
+            return this;
+        }
+
+        /**
+         * @param scheduler scheduler to drain buffer on, by default the logger creates its own
+         *                  daemon thread; {@link Sink} is called on this scheduler, so it should
+         *                  not be shared with tasks that must not be delayed
+         */
+        public Builder setScheduler(ScheduledExecutorService scheduler) {
+            this.scheduler = scheduler;
+            return this;
+        }
+
+        /**
+         * @param sink receiver of formatted exchanges, logs with {@link Logger} by default
+         */
+        public Builder setSink(Sink sink) {
+            if (sink == null) {
+                throw new NullPointerException("sink is null");
+            }
+            this.sink = sink;
+            return this;
+        }
+
+        /**
+         * @return {@link ExchangeLogger}
+         */
+        public ExchangeLogger create() {
+            return new ExchangeLogger(this);
+        }
+    }
+
+    private static final class Exchange {
+
+        final Request request;
+        final byte[] requestBody;
+
+        long took;
+        IOException failure;
+        int code;
+        String message;
+        Headers responseHeaders;
+        byte[] responseBody;
+
+        Exchange(Request request, byte[] requestBody) {
+            this.request = request;
+            this.requestBody = requestBody;
+        }
+
+        String format() {
+            StringBuilder builder = new StringBuilder("--> ")
+                    .append(request.method()).append(' ').append(request.urlString())
+                    .append('\n');
+            appendHeaders(builder, request.headers());
+            RequestBody body = request.body();
+            appendBody(builder, body == null ? null : body.contentType(), requestBody);
+
+            long millis = TimeUnit.NANOSECONDS.toMillis(took);
+            if (failure != null) {
+                return builder.append("<-- FAILED: ").append(failure)
+                        .append(" (").append(millis).append(" ms)").toString();
+            }
+
+            builder.append("<-- ").append(code).append(' ').append(message)
+                    .append(" (").append(millis).append(" ms)\n");
+            appendHeaders(builder, responseHeaders);
+            String contentType = responseHeaders.get(HttpHeaders.CONTENT_TYPE);
+            appendBody(builder, contentType == null ? null : MediaType.parse(contentType),
+                    responseBody);
+            return builder.toString();
+        }
+
+        private static void appendHeaders(StringBuilder builder, Headers headers) {
+            for (int i = 0, size = headers.size(); i < size; ++i) {
+                String name = headers.name(i);
+                builder.append(name).append(": ")
+                        .append(HttpHeaders.AUTHORIZATION.equalsIgnoreCase(name) ? REDACTED :
+                                headers.value(i))
+                        .append('\n');
+            }
+        }
+
+        private static void appendBody(StringBuilder builder, MediaType contentType,
+                                       byte[] body) {
+            if (body == null || body.length == 0) {
+                return;
+            }
+            Charset charset = contentType == null ? UTF_8 : contentType.charset(UTF_8);
+            String text = new String(body, charset);
+            String subtype = contentType == null ? "" : contentType.subtype();
+            if (subtype.contains("json")) {
+                text = redactJson(text);
+            } else if (subtype.contains("x-www-form-urlencoded")) {
+                text = redactForm(text);
+            } else {
+                text = redactJson(redactForm(text));
+            }
+            builder.append(text).append('\n');
+        }
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Default implementation of {@link ApiMetricsListener}. Collects latencies of successful requests
+ * into histograms and counts failures per {@link MethodRequest} class. All updates are lock-free.
+ * <p/>
+ * Latencies are stored with microsecond resolution and precision of about 6%.
+ */
+public class HistogramMetricsListener implements ApiMetricsListener {
+
+    private final ConcurrentMap<Class<?>, Stats> stats = new ConcurrentHashMap<>();
+
+    @Override
+    public void onRequestStarted(MethodRequest<?> request) {
+        // nothing to do
+    }
+
+    @Override
+    public void onResponseReceived(MethodRequest<?> request, int code, long elapsed) {
+        getOrCreateStats(request.getClass()).firstByte.record(elapsed);
+    }
+
+    @Override
+    public void onResponseParsed(MethodRequest<?> request, long parseTime, long elapsed) {
+        getOrCreateStats(request.getClass()).latency.record(elapsed);
+    }
+
+    @Override
+    public void onRequestFailed(MethodRequest<?> request, Exception exception, long elapsed) {
+        getOrCreateStats(request.getClass()).failures.incrementAndGet();
+    }
+
+    /**
+     * @param requestType type of request
+     * @return stats of requests or {@code null} if no requests of this type were executed
+     */
+    public Stats getStats(Class<?> requestType) {
+        return stats.get(requestType);
+    }
+
+    /**
+     * @return stats of all executed requests by their types
+     */
+    public Map<Class<?>, Stats> getAllStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * Clears all collected stats.
+     */
+    public void reset() {
+        stats.clear();
+    }
+
+    private Stats getOrCreateStats(Class<?> requestType) {
+        Stats value = stats.get(requestType);
+        if (value == null) {
+            value = new Stats();
+            Stats previous = stats.putIfAbsent(requestType, value);
+            if (previous != null) {
+                value = previous;
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Stats of one type of requests.
+     */
+    public static final class Stats {
+
+        final Histogram latency = new Histogram();
+        final Histogram firstByte = new Histogram();
+        final AtomicLong failures = new AtomicLong();
+
+        Stats() {
+        }
+
+        /**
+         * @return number of successful requests
+         */
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        /**
+         * @return number of failed requests
+         */
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * @param unit time unit
+         * @return median latency of successful requests
+         */
+        public long getP50(TimeUnit unit) {
+            return getLatency(0.5, unit);
+        }
+
+        /**
+         * @param unit time unit
+         * @return 99th percentile of latency of successful requests
+         */
+        public long getP99(TimeUnit unit) {
+            return getLatency(0.99, unit);
+        }
+
+        /**
+         * @param percentile percentile in range (0, 1]
+         * @param unit time unit
+         * @return latency of successful requests at specified percentile
+         */
+        public long getLatency(double percentile, TimeUnit unit) {
+            return unit.convert(latency.getValueAtPercentile(percentile), TimeUnit.MICROSECONDS);
+        }
+
+        /**
+         * @param percentile percentile in range (0, 1]
+         * @param unit time unit
+         * @return time to first byte of response at specified percentile
+         */
+        public long getTimeToFirstByte(double percentile, TimeUnit unit) {
+            return unit.convert(firstByte.getValueAtPercentile(percentile),
+                    TimeUnit.MICROSECONDS);
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{" +
+                    "count=" + getCount() +
+                    ", failures=" + getFailures() +
+                    ", p50=" + getP50(TimeUnit.MILLISECONDS) + "ms" +
+                    ", p99=" + getP99(TimeUnit.MILLISECONDS) + "ms" +
+                    '}';
+        }
+    }
+
+    /**
+     * Log-linear histogram of microseconds: each power of two is split into 8 buckets.
+     */
+    static final class Histogram {
+
+        private static final int SUB_BUCKET_BITS = 3;
+        private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+        private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+        private final AtomicLong count = new AtomicLong();
+
+        void record(long nanos) {
+            counts.incrementAndGet(indexOf(Math.max(0, nanos / 1000)));
+            count.incrementAndGet();
+        }
+
+        long getCount() {
+            return count.get();
+        }
+
+        long getValueAtPercentile(double percentile) {
+            if (percentile <= 0 || percentile > 1) {
+                throw new IllegalArgumentException("percentile should be in range (0, 1]");
+            }
+            long total = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                total += counts.get(i);
+            }
+            long target = (long) Math.ceil(percentile * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; ++i) {
+                seen += counts.get(i);
+                if (seen >= target && seen > 0) {
+                    return valueOf(i);
+                }
+            }
+            return 0;
+        }
+
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value);
+            int shift = magnitude - SUB_BUCKET_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+        }
+
+        /**
+         * @return middle of bucket's range
+         */
+        static long valueOf(int index) {
+            if (index < SUB_BUCKETS * 2) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) / 2;
+        }
+    }
+}
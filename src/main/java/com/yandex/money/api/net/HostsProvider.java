@@ -24,14 +24,34 @@
 
 package com.yandex.money.api.net;
 
+import com.yandex.money.api.utils.Strings;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 /**
  * Provides necessary hosts. They are used to perform API requests.
+ * <p/>
+ * Endpoint URLs are resolved once per path and cached, so requests reuse parsed {@link URL}
+ * instances. Hosts can be replaced (for instance, with a local stub server) using
+ * {@link #HostsProvider(String, String)} constructor.
  *
  * @author Slava Yasevich (vyasevich@yamoney.ru)
  */
 public class HostsProvider {
 
-    private final boolean mobile;
+    private static final String MONEY = "https://money.yandex.ru";
+    private static final String SP_MONEY = "https://sp-money.yandex.ru";
+    private static final String SP_MONEY_MOBILE = "https://m.sp-money.yandex.ru";
+
+    private final String money;
+    private final String spMoney;
+
+    private final ConcurrentMap<String, URL> moneyUrls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, URL> moneyApiUrls = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, URL> spMoneyUrls = new ConcurrentHashMap<>();
 
     /**
      * Constructor.
@@ -39,14 +59,31 @@ public class HostsProvider {
      * @param mobile {@code true} if running on a mobile device
      */
     public HostsProvider(boolean mobile) {
-        this.mobile = mobile;
+        this(MONEY, mobile ? SP_MONEY_MOBILE : SP_MONEY);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param money money host, e.g. {@code https://money.yandex.ru}
+     * @param spMoney sp-money host, e.g. {@code https://sp-money.yandex.ru}
+     */
+    public HostsProvider(String money, String spMoney) {
+        if (Strings.isNullOrEmpty(money)) {
+            throw new IllegalArgumentException("money host is null or empty");
+        }
+        if (Strings.isNullOrEmpty(spMoney)) {
+            throw new IllegalArgumentException("sp-money host is null or empty");
+        }
+        this.money = money;
+        this.spMoney = spMoney;
     }
 
     /**
      * @return {@code https://money.yandex.ru}
      */
     public String getMoney() {
-        return "https://money.yandex.ru";
+        return money;
     }
 
     /**
@@ -61,6 +98,47 @@ public class HostsProvider {
      * mobile parameter
      */
     public String getSpMoney() {
-        return mobile ? "https://m.sp-money.yandex.ru" : "https://sp-money.yandex.ru";
+        return spMoney;
+    }
+
+    /**
+     * @param path path of endpoint, e.g. {@code /oauth/authorize}
+     * @return endpoint URL on {@link #getMoney()} host
+     * @throws MalformedURLException if URL is malformed
+     */
+    public final URL getMoneyUrl(String path) throws MalformedURLException {
+        URL url = moneyUrls.get(path);
+        return url == null ? resolve(moneyUrls, getMoney(), path) : url;
+    }
+
+    /**
+     * @param path path of API method, e.g. {@code /account-info}
+     * @return endpoint URL of API method on {@link #getMoneyApi()} host
+     * @throws MalformedURLException if URL is malformed
+     */
+    public final URL getMoneyApiUrl(String path) throws MalformedURLException {
+        URL url = moneyApiUrls.get(path);
+        return url == null ? resolve(moneyApiUrls, getMoneyApi(), path) : url;
+    }
+
+    /**
+     * @param path path of endpoint, e.g. {@code /oauth/token}
+     * @return endpoint URL on {@link #getSpMoney()} host
+     * @throws MalformedURLException if URL is malformed
+     */
+    public final URL getSpMoneyUrl(String path) throws MalformedURLException {
+        URL url = spMoneyUrls.get(path);
+        return url == null ? resolve(spMoneyUrls, getSpMoney(), path) : url;
+    }
+
+    private static URL resolve(ConcurrentMap<String, URL> urls, String host, String path)
+            throws MalformedURLException {
+
+        if (path == null) {
+            throw new NullPointerException("path is null");
+        }
+        URL url = new URL(host + path);
+        URL previous = urls.putIfAbsent(path, url);
+        return previous == null ? url : previous;
     }
 }
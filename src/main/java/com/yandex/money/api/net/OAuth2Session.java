@@ -33,14 +33,24 @@ import com.squareup.okhttp.Response;
 import com.yandex.money.api.exceptions.InsufficientScopeException;
 import com.yandex.money.api.exceptions.InvalidRequestException;
 import com.yandex.money.api.exceptions.InvalidTokenException;
+import com.yandex.money.api.exceptions.RateLimitExceededException;
+import com.yandex.money.api.exceptions.UnexpectedResponseException;
 import com.yandex.money.api.utils.HttpHeaders;
 import com.yandex.money.api.utils.MimeTypes;
 import com.yandex.money.api.utils.Streams;
 import com.yandex.money.api.utils.Strings;
+import com.yandex.money.api.utils.Threads;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.HttpURLConnection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * OAuth2 session that can be used to perform API requests and retrieve responses.
@@ -49,11 +59,20 @@ import java.net.HttpURLConnection;
  */
 public class OAuth2Session extends AbstractSession {
 
-    private final RequestBody emptyRequestBody =
+    private static final RequestBody EMPTY_REQUEST_BODY =
             RequestBody.create(MediaType.parse(MimeTypes.Application.X_WWW_FORM_URLENCODED),
                     new byte[0]);
 
-    private String accessToken;
+    /**
+     * Session that owns settings and shared state, {@code this} unless the session is bound to
+     * an access token.
+     */
+    private final OAuth2Session root;
+    private final boolean bound;
+    private final ConcurrentMap<RequestKey, ResponseFuture<?>> flights;
+
+    private volatile AccessTokens.Key token = AccessTokens.Key.NONE;
+    private volatile boolean singleFlight;
 
     /**
      * Constructor.
@@ -62,23 +81,70 @@ public class OAuth2Session extends AbstractSession {
      */
     public OAuth2Session(ApiClient client) {
         super(client);
+        this.root = this;
+        this.bound = false;
+        this.flights = new ConcurrentHashMap<>();
+    }
+
+    private OAuth2Session(OAuth2Session root, String accessToken) {
+        super(root.client);
+        this.root = root;
+        this.bound = true;
+        this.flights = null;
+        this.token = new AccessTokens.Key(accessToken);
     }
 
     /**
-     * Synchronous execution of a request.
+     * Synchronous execution of a request. Failed requests are retried on the calling thread
+     * according to client's {@link RetryPolicy}.
      *
      * @param request the request
      * @param <T> response type
      * @return parsed response
      * @throws IOException if something went wrong during IO operations
      * @throws InvalidRequestException if server responded with 404 code
-     * @throws InvalidTokenException if server responded with 401 code
+     * @throws InvalidTokenException if server responded with 401 code or token is revoked in
+     * {@link CredentialRegistry}
      * @throws InsufficientScopeException if server responded with 403 code
+     * @throws RateLimitExceededException if request was rejected by rate limiter
+     * @throws UnexpectedResponseException if server responded with unexpected code
      * @see #enqueue(MethodRequest, OnResponseReady)
      */
     public <T> T execute(MethodRequest<T> request) throws IOException, InvalidRequestException,
             InvalidTokenException, InsufficientScopeException {
-        return parseResponse(request, prepareCall(request).execute());
+
+        if (request == null) {
+            throw new NullPointerException("request is null");
+        }
+        AccessTokens.Key token = this.token;
+        checkRevoked(token);
+
+        if (isShared(request)) {
+            return await(executeAsync(request, token));
+        }
+
+        RetryPolicy retryPolicy = client.getRetryPolicy();
+        if (retryPolicy == null || !retryPolicy.isRetryable(request)) {
+            return executeOnce(request, token);
+        }
+
+        // retries are made on the calling thread, so dispatcher's limits are not involved
+        retryPolicy.onRequest();
+        int attempts = 0;
+        while (true) {
+            ++attempts;
+            try {
+                return executeOnce(request, token);
+            } catch (IOException e) {
+                long delay = retryPolicy.isTransient(e) ?
+                        retryPolicy.getRetryDelay(request, attempts) : -1;
+                if (delay < 0) {
+                    throw e;
+                }
+                sleep(TimeUnit.MILLISECONDS.toNanos(delay), "interrupted while waiting for retry");
+                checkRevoked(token);
+            }
+        }
     }
 
     /**
@@ -89,37 +155,104 @@ public class OAuth2Session extends AbstractSession {
      * @param <T> response type
      * @return a {@link Call} object that can be canceled
      * @throws IOException if something went wrong during IO operations
+     * @throws RateLimitExceededException if request was rejected by rate limiter
      */
-    public <T> Call enqueue(final MethodRequest<T> request, final OnResponseReady<T> callback)
+    public <T> Call enqueue(MethodRequest<T> request, OnResponseReady<T> callback)
             throws IOException {
+        return enqueue(request, callback, token);
+    }
 
-        Call call = prepareCall(request);
-        call.enqueue(new Callback() {
-            @Override
-            public void onFailure(Request request, IOException e) {
-                callback.onFailure(e);
-            }
+    /**
+     * Asynchronous execution of a request. Unlike {@link #enqueue(MethodRequest, OnResponseReady)}
+     * any error including failure to create a call is delivered through the returned future.
+     * Cancellation of the future cancels the call.
+     * <p/>
+     * Failed requests are retried according to client's {@link RetryPolicy}. Retries are
+     * scheduled on a shared scheduler. If client has {@link ResponseCache} fresh cached responses
+     * are returned without making a call.
+     *
+     * @param request the request
+     * @param <T> response type
+     * @return future of parsed response
+     */
+    public <T> ResponseFuture<T> executeAsync(MethodRequest<T> request) {
+        if (request == null) {
+            throw new NullPointerException("request is null");
+        }
+        return executeAsync(request, token);
+    }
 
-            @Override
-            public void onResponse(Response response) throws IOException {
-                try {
-                    callback.onResponse(parseResponse(request, response));
-                } catch (Exception e) {
-                    callback.onFailure(e);
-                }
+    /**
+     * Creates a session bound to an access token. Bound session shares client, settings and
+     * in-flight requests with this session, but its access token can not be changed, so it can
+     * be used concurrently with other bound sessions. Creating a bound session is cheap: use it
+     * to execute requests on behalf of many users over one client.
+     * <p/>
+     * Debug logging and metrics listener of this session apply to bound session. Settings of
+     * bound session can not be changed: setters throw {@link UnsupportedOperationException}.
+     *
+     * @param accessToken access token or {@code null} for requests that do not require it
+     * @return bound session
+     */
+    public OAuth2Session withAccessToken(String accessToken) {
+        return new OAuth2Session(root, accessToken);
+    }
+
+    /**
+     * Enables sharing of calls by identical read-only requests
+     * ({@link com.yandex.money.api.methods.AccountInfo},
+     * {@link com.yandex.money.api.methods.OperationDetails},
+     * {@link com.yandex.money.api.methods.OperationHistory}). If a request with the same URL,
+     * parameters and access token is in flight, {@link #execute(MethodRequest)} and
+     * {@link #executeAsync(MethodRequest)} wait for its response instead of making a new call.
+     * Disabled by default.
+     *
+     * @param singleFlight {@code true} to share calls
+     * @throws UnsupportedOperationException if session is bound to an access token
+     */
+    public void setSingleFlight(boolean singleFlight) {
+        checkModifiable();
+        this.singleFlight = singleFlight;
+    }
+
+    /**
+     * Removes cached responses of a type of requests executed with current access token. Does
+     * nothing if client has no {@link ResponseCache}. Requests started later do not share calls
+     * that are already in flight.
+     *
+     * @param requestType type of requests
+     */
+    public void invalidateCache(Class<? extends MethodRequest<?>> requestType) {
+        AccessTokens.Key token = this.token;
+        ResponseCache cache = client.getResponseCache();
+        if (cache != null) {
+            cache.invalidate(requestType, token);
+        }
+
+        String accessToken = token.accessToken;
+        Iterator<RequestKey> iterator = root.flights.keySet().iterator();
+        while (iterator.hasNext()) {
+            RequestKey key = iterator.next();
+            if (key.type == requestType &&
+                    (accessToken == null ? key.token == null : accessToken.equals(key.token))) {
+                iterator.remove();
             }
-        });
-        return call;
+        }
     }
 
     /**
      * Sets access token to perform authorized operations. Can be set to {@code null}, if no
      * access token is required to execute a request.
+     * <p/>
+     * Requests that are already started keep using previous access token. To execute requests
+     * on behalf of different users concurrently use {@link #withAccessToken(String)}.
      *
      * @param accessToken access token
+     * @throws UnsupportedOperationException if session is bound to an access token
      */
     public void setAccessToken(String accessToken) {
-        this.accessToken = accessToken;
+        checkModifiable();
+        this.token = new AccessTokens.Key(accessToken);
     }
 
     /**
@@ -128,7 +261,15 @@ public class OAuth2Session extends AbstractSession {
      * @return {@code true} if authorized
      */
     public boolean isAuthorized() {
-        return !Strings.isNullOrEmpty(accessToken);
+        return !Strings.isNullOrEmpty(token.accessToken);
+    }
+
+    /**
+     * @return {@code true} if session is bound to an access token
+     * @see #withAccessToken(String)
+     */
+    public boolean isBound() {
+        return bound;
     }
 
     /**
@@ -141,48 +282,371 @@ public class OAuth2Session extends AbstractSession {
         return new OAuth2Authorization(client);
     }
 
-    private <T> Call prepareCall(MethodRequest<T> request) throws IOException {
+    private <T> Call enqueue(final MethodRequest<T> request, final OnResponseReady<T> callback,
+                             final AccessTokens.Key token) throws IOException {
+
+        final Call call = prepareCall(request, token);
+
+        final ApiMetricsListener listener = root.getMetricsListener();
+        final long started = listener == null ? 0 : System.nanoTime();
+        if (listener != null) {
+            listener.onRequestStarted(request);
+        }
+
+        try {
+            checkRevoked(token);
+        } catch (InvalidTokenException e) {
+            if (listener != null) {
+                listener.onRequestFailed(request, e, System.nanoTime() - started);
+            }
+            deliverFailure(callback, e);
+            return call;
+        }
+
+        long wait;
+        try {
+            wait = acquirePermit(request, token);
+        } catch (RateLimitExceededException e) {
+            if (listener != null) {
+                listener.onRequestFailed(request, e, System.nanoTime() - started);
+            }
+            throw e;
+        }
+
+        final Callback httpCallback = new Callback() {
+            @Override
+            public void onFailure(Request httpRequest, IOException e) {
+                if (listener != null) {
+                    listener.onRequestFailed(request, e, System.nanoTime() - started);
+                }
+                deliverFailure(callback, e);
+            }
+
+            @Override
+            public void onResponse(Response response) throws IOException {
+                final T result;
+                try {
+                    result = parseResponse(request, response, token, listener, started);
+                } catch (Exception e) {
+                    if (listener != null) {
+                        listener.onRequestFailed(request, e, System.nanoTime() - started);
+                    }
+                    deliverFailure(callback, e);
+                    return;
+                }
+                Executor executor = client.getCallbackExecutor();
+                if (executor == null) {
+                    callback.onResponse(result);
+                } else {
+                    executor.execute(new Runnable() {
+                        @Override
+                        public void run() {
+                            callback.onResponse(result);
+                        }
+                    });
+                }
+            }
+        };
+
+        if (wait == 0) {
+            call.enqueue(httpCallback);
+        } else {
+            Threads.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    call.enqueue(httpCallback);
+                }
+            }, wait, TimeUnit.NANOSECONDS);
+        }
+        return call;
+    }
+
+    private <T> ResponseFuture<T> executeAsync(final MethodRequest<T> request,
+                                               final AccessTokens.Key token) {
+        try {
+            checkRevoked(token);
+        } catch (InvalidTokenException e) {
+            ResponseFuture<T> failed = new ResponseFuture<>();
+            failed.onFailure(e);
+            return failed;
+        }
+
+        final ResponseCache cache = client.getResponseCache();
+        if (cache == null || !cache.isCacheable(request)) {
+            return startShared(request, token);
+        }
+
+        final HostsProvider hostsProvider = client.getHostsProvider();
+        try {
+            T cached = cache.get(request, hostsProvider, token);
+            if (cached != null) {
+                return ResponseFuture.completed(cached);
+            }
+        } catch (IOException e) {
+            ResponseFuture<T> failed = new ResponseFuture<>();
+            failed.onFailure(e);
+            return failed;
+        }
+
+        // response is cached before the future completes, so next requests get it; it is dropped
+        // if cache is invalidated while the request is in flight
+        final long generation = cache.getGeneration(token);
+        return startShared(request, token).thenCompose(
+                new ResponseFuture.Continuation<T, T>() {
+                    @Override
+                    public ResponseFuture<T> then(T response) throws Exception {
+                        cache.put(request, hostsProvider, token, response, generation);
+                        return ResponseFuture.completed(response);
+                    }
+                });
+    }
+
+    @Override
+    protected void checkModifiable() {
+        if (bound) {
+            throw new UnsupportedOperationException("session is bound to an access token");
+        }
+    }
+
+    private boolean isShared(MethodRequest<?> request) {
+        if (root.singleFlight && RequestKey.READ_ONLY_TYPES.contains(request.getClass())) {
+            return true;
+        }
+        ResponseCache cache = client.getResponseCache();
+        return cache != null && cache.isCacheable(request);
+    }
+
+    private <T> ResponseFuture<T> startShared(MethodRequest<T> request, AccessTokens.Key token) {
+        if (root.singleFlight && RequestKey.READ_ONLY_TYPES.contains(request.getClass())) {
+            return joinFlight(request, token);
+        }
+        return startAsync(request, token);
+    }
+
+    private <T> ResponseFuture<T> joinFlight(MethodRequest<T> request, AccessTokens.Key token) {
+        final ConcurrentMap<RequestKey, ResponseFuture<?>> flights = root.flights;
+        final RequestKey key;
+        try {
+            key = RequestKey.create(request, client.getHostsProvider(), token.accessToken);
+        } catch (IOException e) {
+            ResponseFuture<T> failed = new ResponseFuture<>();
+            failed.onFailure(e);
+            return failed;
+        }
+
+        @SuppressWarnings("unchecked")
+        ResponseFuture<T> flight = (ResponseFuture<T>) flights.get(key);
+        if (flight == null) {
+            final ResponseFuture<T> created = new ResponseFuture<>();
+            @SuppressWarnings("unchecked")
+            ResponseFuture<T> previous = (ResponseFuture<T>) flights.putIfAbsent(key, created);
+            if (previous == null) {
+                created.addCallback(new OnResponseReady<T>() {
+                    @Override
+                    public void onFailure(Exception exception) {
+                        flights.remove(key, created);
+                    }
+
+                    @Override
+                    public void onResponse(T response) {
+                        flights.remove(key, created);
+                    }
+                });
+                startAsync(request, token).addCallback(created);
+                flight = created;
+            } else {
+                flight = previous;
+            }
+        }
+
+        // each caller gets its own future, so cancellation does not affect others
+        ResponseFuture<T> future = new ResponseFuture<>();
+        flight.addCallback(future);
+        return future;
+    }
+
+    private <T> ResponseFuture<T> startAsync(MethodRequest<T> request, AccessTokens.Key token) {
+        ResponseFuture<T> future = new ResponseFuture<>();
+        RetryPolicy retryPolicy = client.getRetryPolicy();
+        if (retryPolicy != null && retryPolicy.isRetryable(request)) {
+            retryPolicy.onRequest();
+            new RetryingCall<>(request, token, future, retryPolicy).start();
+        } else {
+            try {
+                future.setCall(enqueue(request, future, token));
+            } catch (IOException e) {
+                future.onFailure(e);
+            }
+        }
+        return future;
+    }
+
+    private <T> Call prepareCall(MethodRequest<T> request, AccessTokens.Key token)
+            throws IOException {
+
         if (request == null) {
             throw new NullPointerException("request is null");
         }
 
         final HostsProvider hostsProvider = client.getHostsProvider();
-        final Request.Builder builder = prepareRequestBuilder(request.requestURL(hostsProvider));
+        final Request.Builder builder =
+                root.prepareRequestBuilder(request.requestURL(hostsProvider));
 
-        if (isAuthorized()) {
+        String accessToken = token.accessToken;
+        if (!Strings.isNullOrEmpty(accessToken)) {
             builder.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken);
         }
 
         PostRequestBodyBuffer parameters = request.buildParameters();
-        RequestBody requestBody = parameters == null ? emptyRequestBody :
+        RequestBody requestBody = parameters == null ? EMPTY_REQUEST_BODY :
                 parameters.getRequestBody();
 
-        return client.getHttpClient()
+        return client.getHttpClient(request.getClass())
                 .newCall(builder.post(requestBody).build());
     }
 
-    private <T> T parseResponse(MethodRequest<T> request, Response response) throws IOException,
+    private void checkRevoked(AccessTokens.Key token) throws InvalidTokenException {
+        CredentialRegistry registry = client.getCredentialRegistry();
+        if (registry != null) {
+            registry.check(token.accessToken);
+        }
+    }
+
+    private static <T> T await(ResponseFuture<T> future) throws IOException,
             InvalidRequestException, InvalidTokenException, InsufficientScopeException {
 
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for response");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof InvalidRequestException) {
+                throw (InvalidRequestException) cause;
+            } else if (cause instanceof InvalidTokenException) {
+                throw (InvalidTokenException) cause;
+            } else if (cause instanceof InsufficientScopeException) {
+                throw (InsufficientScopeException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private <T> T executeOnce(MethodRequest<T> request, AccessTokens.Key token) throws IOException,
+            InvalidRequestException, InvalidTokenException, InsufficientScopeException {
+
+        ApiMetricsListener listener = root.getMetricsListener();
+        if (listener == null) {
+            return parseResponse(request, executeCall(request, token), token, null, 0);
+        }
+
+        long started = System.nanoTime();
+        listener.onRequestStarted(request);
+        try {
+            return parseResponse(request, executeCall(request, token), token, listener,
+                    started);
+        } catch (IOException | InvalidRequestException | InvalidTokenException |
+                InsufficientScopeException | RuntimeException e) {
+            listener.onRequestFailed(request, e, System.nanoTime() - started);
+            throw e;
+        }
+    }
+
+    private Response executeCall(MethodRequest<?> request, AccessTokens.Key token)
+            throws IOException {
+
+        Call call = prepareCall(request, token);
+        long wait = acquirePermit(request, token);
+        if (wait > 0) {
+            sleep(wait, "interrupted while waiting for rate limiter");
+        }
+        return call.execute();
+    }
+
+    private static void sleep(long nanos, String interruptedMessage)
+            throws InterruptedIOException {
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(interruptedMessage);
+        }
+    }
+
+    private long acquirePermit(MethodRequest<?> request, AccessTokens.Key token)
+            throws RateLimitExceededException {
+        RateLimiter rateLimiter = client.getRateLimiter();
+        return rateLimiter == null ? 0 : rateLimiter.acquire(request, token);
+    }
+
+    private <T> void deliverFailure(final OnResponseReady<T> callback, final Exception e) {
+        Executor executor = client.getCallbackExecutor();
+        if (executor == null) {
+            callback.onFailure(e);
+        } else {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(e);
+                }
+            });
+        }
+    }
+
+    private <T> T parseResponse(MethodRequest<T> request, Response response, AccessTokens.Key token,
+                                ApiMetricsListener listener, long started)
+            throws IOException, InvalidRequestException, InvalidTokenException,
+            InsufficientScopeException {
+
+        long received = 0;
+        if (listener != null) {
+            received = System.nanoTime();
+            listener.onResponseReceived(request, response.code(), received - started);
+        }
+
         InputStream inputStream = null;
         try {
             switch (response.code()) {
                 case HttpURLConnection.HTTP_OK:
-                    inputStream = getInputStream(response);
+                    inputStream = root.getInputStream(response);
                     if (isJsonType(response)) {
-                        return request.parseResponse(inputStream);
+                        T result = request.parseResponse(inputStream);
+                        CredentialRegistry registry = client.getCredentialRegistry();
+                        if (registry != null) {
+                            registry.onResponse(token.accessToken, result);
+                        }
+                        if (listener != null) {
+                            long parsed = System.nanoTime();
+                            listener.onResponseParsed(request, parsed - received,
+                                    parsed - started);
+                        }
+                        return result;
                     } else {
                         Streams.readStreamToNull(inputStream);
-                        throw new IOException("Server has responded with a wrong content type");
+                        throw new UnexpectedResponseException(response.code(),
+                                "Server has responded with a wrong content type");
                     }
                 case HttpURLConnection.HTTP_BAD_REQUEST:
                     throw new InvalidRequestException(processError(response));
                 case HttpURLConnection.HTTP_UNAUTHORIZED:
+                    CredentialRegistry registry = client.getCredentialRegistry();
+                    if (registry != null) {
+                        registry.revoke(token.accessToken);
+                    }
                     throw new InvalidTokenException(processError(response));
                 case HttpURLConnection.HTTP_FORBIDDEN:
                     throw new InsufficientScopeException(processError(response));
                 default:
-                    throw new IOException(processError(response));
+                    throw new UnexpectedResponseException(response.code(),
+                            processError(response));
             }
         } finally {
             if (inputStream != null) {
@@ -195,4 +659,63 @@ public class OAuth2Session extends AbstractSession {
         String field = response.header(HttpHeaders.CONTENT_TYPE);
         return field != null && field.startsWith(MimeTypes.Application.JSON);
     }
+
+    /**
+     * Executes a request with retries. Each attempt is a new call, so the future is updated with
+     * it to be able to cancel it.
+     */
+    private final class RetryingCall<T> implements OnResponseReady<T> {
+
+        private final MethodRequest<T> request;
+        private final AccessTokens.Key token;
+        private final ResponseFuture<T> future;
+        private final RetryPolicy retryPolicy;
+
+        private volatile int attempts;
+
+        RetryingCall(MethodRequest<T> request, AccessTokens.Key token, ResponseFuture<T> future,
+                     RetryPolicy retryPolicy) {
+            this.request = request;
+            this.token = token;
+            this.future = future;
+            this.retryPolicy = retryPolicy;
+        }
+
+        void start() {
+            ++attempts;
+            try {
+                future.setCall(enqueue(request, this, token));
+            } catch (IOException e) {
+                onFailure(e);
+            }
+        }
+
+        @Override
+        public void onResponse(T response) {
+            future.onResponse(response);
+        }
+
+        @Override
+        public void onFailure(Exception exception) {
+            if (future.isDone()) {
+                return;
+            }
+
+            long delay = retryPolicy.isTransient(exception) ?
+                    retryPolicy.getRetryDelay(request, attempts) : -1;
+            if (delay < 0) {
+                future.onFailure(exception);
+                return;
+            }
+
+            Threads.getScheduler().schedule(new Runnable() {
+                @Override
+                public void run() {
+                    if (!future.isDone()) {
+                        start();
+                    }
+                }
+            }, delay, TimeUnit.MILLISECONDS);
+        }
+    }
 }
@@ -26,6 +26,8 @@ package com.yandex.money.api.net;
 
 import com.squareup.okhttp.MediaType;
 import com.squareup.okhttp.RequestBody;
+import com.yandex.money.api.model.Amount;
+import com.yandex.money.api.utils.DateTimes;
 import com.yandex.money.api.utils.HttpHeaders;
 import com.yandex.money.api.utils.MimeTypes;
 import com.yandex.money.api.utils.Streams;
@@ -37,12 +39,12 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
-import java.io.UnsupportedEncodingException;
 import java.math.BigDecimal;
 import java.net.HttpURLConnection;
 import java.net.ProtocolException;
 import java.net.URLEncoder;
 import java.nio.charset.Charset;
+import java.util.Arrays;
 import java.util.Map;
 
 /**
@@ -55,7 +57,35 @@ public class PostRequestBodyBuffer extends ByteArrayOutputStream {
     private static final byte[] POST_PARAM_DELIMITER = "&".getBytes(REQUEST_CHARSET_UTF8);
     private static final byte[] POST_PARAM_NV_DELIMITER = "=".getBytes(REQUEST_CHARSET_UTF8);
 
+    private static final int INITIAL_CAPACITY = 256;
+    private static final byte[] HEX_DIGITS = "0123456789ABCDEF".getBytes(REQUEST_CHARSET_UTF8);
+
+    /**
+     * Characters that are not encoded by {@link URLEncoder}.
+     */
+    private static final boolean[] UNRESERVED = new boolean[128];
+    static {
+        for (char c = 'a'; c <= 'z'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = 'A'; c <= 'Z'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        for (char c = '0'; c <= '9'; ++c) {
+            UNRESERVED[c] = true;
+        }
+        UNRESERVED['-'] = true;
+        UNRESERVED['_'] = true;
+        UNRESERVED['.'] = true;
+        UNRESERVED['*'] = true;
+    }
+
     private String contentType = MimeTypes.Application.X_WWW_FORM_URLENCODED;
+    private char[] amountChars;
+
+    public PostRequestBodyBuffer() {
+        super(INITIAL_CAPACITY);
+    }
 
     /**
      * Adds not null int parameter to buffer.
@@ -74,19 +104,19 @@ public class PostRequestBodyBuffer extends ByteArrayOutputStream {
      * @param value its value
      */
     public PostRequestBodyBuffer addParam(String name, String value) {
+        if (name == null) {
+            throw new NullPointerException("name is null");
+        }
         if (value == null) {
             value = "";
         }
-        try {
-            return addParamWithoutURLEncoding(
-                    URLEncoder.encode(name, REQUEST_CHARSET_UTF8.name())
-                            .getBytes(REQUEST_CHARSET_UTF8),
-                    URLEncoder.encode(value, REQUEST_CHARSET_UTF8.name())
-                            .replace("+", "%20")
-                            .getBytes(REQUEST_CHARSET_UTF8));
-        } catch (UnsupportedEncodingException e) {
-            throw new IllegalStateException(e.getMessage(), e);
+        if (count > 0) {
+            append('&');
         }
+        encode(name, true);
+        append('=');
+        encode(value, false);
+        return this;
     }
 
     /**
@@ -145,6 +175,36 @@ public class PostRequestBodyBuffer extends ByteArrayOutputStream {
         return value != null ? addParam(name, value.toPlainString()) : this;
     }
 
+    /**
+     * Adds nullable Amount parameter to buffer. Amount is written without creating a string.
+     *
+     * @param name name of parameter
+     * @param value its value
+     */
+    public PostRequestBodyBuffer addParamIfNotNull(String name, Amount value) {
+        if (value == null) {
+            return this;
+        }
+        if (name == null) {
+            throw new NullPointerException("name is null");
+        }
+        if (amountChars == null) {
+            amountChars = new char[Amount.MAX_LENGTH];
+        }
+        int start = value.getChars(amountChars);
+        if (count > 0) {
+            append('&');
+        }
+        encode(name, true);
+        append('=');
+        // digits, sign and decimal separator are not encoded
+        ensureCapacity(count + Amount.MAX_LENGTH - start);
+        for (int i = start; i < Amount.MAX_LENGTH; ++i) {
+            buf[count++] = (byte) amountChars[i];
+        }
+        return this;
+    }
+
     /**
      * Adds nullable DateTime parameter to buffer.
      *
@@ -153,7 +213,7 @@ public class PostRequestBodyBuffer extends ByteArrayOutputStream {
      */
     public PostRequestBodyBuffer addDateTimeIfNotNull(String name, DateTime value) {
         if (value != null) {
-            return addParam(name, value.toString());
+            return addParam(name, DateTimes.format(value));
         }
         else return this;
     }
@@ -243,4 +303,59 @@ public class PostRequestBodyBuffer extends ByteArrayOutputStream {
     public RequestBody getRequestBody() {
         return RequestBody.create(MediaType.parse(contentType), buf, 0, count);
     }
+
+    /**
+     * Writes UTF-8 percent-encoded string directly to buffer. Output is the same as of
+     * {@link URLEncoder#encode(String, String)} with UTF-8 charset except for space character
+     * which is written as {@code +} if {@code spaceAsPlus} is set and as {@code %20} otherwise.
+     */
+    private void encode(String s, boolean spaceAsPlus) {
+        for (int i = 0, length = s.length(); i < length; ++i) {
+            ensureCapacity(count + 12);
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                if (UNRESERVED[c]) {
+                    buf[count++] = (byte) c;
+                } else if (c == ' ' && spaceAsPlus) {
+                    buf[count++] = '+';
+                } else {
+                    appendEncoded(c);
+                }
+            } else if (c < 0x800) {
+                appendEncoded(0xc0 | (c >> 6));
+                appendEncoded(0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length &&
+                    Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                appendEncoded(0xf0 | (codePoint >> 18));
+                appendEncoded(0x80 | ((codePoint >> 12) & 0x3f));
+                appendEncoded(0x80 | ((codePoint >> 6) & 0x3f));
+                appendEncoded(0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                // unpaired surrogate is replaced the same way String.getBytes() does
+                appendEncoded('?');
+            } else {
+                appendEncoded(0xe0 | (c >> 12));
+                appendEncoded(0x80 | ((c >> 6) & 0x3f));
+                appendEncoded(0x80 | (c & 0x3f));
+            }
+        }
+    }
+
+    private void appendEncoded(int b) {
+        buf[count++] = '%';
+        buf[count++] = HEX_DIGITS[(b >> 4) & 0xf];
+        buf[count++] = HEX_DIGITS[b & 0xf];
+    }
+
+    private void append(char c) {
+        ensureCapacity(count + 1);
+        buf[count++] = (byte) c;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buf.length) {
+            buf = Arrays.copyOf(buf, Math.max(buf.length << 1, capacity));
+        }
+    }
 }
@@ -0,0 +1,287 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import com.yandex.money.api.exceptions.RateLimitExceededException;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Client-side rate limiter. Limits are set per {@link MethodRequest} class and apply to each
+ * access token separately. Install it with
+ * {@link DefaultApiClient.Builder#setRateLimiter(RateLimiter)}.
+ * <p/>
+ * If a request exceeds its limit it is either delayed (up to {@link Builder#setMaxWait}) or
+ * rejected with {@link RateLimitExceededException} before it leaves the process. Buckets are
+ * lock-free and keyed by a hash of access token. Buckets that are refilled to full are
+ * indistinguishable from new ones, so they are evicted when the number of buckets grows.
+ */
+public class RateLimiter {
+
+    private static final String NO_TOKEN = "";
+    private static final int SWEEP_THRESHOLD = 1024;
+
+    private final Map<Class<?>, Limit> limits;
+    private final Limit defaultLimit;
+    private final long maxWait;
+
+    private final ConcurrentMap<Class<?>, Buckets> buckets = new ConcurrentHashMap<>();
+
+    protected RateLimiter(Builder builder) {
+        limits = Collections.unmodifiableMap(new HashMap<>(builder.limits));
+        defaultLimit = builder.defaultLimit;
+        maxWait = builder.maxWait;
+    }
+
+    /**
+     * Acquires a permit to send a request.
+     *
+     * @param request the request
+     * @param accessToken access token used with the request, can be {@code null}
+     * @return time in nanoseconds the request should be delayed for
+     * @throws RateLimitExceededException if request should be delayed longer than allowed
+     */
+    public long acquire(MethodRequest<?> request, String accessToken)
+            throws RateLimitExceededException {
+        return acquire(request, new AccessTokens.Key(accessToken));
+    }
+
+    long acquire(MethodRequest<?> request, AccessTokens.Key token)
+            throws RateLimitExceededException {
+
+        Class<?> type = request.getClass();
+        Limit limit = limits.get(type);
+        if (limit == null) {
+            limit = defaultLimit;
+            if (limit == null) {
+                return 0;
+            }
+        }
+
+        long wait = getBucket(type, token, limit).reserve(maxWait);
+        if (wait < 0) {
+            throw new RateLimitExceededException("rate limit exceeded for " +
+                    type.getName());
+        }
+        return wait;
+    }
+
+    /**
+     * @return number of buckets kept including full ones that are not evicted yet
+     */
+    public int size() {
+        int size = 0;
+        for (Buckets typeBuckets : buckets.values()) {
+            size += typeBuckets.map.size();
+        }
+        return size;
+    }
+
+    private Bucket getBucket(Class<?> type, AccessTokens.Key token, Limit limit) {
+        Buckets typeBuckets = buckets.get(type);
+        if (typeBuckets == null) {
+            typeBuckets = new Buckets();
+            Buckets previous = buckets.putIfAbsent(type, typeBuckets);
+            if (previous != null) {
+                typeBuckets = previous;
+            }
+        }
+
+        String key = token.accessToken == null ? NO_TOKEN : token.hash();
+        Bucket bucket = typeBuckets.map.get(key);
+        if (bucket == null) {
+            bucket = new Bucket(limit);
+            Bucket previous = typeBuckets.map.putIfAbsent(key, bucket);
+            if (previous == null) {
+                typeBuckets.sweep(bucket);
+            } else {
+                bucket = previous;
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Creates {@link RateLimiter}.
+     */
+    public static class Builder {
+
+        private final Map<Class<?>, Limit> limits = new HashMap<>();
+
+        private Limit defaultLimit;
+        private long maxWait;
+
+        /**
+         * Sets limit for a type of requests.
+         *
+         * @param requestType type of requests
+         * @param permits number of requests allowed per period, they can be sent in a burst
+         * @param period period
+         * @param unit time unit of period
+         */
+        public Builder setLimit(Class<? extends MethodRequest<?>> requestType, int permits,
+                                long period, TimeUnit unit) {
+
+            if (requestType == null) {
+                throw new NullPointerException("requestType is null");
+            }
+            limits.put(requestType, new Limit(permits, period, unit));
+            return this;
+        }
+
+        /**
+         * Sets limit for types of requests that have no specific limit set. By default such
+         * requests are not limited.
+         *
+         * @param permits number of requests allowed per period, they can be sent in a burst
+         * @param period period
+         * @param unit time unit of period
+         */
+        public Builder setDefaultLimit(int permits, long period, TimeUnit unit) {
+            defaultLimit = new Limit(permits, period, unit);
+            return this;
+        }
+
+        /**
+         * Sets maximum time a request can be delayed for. If it is 0 (by default) requests that
+         * exceed limit are rejected immediately.
+         *
+         * @param maxWait maximum delay
+         * @param unit time unit
+         */
+        public Builder setMaxWait(long maxWait, TimeUnit unit) {
+            if (maxWait < 0) {
+                throw new IllegalArgumentException("maxWait is negative");
+            }
+            this.maxWait = unit.toNanos(maxWait);
+            return this;
+        }
+
+        /**
+         * @return {@link RateLimiter}
+         */
+        public RateLimiter create() {
+            return new RateLimiter(this);
+        }
+    }
+
+    private static final class Limit {
+
+        final long interval;
+        final long tolerance;
+
+        Limit(int permits, long period, TimeUnit unit) {
+            if (permits < 1) {
+                throw new IllegalArgumentException("permits should be positive");
+            }
+            if (period < 1) {
+                throw new IllegalArgumentException("period should be positive");
+            }
+            interval = Math.max(1, unit.toNanos(period) / permits);
+            tolerance = interval * (permits - 1);
+        }
+    }
+
+    /**
+     * Buckets of a type of requests.
+     */
+    private static final class Buckets {
+
+        final ConcurrentMap<String, Bucket> map = new ConcurrentHashMap<>();
+        final AtomicInteger sweepAt = new AtomicInteger(SWEEP_THRESHOLD);
+
+        /**
+         * Evicts full buckets if there are too many of them. The threshold is doubled relative to
+         * the number of remaining buckets, so sweeps are amortized over insertions.
+         *
+         * @param added just added bucket, it is kept
+         */
+        void sweep(Bucket added) {
+            int threshold = sweepAt.get();
+            if (map.size() < threshold ||
+                    !sweepAt.compareAndSet(threshold, Integer.MAX_VALUE)) {
+                return;
+            }
+
+            long now = System.nanoTime();
+            Iterator<Bucket> iterator = map.values().iterator();
+            while (iterator.hasNext()) {
+                Bucket bucket = iterator.next();
+                // a request may be reserving on an evicted bucket concurrently, the worst case
+                // is one extra permit for its token
+                if (bucket != added && bucket.isFull(now)) {
+                    iterator.remove();
+                }
+            }
+            sweepAt.set(Math.max(SWEEP_THRESHOLD, map.size() * 2));
+        }
+    }
+
+    /**
+     * Token bucket implemented as generic cell rate algorithm: state is a single theoretical
+     * arrival time of the next request.
+     */
+    private static final class Bucket {
+
+        final Limit limit;
+        final AtomicLong arrival = new AtomicLong(Long.MIN_VALUE);
+
+        Bucket(Limit limit) {
+            this.limit = limit;
+        }
+
+        /**
+         * @return delay in nanoseconds or -1 if delay exceeds maxWait
+         */
+        long reserve(long maxWait) {
+            while (true) {
+                long now = System.nanoTime();
+                long expected = arrival.get();
+                long base = Math.max(expected, now);
+                long wait = Math.max(0, base - now - limit.tolerance);
+                if (wait > maxWait) {
+                    return -1;
+                }
+                if (arrival.compareAndSet(expected, base + limit.interval)) {
+                    return wait;
+                }
+            }
+        }
+
+        /**
+         * @return {@code true} if all permits are available
+         */
+        boolean isFull(long now) {
+            return arrival.get() <= now;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.methods.OperationHistory;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Identity of a request: type, URL, parameters and a token it is executed with.
+ */
+final class RequestKey {
+
+    /**
+     * Types of requests that do not change state, so their responses can be shared.
+     */
+    static final Set<Class<?>> READ_ONLY_TYPES;
+    static {
+        Set<Class<?>> types = new HashSet<>();
+        types.add(AccountInfo.Request.class);
+        types.add(OperationDetails.Request.class);
+        types.add(OperationHistory.Request.class);
+        READ_ONLY_TYPES = Collections.unmodifiableSet(types);
+    }
+
+    final Class<?> type;
+    final String url;
+    final String token;
+    final byte[] parameters;
+
+    private final int hashCode;
+
+    private RequestKey(Class<?> type, String url, String token, byte[] parameters) {
+        this.type = type;
+        this.url = url;
+        this.token = token;
+        this.parameters = parameters;
+        this.hashCode = 31 * (31 * (31 * type.hashCode() + url.hashCode()) +
+                (token == null ? 0 : token.hashCode())) + Arrays.hashCode(parameters);
+    }
+
+    /**
+     * Creates key for a request.
+     *
+     * @param request the request
+     * @param hostsProvider hosts provider used to build request URL
+     * @param token access token or its substitute, can be {@code null}
+     * @return key
+     */
+    static RequestKey create(MethodRequest<?> request, HostsProvider hostsProvider, String token)
+            throws IOException {
+
+        PostRequestBodyBuffer parameters = request.buildParameters();
+        return new RequestKey(request.getClass(), request.requestURL(hostsProvider).toString(),
+                token, parameters == null ? null : parameters.toByteArray());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RequestKey)) {
+            return false;
+        }
+        RequestKey that = (RequestKey) o;
+        return hashCode == that.hashCode && type == that.type && url.equals(that.url) &&
+                (token == null ? that.token == null : token.equals(that.token)) &&
+                Arrays.equals(parameters, that.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.model.Operation;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-process cache of responses to read-only requests. Entries live for a time set per
+ * {@link MethodRequest} class, the least recently used entries are evicted when the cache is
+ * full. Install it with {@link DefaultApiClient.Builder#setResponseCache(ResponseCache)}.
+ * <p/>
+ * Entries are keyed by request and a hash of access token, so tokens are not kept in memory.
+ * Each invalidation bumps a generation of its access token, responses to requests started
+ * before it are not put to cache (see {@link #getGeneration(String)}).
+ * Details of a successful operation never change, so they live for
+ * {@link Builder#setCompletedOperationTtl(long, TimeUnit)}. Responses with errors are not cached.
+ */
+public class ResponseCache {
+
+    // generations are striped by token hash, so memory is bounded; collisions only make
+    // some responses not cached
+    private static final int GENERATION_STRIPES = 64;
+
+    private final Map<Class<?>, Long> ttls;
+    private final long completedOperationTtl;
+    private final int maxSize;
+    private final LinkedHashMap<RequestKey, CachedResponse> entries;
+    private final long[] generations = new long[GENERATION_STRIPES];
+
+    protected ResponseCache(Builder builder) {
+        ttls = Collections.unmodifiableMap(new HashMap<>(builder.ttls));
+        completedOperationTtl = builder.completedOperationTtl;
+        maxSize = builder.maxSize;
+        entries = new LinkedHashMap<RequestKey, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RequestKey, CachedResponse> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Checks if responses to a request can be cached.
+     *
+     * @param request the request
+     * @return {@code true} if cacheable
+     */
+    public boolean isCacheable(MethodRequest<?> request) {
+        return ttls.containsKey(request.getClass());
+    }
+
+    /**
+     * Gets cached response.
+     *
+     * @param request the request
+     * @param hostsProvider hosts provider used to execute the request
+     * @param accessToken access token used with the request, can be {@code null}
+     * @param <T> response type
+     * @return response or {@code null} if there is no fresh response
+     */
+    public <T> T get(MethodRequest<T> request, HostsProvider hostsProvider, String accessToken)
+            throws IOException {
+        return get(request, hostsProvider, new AccessTokens.Key(accessToken));
+    }
+
+    <T> T get(MethodRequest<T> request, HostsProvider hostsProvider, AccessTokens.Key token)
+            throws IOException {
+
+        if (!isCacheable(request)) {
+            return null;
+        }
+
+        RequestKey key = RequestKey.create(request, hostsProvider, token.hash());
+        synchronized (entries) {
+            CachedResponse entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expires - System.nanoTime() <= 0) {
+                entries.remove(key);
+                return null;
+            }
+            @SuppressWarnings("unchecked")
+            T response = (T) entry.response;
+            return response;
+        }
+    }
+
+    /**
+     * Gets current generation of cached responses of an access token. It should be obtained
+     * before a request is sent and passed to
+     * {@link #put(MethodRequest, HostsProvider, String, Object, long)}.
+     *
+     * @param accessToken access token used with the request, can be {@code null}
+     * @return generation
+     */
+    public long getGeneration(String accessToken) {
+        return getGeneration(new AccessTokens.Key(accessToken));
+    }
+
+    long getGeneration(AccessTokens.Key token) {
+        int stripe = getStripe(token.hash());
+        synchronized (entries) {
+            return generations[stripe];
+        }
+    }
+
+    /**
+     * Puts a response to cache. Does nothing if the request is not cacheable or responses of the
+     * access token were invalidated since the generation was obtained.
+     *
+     * @param request the request
+     * @param hostsProvider hosts provider used to execute the request
+     * @param accessToken access token used with the request, can be {@code null}
+     * @param response the response
+     * @param generation generation obtained with {@link #getGeneration(String)} before the
+     *                   request was sent
+     * @param <T> response type
+     * @return {@code true} if response is cached
+     */
+    public <T> boolean put(MethodRequest<T> request, HostsProvider hostsProvider,
+                           String accessToken, T response, long generation) throws IOException {
+        return put(request, hostsProvider, new AccessTokens.Key(accessToken), response,
+                generation);
+    }
+
+    <T> boolean put(MethodRequest<T> request, HostsProvider hostsProvider, AccessTokens.Key token,
+                    T response, long generation) throws IOException {
+
+        if (response == null) {
+            throw new NullPointerException("response is null");
+        }
+
+        Long ttl = ttls.get(request.getClass());
+        if (ttl == null) {
+            return false;
+        }
+        if (response instanceof OperationDetails) {
+            OperationDetails details = (OperationDetails) response;
+            if (details.error != null || details.operation == null) {
+                return false;
+            }
+            if (details.operation.status == Operation.Status.SUCCESS) {
+                ttl = completedOperationTtl;
+            }
+        }
+
+        String hash = token.hash();
+        RequestKey key = RequestKey.create(request, hostsProvider, hash);
+        CachedResponse entry = new CachedResponse(response, System.nanoTime() + ttl);
+        int stripe = getStripe(hash);
+        synchronized (entries) {
+            if (generations[stripe] != generation) {
+                // response may be stale
+                return false;
+            }
+            entries.put(key, entry);
+            return true;
+        }
+    }
+
+    /**
+     * Removes cached responses of a type of requests executed with an access token. Responses to
+     * requests that are in flight are not cached.
+     *
+     * @param requestType type of requests
+     * @param accessToken access token, can be {@code null}
+     */
+    public void invalidate(Class<? extends MethodRequest<?>> requestType, String accessToken) {
+        invalidate(requestType, new AccessTokens.Key(accessToken));
+    }
+
+    void invalidate(Class<? extends MethodRequest<?>> requestType, AccessTokens.Key token) {
+        if (requestType == null) {
+            throw new NullPointerException("requestType is null");
+        }
+
+        String hash = token.hash();
+        int stripe = getStripe(hash);
+        synchronized (entries) {
+            ++generations[stripe];
+            Iterator<RequestKey> iterator = entries.keySet().iterator();
+            while (iterator.hasNext()) {
+                RequestKey key = iterator.next();
+                if (key.type == requestType &&
+                        (hash == null ? key.token == null : hash.equals(key.token))) {
+                    iterator.remove();
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all cached responses.
+     */
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    /**
+     * @return number of cached responses including expired ones
+     */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static int getStripe(String hash) {
+        return hash == null ? 0 : (hash.hashCode() & Integer.MAX_VALUE) % GENERATION_STRIPES;
+    }
+
+    /**
+     * Creates {@link ResponseCache}. By default {@link AccountInfo} and {@link OperationDetails}
+     * live for 30 seconds, details of successful operations for an hour, cache holds up to 1000
+     * responses.
+     */
+    public static class Builder {
+
+        private final Map<Class<?>, Long> ttls = new HashMap<>();
+
+        private long completedOperationTtl = TimeUnit.HOURS.toNanos(1);
+        private int maxSize = 1000;
+
+        public Builder() {
+            ttls.put(AccountInfo.Request.class, TimeUnit.SECONDS.toNanos(30));
+            ttls.put(OperationDetails.Request.class, TimeUnit.SECONDS.toNanos(30));
+        }
+
+        /**
+         * Sets time to live for responses of a type of requests. Only read-only requests can
+         * be cached.
+         *
+         * @param requestType type of requests
+         * @param ttl time to live, 0 disables caching
+         * @param unit time unit
+         */
+        public Builder setTtl(Class<? extends MethodRequest<?>> requestType, long ttl,
+                              TimeUnit unit) {
+
+            if (requestType == null) {
+                throw new NullPointerException("requestType is null");
+            }
+            if (!RequestKey.READ_ONLY_TYPES.contains(requestType)) {
+                throw new IllegalArgumentException(requestType.getName() + " is not read-only");
+            }
+            long nanos = toNanos(ttl, unit);
+            if (nanos == 0) {
+                ttls.remove(requestType);
+            } else {
+                ttls.put(requestType, nanos);
+            }
+            return this;
+        }
+
+        /**
+         * Sets time to live for details of successful operations.
+         *
+         * @param ttl time to live
+         * @param unit time unit
+         */
+        public Builder setCompletedOperationTtl(long ttl, TimeUnit unit) {
+            completedOperationTtl = toNanos(ttl, unit);
+            return this;
+        }
+
+        /**
+         * @param maxSize maximum number of cached responses
+         */
+        public Builder setMaxSize(int maxSize) {
+            if (maxSize < 1) {
+                throw new IllegalArgumentException("maxSize should be positive");
+            }
+            this.maxSize = maxSize;
+            return this;
+        }
+
+        /**
+         * @return {@link ResponseCache}
+         */
+        public ResponseCache create() {
+            return new ResponseCache(this);
+        }
+
+        private static long toNanos(long value, TimeUnit unit) {
+            if (value < 0) {
+                throw new IllegalArgumentException("value is negative");
+            }
+            if (unit == null) {
+                throw new NullPointerException("unit is null");
+            }
+            return unit.toNanos(value);
+        }
+    }
+
+    private static final class CachedResponse {
+
+        final Object response;
+        final long expires;
+
+        CachedResponse(Object response, long expires) {
+            this.response = response;
+            this.expires = expires;
+        }
+    }
+}
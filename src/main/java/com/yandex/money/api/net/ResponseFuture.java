@@ -0,0 +1,352 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.api.net;
+
+import com.squareup.okhttp.Call;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Result of asynchronous execution of a request.
+ * <p/>
+ * Callbacks added with {@link #addCallback(OnResponseReady)} are called once the future is
+ * done, on the thread that completes it (usually OkHttp's dispatcher thread), or immediately if
+ * the future is already done. An exception thrown by a callback is logged and does not affect
+ * other callbacks. Cancelled future notifies its callbacks with
+ * {@link CancellationException}.
+ * <p/>
+ * Cancellation is propagated to the underlying {@link Call} and to the futures this one depends
+ * on (see {@link #thenCompose(Continuation)} and {@link #allOf(List)}).
+ *
+ * @param <T> response type
+ */
+public class ResponseFuture<T> implements Future<T>, OnResponseReady<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(ResponseFuture.class.getName());
+
+    private final Object lock = new Object();
+    private final List<OnResponseReady<T>> callbacks = new ArrayList<>();
+    private final List<ResponseFuture<?>> sources = new ArrayList<>();
+
+    private boolean done;
+    private boolean cancelled;
+    private T response;
+    private Exception exception;
+    private Call call;
+
+    /**
+     * Creates future that succeeded with a response.
+     *
+     * @param response the response
+     * @return completed future
+     */
+    public static <T> ResponseFuture<T> completed(T response) {
+        ResponseFuture<T> future = new ResponseFuture<>();
+        future.onResponse(response);
+        return future;
+    }
+
+    /**
+     * Creates future that completes when all futures from a list are succeeded or when any of
+     * them fails.
+     *
+     * @param futures list of futures
+     * @return future with list of responses in the same order
+     */
+    public static <T> ResponseFuture<List<T>> allOf(List<ResponseFuture<T>> futures) {
+        if (futures == null) {
+            throw new NullPointerException("futures is null");
+        }
+
+        final ResponseFuture<List<T>> result = new ResponseFuture<>();
+        final int size = futures.size();
+        if (size == 0) {
+            result.onResponse(Collections.<T>emptyList());
+            return result;
+        }
+
+        final List<T> responses = new ArrayList<>(Collections.<T>nCopies(size, null));
+        final AtomicInteger remaining = new AtomicInteger(size);
+        for (int i = 0; i < size; ++i) {
+            final int index = i;
+            ResponseFuture<T> future = futures.get(i);
+            result.addSource(future);
+            future.addCallback(new OnResponseReady<T>() {
+                @Override
+                public void onFailure(Exception exception) {
+                    result.onFailure(exception);
+                }
+
+                @Override
+                public void onResponse(T response) {
+                    synchronized (responses) {
+                        responses.set(index, response);
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        synchronized (responses) {
+                            result.onResponse(Collections.unmodifiableList(responses));
+                        }
+                    }
+                }
+            });
+        }
+        return result;
+    }
+
+    /**
+     * Adds a callback.
+     *
+     * @param callback the callback
+     * @return this future
+     */
+    public ResponseFuture<T> addCallback(OnResponseReady<T> callback) {
+        if (callback == null) {
+            throw new NullPointerException("callback is null");
+        }
+        synchronized (lock) {
+            if (!done) {
+                callbacks.add(callback);
+                return this;
+            }
+        }
+        dispatch(callback);
+        return this;
+    }
+
+    /**
+     * Chains asynchronous operation that depends on a response of this future.
+     *
+     * @param continuation creates next future using a response
+     * @param <R> response type of next future
+     * @return future that completes with a result of the future created by continuation
+     */
+    public <R> ResponseFuture<R> thenCompose(final Continuation<? super T, R> continuation) {
+        if (continuation == null) {
+            throw new NullPointerException("continuation is null");
+        }
+
+        final ResponseFuture<R> result = new ResponseFuture<>();
+        result.addSource(this);
+        addCallback(new OnResponseReady<T>() {
+            @Override
+            public void onFailure(Exception exception) {
+                result.onFailure(exception);
+            }
+
+            @Override
+            public void onResponse(T response) {
+                try {
+                    ResponseFuture<R> next = continuation.then(response);
+                    result.addSource(next);
+                    next.addCallback(result);
+                } catch (Exception e) {
+                    result.onFailure(e);
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Completes the future with a response. Does nothing if the future is already done.
+     *
+     * @param response the response
+     */
+    @Override
+    public void onResponse(T response) {
+        complete(response, null, false);
+    }
+
+    /**
+     * Completes the future with an exception. Does nothing if the future is already done.
+     *
+     * @param exception the exception
+     */
+    @Override
+    public void onFailure(Exception exception) {
+        if (exception == null) {
+            throw new NullPointerException("exception is null");
+        }
+        complete(null, exception, false);
+    }
+
+    /**
+     * Sets a call that will be cancelled along with this future. If the future is already
+     * cancelled the call is cancelled immediately.
+     *
+     * @param call the call
+     */
+    public void setCall(Call call) {
+        boolean cancel;
+        synchronized (lock) {
+            this.call = call;
+            cancel = cancelled;
+        }
+        if (cancel && call != null) {
+            call.cancel();
+        }
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (!complete(null, new CancellationException(), true)) {
+            return false;
+        }
+
+        Call call;
+        List<ResponseFuture<?>> sources;
+        synchronized (lock) {
+            call = this.call;
+            sources = new ArrayList<>(this.sources);
+        }
+        if (call != null) {
+            call.cancel();
+        }
+        for (ResponseFuture<?> source : sources) {
+            source.cancel(mayInterruptIfRunning);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        synchronized (lock) {
+            return cancelled;
+        }
+    }
+
+    @Override
+    public boolean isDone() {
+        synchronized (lock) {
+            return done;
+        }
+    }
+
+    @Override
+    public T get() throws InterruptedException, ExecutionException {
+        synchronized (lock) {
+            while (!done) {
+                lock.wait();
+            }
+            return getResult();
+        }
+    }
+
+    @Override
+    public T get(long timeout, TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (lock) {
+            while (!done) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    throw new TimeoutException();
+                }
+                TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+            }
+            return getResult();
+        }
+    }
+
+    private void addSource(ResponseFuture<?> source) {
+        boolean cancel;
+        synchronized (lock) {
+            sources.add(source);
+            cancel = cancelled;
+        }
+        if (cancel) {
+            source.cancel(false);
+        }
+    }
+
+    private boolean complete(T response, Exception exception, boolean cancelled) {
+        List<OnResponseReady<T>> callbacks;
+        synchronized (lock) {
+            if (done) {
+                return false;
+            }
+            this.done = true;
+            this.cancelled = cancelled;
+            this.response = response;
+            this.exception = exception;
+            callbacks = new ArrayList<>(this.callbacks);
+            this.callbacks.clear();
+            lock.notifyAll();
+        }
+        for (OnResponseReady<T> callback : callbacks) {
+            // a failing callback must not prevent others from being notified
+            try {
+                dispatch(callback);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "callback has thrown an exception", e);
+            }
+        }
+        return true;
+    }
+
+    private void dispatch(OnResponseReady<T> callback) {
+        // fields are not changed after completion
+        if (exception == null) {
+            callback.onResponse(response);
+        } else {
+            callback.onFailure(exception);
+        }
+    }
+
+    private T getResult() throws ExecutionException {
+        if (cancelled) {
+            throw (CancellationException) exception;
+        }
+        if (exception != null) {
+            throw new ExecutionException(exception);
+        }
+        return response;
+    }
+
+    /**
+     * Creates next asynchronous operation using a response of a previous one.
+     *
+     * @param <T> response type of previous operation
+     * @param <R> response type of next operation
+     */
+    public interface Continuation<T, R> {
+        /**
+         * @param response response of previous operation
+         * @return future of next operation
+         */
+        ResponseFuture<R> then(T response) throws Exception;
+    }
+}
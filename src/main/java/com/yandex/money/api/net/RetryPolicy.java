@@ -0,0 +1,243 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.net;
+
+import com.yandex.money.api.exceptions.RateLimitExceededException;
+import com.yandex.money.api.exceptions.UnexpectedResponseException;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.InstanceId;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.methods.ProcessExternalPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Retry policy for requests failed with network failures or 5xx responses. Install it with
+ * {@link DefaultApiClient.Builder#setRetryPolicy(RetryPolicy)}.
+ * <p/>
+ * By default read-only methods ({@link AccountInfo}, {@link OperationHistory},
+ * {@link OperationDetails}, {@link InstanceId}) and payment processing ({@link ProcessPayment},
+ * {@link ProcessExternalPayment}) are retried up to 3 attempts. Payment processing is safe to
+ * retry because the same request is re-sent with the same {@code request_id}, which the API
+ * handles idempotently. Other methods are not retried unless configured.
+ * <p/>
+ * Delays grow exponentially with jitter. Retries are limited by a budget: each request adds a
+ * fraction of a retry to it and each retry takes one, so retries can not multiply load during
+ * outages.
+ * <p/>
+ * Synchronous requests are retried on the calling thread, asynchronous ones are re-enqueued after
+ * a delay on a scheduler thread.
+ */
+public class RetryPolicy {
+
+    private static final long BUDGET_SCALE = 1000;
+
+    private final Map<Class<?>, Integer> maxAttempts;
+    private final int defaultMaxAttempts;
+    private final long initialBackoff;
+    private final long maxBackoff;
+    private final long budgetDeposit;
+    private final long budgetMax;
+
+    private final AtomicLong budget;
+
+    protected RetryPolicy(Builder builder) {
+        maxAttempts = Collections.unmodifiableMap(new HashMap<>(builder.maxAttempts));
+        defaultMaxAttempts = builder.defaultMaxAttempts;
+        initialBackoff = builder.initialBackoff;
+        maxBackoff = builder.maxBackoff;
+        budgetDeposit = (long) (builder.budgetRatio * BUDGET_SCALE);
+        budgetMax = builder.budgetMaxRetries * BUDGET_SCALE;
+        budget = new AtomicLong(budgetMax);
+    }
+
+    /**
+     * @param request the request
+     * @return {@code true} if request can be retried
+     */
+    public boolean isRetryable(MethodRequest<?> request) {
+        return getMaxAttempts(request) > 1;
+    }
+
+    /**
+     * Checks if a failure is transient: a network failure or a 5xx response. Requests rejected by
+     * {@link RateLimiter} and responses with other status codes are not retried.
+     *
+     * @param exception failure of a request
+     * @return {@code true} if failed request can be retried
+     */
+    public boolean isTransient(Exception exception) {
+        if (exception instanceof UnexpectedResponseException) {
+            return ((UnexpectedResponseException) exception).isServerError();
+        }
+        return exception instanceof IOException &&
+                !(exception instanceof RateLimitExceededException);
+    }
+
+    /**
+     * Registers new request in retry budget.
+     */
+    public void onRequest() {
+        while (true) {
+            long current = budget.get();
+            long updated = Math.min(budgetMax, current + budgetDeposit);
+            if (current == updated || budget.compareAndSet(current, updated)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gets delay before next attempt of failed request.
+     *
+     * @param request the request
+     * @param attempts number of attempts made
+     * @return delay in milliseconds or {@code -1} if request should not be retried
+     */
+    public long getRetryDelay(MethodRequest<?> request, int attempts) {
+        if (attempts >= getMaxAttempts(request) || !withdraw()) {
+            return -1;
+        }
+        long backoff = Math.min(maxBackoff, initialBackoff << Math.min(attempts - 1, 30));
+        long half = backoff / 2;
+        return half + ThreadLocalRandom.current().nextLong(half + 1);
+    }
+
+    private int getMaxAttempts(MethodRequest<?> request) {
+        Integer value = maxAttempts.get(request.getClass());
+        return value == null ? defaultMaxAttempts : value;
+    }
+
+    private boolean withdraw() {
+        while (true) {
+            long current = budget.get();
+            if (current < BUDGET_SCALE) {
+                return false;
+            }
+            if (budget.compareAndSet(current, current - BUDGET_SCALE)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Creates {@link RetryPolicy}.
+     */
+    public static class Builder {
+
+        private static final int DEFAULT_MAX_ATTEMPTS = 3;
+
+        private final Map<Class<?>, Integer> maxAttempts = new HashMap<>();
+
+        private int defaultMaxAttempts = 1;
+        private long initialBackoff = 100;
+        private long maxBackoff = 5000;
+        private double budgetRatio = 0.1;
+        private int budgetMaxRetries = 10;
+
+        public Builder() {
+            maxAttempts.put(AccountInfo.Request.class, DEFAULT_MAX_ATTEMPTS);
+            maxAttempts.put(OperationHistory.Request.class, DEFAULT_MAX_ATTEMPTS);
+            maxAttempts.put(OperationDetails.Request.class, DEFAULT_MAX_ATTEMPTS);
+            maxAttempts.put(InstanceId.Request.class, DEFAULT_MAX_ATTEMPTS);
+            maxAttempts.put(ProcessPayment.Request.class, DEFAULT_MAX_ATTEMPTS);
+            maxAttempts.put(ProcessExternalPayment.Request.class, DEFAULT_MAX_ATTEMPTS);
+        }
+
+        /**
+         * @param requestType type of request
+         * @param maxAttempts maximum number of attempts including the first one, 1 disables
+         *                    retries
+         */
+        public Builder setMaxAttempts(Class<? extends MethodRequest<?>> requestType,
+                                      int maxAttempts) {
+
+            if (requestType == null) {
+                throw new NullPointerException("requestType is null");
+            }
+            this.maxAttempts.put(requestType, checkMaxAttempts(maxAttempts));
+            return this;
+        }
+
+        /**
+         * @param maxAttempts maximum number of attempts for requests that have no specific
+         *                    value set, 1 by default
+         */
+        public Builder setDefaultMaxAttempts(int maxAttempts) {
+            this.defaultMaxAttempts = checkMaxAttempts(maxAttempts);
+            return this;
+        }
+
+        /**
+         * @param initialBackoff delay before the first retry, 100 ms by default
+         * @param maxBackoff maximum delay, 5 s by default
+         * @param unit time unit
+         */
+        public Builder setBackoff(long initialBackoff, long maxBackoff, TimeUnit unit) {
+            long initialMillis = unit.toMillis(initialBackoff);
+            long maxMillis = unit.toMillis(maxBackoff);
+            if (initialMillis < 1 || maxMillis < initialMillis) {
+                throw new IllegalArgumentException("illegal backoff, it should be at least 1 ms");
+            }
+            this.initialBackoff = initialMillis;
+            this.maxBackoff = maxMillis;
+            return this;
+        }
+
+        /**
+         * @param ratio fraction of a retry each request adds to budget, 0.1 by default
+         * @param maxRetries maximum number of retries in budget, 10 by default
+         */
+        public Builder setBudget(double ratio, int maxRetries) {
+            if (ratio < 0 || maxRetries < 0) {
+                throw new IllegalArgumentException("illegal budget");
+            }
+            this.budgetRatio = ratio;
+            this.budgetMaxRetries = maxRetries;
+            return this;
+        }
+
+        /**
+         * @return {@link RetryPolicy}
+         */
+        public RetryPolicy create() {
+            return new RetryPolicy(this);
+        }
+
+        private static int checkMaxAttempts(int maxAttempts) {
+            if (maxAttempts < 1) {
+                throw new IllegalArgumentException("maxAttempts should be positive");
+            }
+            return maxAttempts;
+        }
+    }
+}
@@ -25,15 +25,19 @@
 package com.yandex.money.api.processes;
 
 import com.squareup.okhttp.Call;
+import com.yandex.money.api.methods.AccountInfo;
 import com.yandex.money.api.methods.BaseProcessPayment;
 import com.yandex.money.api.methods.BaseRequestPayment;
 import com.yandex.money.api.net.MethodRequest;
 import com.yandex.money.api.net.OAuth2Session;
 import com.yandex.money.api.net.OnResponseReady;
+import com.yandex.money.api.net.ResponseFuture;
 import com.yandex.money.api.utils.MillisecondsIn;
 import com.yandex.money.api.utils.Threads;
 
 import java.io.IOException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Base implementation for all payment processes.
@@ -55,6 +59,7 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
     private RP requestPayment;
     private PP processPayment;
     private Callbacks<RP, PP> callbacks;
+    private ScheduledExecutorService scheduler;
     private State state;
 
     /**
@@ -139,6 +144,51 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
         }
     }
 
+    /**
+     * Requests payment asynchronously. This is the first step of the process, it can also be used
+     * to repeat the request. Callbacks are not required.
+     *
+     * @return future of request payment
+     */
+    public final ResponseFuture<RP> requestPaymentAsync() {
+        ResponseFuture<RP> future = new ResponseFuture<>();
+        try {
+            future.setCall(enqueueRequestPayment(future));
+        } catch (IOException e) {
+            future.onFailure(e);
+        }
+        return future;
+    }
+
+    /**
+     * Processes payment asynchronously. Requests are repeated while payment is in progress, the
+     * future completes when payment is completed or external authorization is required.
+     * Cancellation of the future stops repeating. Callbacks are not required.
+     *
+     * @return future of process payment
+     * @throws IllegalStateException if payment was not requested
+     */
+    public final ResponseFuture<PP> processPaymentAsync() {
+        MethodRequest<PP> request;
+        switch (state) {
+            case CREATED:
+                throw new IllegalStateException("payment is not requested");
+            case STARTED:
+                request = createProcessPayment();
+                break;
+            default:
+                request = createRepeatProcessPayment();
+        }
+
+        ResponseFuture<PP> future = new ResponseFuture<>();
+        try {
+            future.setCall(enqueueProcessPayment(request, future, future));
+        } catch (IOException e) {
+            future.onFailure(e);
+        }
+        return future;
+    }
+
     @Override
     public final void reset() {
         this.requestPayment = null;
@@ -178,9 +228,11 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
     }
 
     /**
-     * Sets access token to a session if required.
+     * Sets access token to a session if required. Processes that pay on behalf of different users
+     * should be created with sessions from {@link OAuth2Session#withAccessToken(String)} instead.
      *
      * @param accessToken access token
+     * @throws UnsupportedOperationException if session is bound to an access token
      */
     public final void setAccessToken(String accessToken) {
         session.setAccessToken(accessToken);
@@ -195,6 +247,19 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
         this.callbacks = callbacks;
     }
 
+    /**
+     * Sets scheduler used by async operations to repeat process payment requests while payment is
+     * in progress. If not set {@link Threads#getScheduler()} is used.
+     *
+     * @param scheduler the scheduler
+     */
+    public final void setScheduler(ScheduledExecutorService scheduler) {
+        if (scheduler == null) {
+            throw new NullPointerException("scheduler is null");
+        }
+        this.scheduler = scheduler;
+    }
+
     /**
      * @return state of payment process
      */
@@ -246,7 +311,8 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
             }
 
             @Override
-            public void onInProgress() throws Exception {
+            public void onInProgress(long timeout) throws Exception {
+                Threads.sleep(timeout);
                 executeProcessPayment(request);
             }
         });
@@ -282,16 +348,21 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
 
     private Call enqueueProcessPayment(OnResponseReady<PP> callback)
             throws IOException {
-        return enqueueProcessPayment(createProcessPayment(), callback);
+        return enqueueProcessPayment(createProcessPayment(), callback, null);
     }
 
     private Call enqueueRepeatProcessPayment(OnResponseReady<PP> callback)
             throws IOException {
-        return enqueueProcessPayment(createRepeatProcessPayment(), callback);
+        return enqueueProcessPayment(createRepeatProcessPayment(), callback, null);
     }
 
+    /**
+     * @param future future to update with the latest call so that it could be cancelled, or
+     *               {@code null} if there is nothing to cancel
+     */
     private Call enqueueProcessPayment(final MethodRequest<PP> request,
-                                       final OnResponseReady<PP> callback)
+                                       final OnResponseReady<PP> callback,
+                                       final ResponseFuture<PP> future)
             throws IOException {
 
         return enqueue(request, new OnResponseReady<PP>() {
@@ -310,8 +381,8 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
                         }
 
                         @Override
-                        public void onInProgress() throws Exception {
-                            enqueueProcessPayment(request, callback);
+                        public void onInProgress(long timeout) {
+                            scheduleProcessPayment(request, callback, future, timeout);
                         }
                     })) {
                         callback.onResponse(response);
@@ -323,6 +394,32 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
         });
     }
 
+    private void scheduleProcessPayment(final MethodRequest<PP> request,
+                                        final OnResponseReady<PP> callback,
+                                        final ResponseFuture<PP> future, long timeout) {
+
+        ScheduledExecutorService scheduler = this.scheduler;
+        if (scheduler == null) {
+            scheduler = Threads.getScheduler();
+        }
+        scheduler.schedule(new Runnable() {
+            @Override
+            public void run() {
+                if (future != null && future.isDone()) {
+                    return;
+                }
+                try {
+                    Call call = enqueueProcessPayment(request, callback, future);
+                    if (future != null) {
+                        future.setCall(call);
+                    }
+                } catch (Exception e) {
+                    callback.onFailure(e);
+                }
+            }
+        }, timeout, TimeUnit.MILLISECONDS);
+    }
+
     private <T> Call enqueue(MethodRequest<T> methodRequest,
                              OnResponseReady<T> callback) throws IOException {
         return session.enqueue(methodRequest, callback);
@@ -350,12 +447,15 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
                 state = State.PROCESSING;
                 Long nextRetry = processPayment.nextRetry;
                 long timeout = nextRetry == null || nextRetry == 0L ? TIMEOUT : nextRetry;
-                Threads.sleep(timeout);
-                resolver.onInProgress();
+                resolver.onInProgress(timeout);
                 return false;
         }
 
         state = State.COMPLETED;
+        if (processPayment.status == BaseProcessPayment.Status.SUCCESS) {
+            // balance has changed
+            session.invalidateCache(AccountInfo.Request.class);
+        }
         return true;
     }
 
@@ -491,6 +591,6 @@ public abstract class BasePaymentProcess<RP extends BaseRequestPayment,
 
     private interface ProcessPaymentResolver<PP> {
         PP getProcessPayment() throws Exception;
-        void onInProgress() throws Exception;
+        void onInProgress(long timeout) throws Exception;
     }
 }
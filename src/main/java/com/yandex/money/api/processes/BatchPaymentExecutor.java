@@ -0,0 +1,575 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.methods.params.Params;
+import com.yandex.money.api.methods.params.ParamsValidator;
+import com.yandex.money.api.model.MoneySource;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.OnResponseReady;
+import com.yandex.money.api.net.ResponseFuture;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes many payments from user's wallet, e.g. P2P payouts. Each payment is a
+ * {@link PaymentProcess} driven asynchronously: up to {@link Builder#setParallelism(Integer)}
+ * payments are in progress at once, so request and process phases of different payments
+ * overlap.
+ * <p/>
+ * Saved state of each payment is written to a {@link StateStore} after every phase. If
+ * execution is interrupted, running the same batch again resumes each payment from its saved
+ * state: completed payments are only reported, requested payments are processed with the same
+ * request id. Payments are identified by {@link Payment#id} which should be unique and stable
+ * between runs.
+ */
+public class BatchPaymentExecutor {
+
+    private static final int DEFAULT_PARALLELISM = 4;
+
+    private final OAuth2Session session;
+    private final StateStore store;
+    private final int parallelism;
+
+    /**
+     * Use {@link BatchPaymentExecutor.Builder} to create an instance.
+     */
+    private BatchPaymentExecutor(OAuth2Session session, StateStore store, Integer parallelism) {
+        if (session == null) {
+            throw new NullPointerException("session is null");
+        }
+        if (store == null) {
+            throw new NullPointerException("store is null");
+        }
+        this.session = session;
+        this.store = store;
+        this.parallelism = parallelism == null ? DEFAULT_PARALLELISM : parallelism;
+        if (this.parallelism < 1) {
+            throw new IllegalArgumentException("parallelism should be positive");
+        }
+    }
+
+    /**
+     * Executes payments. Payments are taken from iterator lazily. Parameters of new payments are
+     * validated with {@link ParamsValidator} first, invalid payments are reported as
+     * {@link Outcome#INVALID} without requests. Failure of a payment does not stop the batch, it
+     * is reported as {@link Outcome#FAILED}. The batch fails if iterator
+     * throws or returns a payment with duplicate id. Cancellation of returned future stops
+     * taking new payments, payments in progress are completed.
+     *
+     * @param payments payments to execute
+     * @return future of report
+     */
+    public ResponseFuture<Report> execute(Iterator<Payment> payments) {
+        if (payments == null) {
+            throw new NullPointerException("payments is null");
+        }
+        Batch batch = new Batch(payments);
+        batch.drain();
+        return batch.future;
+    }
+
+    /**
+     * Executes payments.
+     *
+     * @param payments payments to execute
+     * @return future of report
+     * @see #execute(Iterator)
+     */
+    public ResponseFuture<Report> execute(Iterable<Payment> payments) {
+        if (payments == null) {
+            throw new NullPointerException("payments is null");
+        }
+        return execute(payments.iterator());
+    }
+
+    private ResponseFuture<Result> execute(final Payment payment) {
+        final PaymentProcess process = new PaymentProcess(session,
+                new ParamsProvider(payment.params));
+
+        final PaymentProcess.SavedState savedState;
+        try {
+            savedState = store.load(payment.id);
+        } catch (IOException e) {
+            return ResponseFuture.completed(new Result(payment.id, Outcome.FAILED, null, null, e));
+        }
+
+        ResponseFuture<Result> future;
+        if (savedState == null || savedState.getState() == BasePaymentProcess.State.CREATED) {
+            List<ParamsValidator.Violation> violations = ParamsValidator.validate(payment.params);
+            if (!violations.isEmpty()) {
+                return ResponseFuture.completed(new Result(payment.id, violations));
+            }
+            future = process.requestPaymentAsync().thenCompose(
+                    new ResponseFuture.Continuation<RequestPayment, Result>() {
+                        @Override
+                        public ResponseFuture<Result> then(RequestPayment response)
+                                throws Exception {
+                            store.save(payment.id, process.getSavedState());
+                            Result result = createResult(payment, process);
+                            return result == null ? processPayment(payment, process) :
+                                    ResponseFuture.completed(result);
+                        }
+                    });
+        } else {
+            process.restoreSavedState(savedState);
+            Result result = createResult(payment, process);
+            if (result != null && result.outcome == Outcome.FAILED) {
+                // unknown status is not final, repeated request gets actual status of payment
+                result = null;
+            }
+            future = result == null ? processPayment(payment, process) :
+                    ResponseFuture.completed(result);
+        }
+
+        final ResponseFuture<Result> resultFuture = new ResponseFuture<>();
+        future.addCallback(new OnResponseReady<Result>() {
+            @Override
+            public void onFailure(Exception exception) {
+                resultFuture.onResponse(new Result(payment.id, Outcome.FAILED,
+                        (RequestPayment) process.getRequestPayment(),
+                        (ProcessPayment) process.getProcessPayment(), exception));
+            }
+
+            @Override
+            public void onResponse(Result response) {
+                resultFuture.onResponse(response);
+            }
+        });
+        return resultFuture;
+    }
+
+    private ResponseFuture<Result> processPayment(final Payment payment,
+                                                  final PaymentProcess process) {
+
+        return process.processPaymentAsync().thenCompose(
+                new ResponseFuture.Continuation<ProcessPayment, Result>() {
+                    @Override
+                    public ResponseFuture<Result> then(ProcessPayment response) throws Exception {
+                        store.save(payment.id, process.getSavedState());
+                        Result result = createResult(payment, process);
+                        return ResponseFuture.completed(result == null ?
+                                new Result(payment.id, Outcome.FAILED,
+                                        (RequestPayment) process.getRequestPayment(), response,
+                                        null) :
+                                result);
+                    }
+                });
+    }
+
+    /**
+     * @return result of payment or {@code null} if payment should go on
+     */
+    private static Result createResult(Payment payment, PaymentProcess process) {
+        RequestPayment requestPayment = (RequestPayment) process.getRequestPayment();
+        ProcessPayment processPayment = (ProcessPayment) process.getProcessPayment();
+
+        Outcome outcome = null;
+        if (requestPayment != null && requestPayment.status != BaseRequestPayment.Status.SUCCESS) {
+            outcome = Outcome.REFUSED;
+        } else if (processPayment != null) {
+            switch (processPayment.status) {
+                case SUCCESS:
+                    outcome = Outcome.SUCCESS;
+                    break;
+                case REFUSED:
+                    outcome = Outcome.REFUSED;
+                    break;
+                case EXT_AUTH_REQUIRED:
+                    outcome = Outcome.EXT_AUTH_REQUIRED;
+                    break;
+                default:
+                    if (process.getState() == BasePaymentProcess.State.COMPLETED) {
+                        outcome = Outcome.FAILED;
+                    }
+            }
+        }
+        return outcome == null ? null :
+                new Result(payment.id, outcome, requestPayment, processPayment, null);
+    }
+
+    /**
+     * Outcome of a payment.
+     */
+    public enum Outcome {
+        /**
+         * Payment succeeded.
+         */
+        SUCCESS,
+        /**
+         * Payment was refused, see errors of {@link Result#requestPayment} and
+         * {@link Result#processPayment}.
+         */
+        REFUSED,
+        /**
+         * Payment requires external authorization.
+         */
+        EXT_AUTH_REQUIRED,
+        /**
+         * Payment failed with an exception or unknown status. It is resumed on the next run, a
+         * payment with unknown status is repeated with the same request id.
+         */
+        FAILED,
+        /**
+         * Payment parameters are invalid, see {@link Result#violations}. No request was made.
+         */
+        INVALID
+    }
+
+    /**
+     * Payment of a batch.
+     */
+    public static final class Payment {
+
+        /**
+         * unique id of payment used as a key of saved state
+         */
+        public final String id;
+
+        /**
+         * payment parameters, e.g. {@link com.yandex.money.api.methods.params.P2pParams} or
+         * {@link com.yandex.money.api.methods.params.PhoneParams}
+         */
+        public final Params params;
+
+        /**
+         * Constructor.
+         *
+         * @param id unique id of payment used as a key of saved state
+         * @param params payment parameters
+         */
+        public Payment(String id, Params params) {
+            if (id == null || id.isEmpty()) {
+                throw new IllegalArgumentException("id is null or empty");
+            }
+            if (params == null) {
+                throw new NullPointerException("params is null");
+            }
+            this.id = id;
+            this.params = params;
+        }
+    }
+
+    /**
+     * Result of a payment.
+     */
+    public static final class Result {
+
+        public final String paymentId;
+        public final Outcome outcome;
+        public final RequestPayment requestPayment;
+        public final ProcessPayment processPayment;
+
+        /**
+         * exception if payment failed with it
+         */
+        public final Exception exception;
+
+        /**
+         * invalid parameters of payment, empty unless outcome is {@link Outcome#INVALID}
+         */
+        public final List<ParamsValidator.Violation> violations;
+
+        Result(String paymentId, Outcome outcome, RequestPayment requestPayment,
+               ProcessPayment processPayment, Exception exception) {
+
+            this.paymentId = paymentId;
+            this.outcome = outcome;
+            this.requestPayment = requestPayment;
+            this.processPayment = processPayment;
+            this.exception = exception;
+            this.violations = Collections.emptyList();
+        }
+
+        Result(String paymentId, List<ParamsValidator.Violation> violations) {
+            this.paymentId = paymentId;
+            this.outcome = Outcome.INVALID;
+            this.requestPayment = null;
+            this.processPayment = null;
+            this.exception = null;
+            this.violations = violations;
+        }
+
+        @Override
+        public String toString() {
+            return "Result{" +
+                    "paymentId='" + paymentId + '\'' +
+                    ", outcome=" + outcome +
+                    ", requestPayment=" + requestPayment +
+                    ", processPayment=" + processPayment +
+                    ", exception=" + exception +
+                    ", violations=" + violations +
+                    '}';
+        }
+    }
+
+    /**
+     * Report of a batch: results of payments in order of completion.
+     */
+    public static final class Report {
+
+        private final List<Result> results;
+
+        Report(List<Result> results) {
+            this.results = Collections.unmodifiableList(results);
+        }
+
+        /**
+         * @return results of payments in order of completion
+         */
+        public List<Result> getResults() {
+            return results;
+        }
+
+        /**
+         * @param outcome outcome
+         * @return number of payments with the outcome
+         */
+        public int getCount(Outcome outcome) {
+            int count = 0;
+            for (Result result : results) {
+                if (result.outcome == outcome) {
+                    ++count;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Persists saved states of payments.
+     *
+     * @see FilePaymentStateStore
+     */
+    public interface StateStore {
+
+        /**
+         * Loads saved state of a payment.
+         *
+         * @param paymentId payment's id
+         * @return saved state or {@code null} if payment was never started
+         */
+        PaymentProcess.SavedState load(String paymentId) throws IOException;
+
+        /**
+         * Saves state of a payment. Can be called from different threads for different payments.
+         *
+         * @param paymentId payment's id
+         * @param savedState saved state
+         */
+        void save(String paymentId, PaymentProcess.SavedState savedState) throws IOException;
+    }
+
+    /**
+     * Creates {@link BatchPaymentExecutor}.
+     */
+    public static class Builder {
+
+        private final OAuth2Session session;
+        private final StateStore store;
+
+        private Integer parallelism;
+
+        /**
+         * Constructor.
+         *
+         * @param session authorized session
+         * @param store store of saved states
+         */
+        public Builder(OAuth2Session session, StateStore store) {
+            this.session = session;
+            this.store = store;
+        }
+
+        /**
+         * @param parallelism maximum number of payments in progress (4 by default)
+         */
+        public Builder setParallelism(Integer parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        /**
+         * @return {@link BatchPaymentExecutor}
+         */
+        public BatchPaymentExecutor create() {
+            return new BatchPaymentExecutor(session, store, parallelism);
+        }
+    }
+
+    private static final class ParamsProvider implements IPaymentProcess.ParameterProvider {
+
+        private final Params params;
+
+        ParamsProvider(Params params) {
+            this.params = params;
+        }
+
+        @Override
+        public String getPatternId() {
+            return params.getPatternId();
+        }
+
+        @Override
+        public Map<String, String> getPaymentParameters() {
+            return params.makeParams();
+        }
+
+        @Override
+        public MoneySource getMoneySource() {
+            return null;
+        }
+
+        @Override
+        public String getCsc() {
+            return null;
+        }
+
+        @Override
+        public String getExtAuthSuccessUri() {
+            return null;
+        }
+
+        @Override
+        public String getExtAuthFailUri() {
+            return null;
+        }
+    }
+
+    /**
+     * State of a single {@link #execute(Iterator)}. Payments are started from {@link #drain()}
+     * only, so synchronously completed payments do not grow the stack.
+     */
+    private final class Batch {
+
+        final ResponseFuture<Report> future = new ResponseFuture<>();
+
+        private final Iterator<Payment> payments;
+        private final AtomicInteger drains = new AtomicInteger();
+        private final Set<String> ids = new HashSet<>();
+
+        // guarded by this
+        private final List<Result> results = new ArrayList<>();
+        private int active;
+        private boolean exhausted;
+
+        Batch(Iterator<Payment> payments) {
+            this.payments = payments;
+        }
+
+        void drain() {
+            if (drains.getAndIncrement() != 0) {
+                return;
+            }
+            do {
+                //noinspection StatementWithEmptyBody
+                while (startNext()) {
+                }
+            } while (drains.decrementAndGet() != 0);
+        }
+
+        /**
+         * @return {@code true} if a payment was started
+         */
+        private boolean startNext() {
+            Payment payment = null;
+            RuntimeException exception = null;
+            List<Result> completed = null;
+            synchronized (this) {
+                if (active >= parallelism) {
+                    return false;
+                }
+                try {
+                    if (!exhausted && !future.isCancelled() && payments.hasNext()) {
+                        payment = payments.next();
+                        if (payment == null) {
+                            throw new NullPointerException("payment is null");
+                        }
+                        if (!ids.add(payment.id)) {
+                            throw new IllegalArgumentException("duplicate payment id: " +
+                                    payment.id);
+                        }
+                    }
+                } catch (RuntimeException e) {
+                    exception = e;
+                    payment = null;
+                }
+                if (payment != null) {
+                    ++active;
+                } else {
+                    exhausted = true;
+                    if (active == 0) {
+                        completed = new ArrayList<>(results);
+                    }
+                }
+            }
+
+            if (exception != null) {
+                future.onFailure(exception);
+            }
+            if (payment == null) {
+                if (completed != null) {
+                    future.onResponse(new Report(completed));
+                }
+                return false;
+            }
+
+            ResponseFuture<Result> result;
+            try {
+                result = execute(payment);
+            } catch (RuntimeException e) {
+                // a payment that failed to start must not hold its slot
+                result = ResponseFuture.completed(
+                        new Result(payment.id, Outcome.FAILED, null, null, e));
+            }
+            result.addCallback(new OnResponseReady<Result>() {
+                @Override
+                public void onFailure(Exception exception) {
+                    // results are always delivered as responses
+                }
+
+                @Override
+                public void onResponse(Result response) {
+                    synchronized (Batch.this) {
+                        results.add(response);
+                        --active;
+                    }
+                    drain();
+                }
+            });
+            return true;
+        }
+    }
+}
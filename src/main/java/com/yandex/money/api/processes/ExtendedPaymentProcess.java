@@ -32,6 +32,8 @@ import com.yandex.money.api.model.MoneySource;
 import com.yandex.money.api.model.Wallet;
 import com.yandex.money.api.net.OAuth2Session;
 
+import java.util.concurrent.ScheduledExecutorService;
+
 /**
  * Combined payment process of {@link PaymentProcess} and {@link ExternalPaymentProcess}.
  *
@@ -180,6 +182,14 @@ public final class ExtendedPaymentProcess implements IPaymentProcess {
         externalPaymentProcess.setCallbacks(callbacks.getExternalPaymentCallbacks());
     }
 
+    /**
+     * @see {@link BasePaymentProcess#setScheduler(ScheduledExecutorService)}
+     */
+    public void setScheduler(ScheduledExecutorService scheduler) {
+        paymentProcess.setScheduler(scheduler);
+        externalPaymentProcess.setScheduler(scheduler);
+    }
+
     private void invalidatePaymentContext() {
         this.paymentContext = session.isAuthorized() ? PaymentContext.PAYMENT :
                 PaymentContext.EXTERNAL_PAYMENT;
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.processes;
+
+import com.yandex.money.api.methods.BaseProcessPayment;
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.utils.PropertiesFiles;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.Properties;
+
+/**
+ * Stores saved states of payments executed by {@link BatchPaymentExecutor} in a directory, one
+ * properties file per payment. Files are replaced atomically, so a state is never partially
+ * written.
+ * <p/>
+ * Only fields required to resume a payment and to report its result are stored: statuses,
+ * errors, request id, payment id, invoice id and amounts.
+ */
+public class FilePaymentStateStore implements BatchPaymentExecutor.StateStore {
+
+    private static final String FLAGS = "flags";
+
+    private static final String REQUEST_STATUS = "request.status";
+    private static final String REQUEST_ERROR = "request.error";
+    private static final String REQUEST_ID = "request.request_id";
+    private static final String REQUEST_CONTRACT_AMOUNT = "request.contract_amount";
+    private static final String REQUEST_BALANCE = "request.balance";
+
+    private static final String PROCESS_STATUS = "process.status";
+    private static final String PROCESS_ERROR = "process.error";
+    private static final String PROCESS_PAYMENT_ID = "process.payment_id";
+    private static final String PROCESS_INVOICE_ID = "process.invoice_id";
+    private static final String PROCESS_BALANCE = "process.balance";
+    private static final String PROCESS_PAYER = "process.payer";
+    private static final String PROCESS_PAYEE = "process.payee";
+    private static final String PROCESS_CREDIT_AMOUNT = "process.credit_amount";
+    private static final String PROCESS_NEXT_RETRY = "process.next_retry";
+
+    private final File directory;
+
+    /**
+     * Constructor.
+     *
+     * @param directory directory to keep states in, created if not exists
+     */
+    public FilePaymentStateStore(File directory) {
+        if (directory == null) {
+            throw new NullPointerException("directory is null");
+        }
+        this.directory = directory;
+    }
+
+    @Override
+    public PaymentProcess.SavedState load(String paymentId) throws IOException {
+        File file = getFile(paymentId);
+        Properties properties = PropertiesFiles.load(file);
+        if (properties == null) {
+            return null;
+        }
+
+        try {
+            RequestPayment requestPayment = null;
+            if (properties.getProperty(REQUEST_STATUS) != null) {
+                requestPayment = new RequestPayment.Builder()
+                        .setStatus(BaseRequestPayment.Status.valueOf(
+                                properties.getProperty(REQUEST_STATUS)))
+                        .setError(getError(properties, REQUEST_ERROR))
+                        .setRequestId(properties.getProperty(REQUEST_ID))
+                        .setContractAmount(getBigDecimal(properties, REQUEST_CONTRACT_AMOUNT))
+                        .setBalance(getBigDecimal(properties, REQUEST_BALANCE))
+                        .createRequestPayment();
+            }
+
+            ProcessPayment processPayment = null;
+            if (properties.getProperty(PROCESS_STATUS) != null) {
+                String nextRetry = properties.getProperty(PROCESS_NEXT_RETRY);
+                processPayment = new ProcessPayment.Builder()
+                        .setStatus(BaseProcessPayment.Status.valueOf(
+                                properties.getProperty(PROCESS_STATUS)))
+                        .setError(getError(properties, PROCESS_ERROR))
+                        .setPaymentId(properties.getProperty(PROCESS_PAYMENT_ID))
+                        .setInvoiceId(properties.getProperty(PROCESS_INVOICE_ID))
+                        .setBalance(getBigDecimal(properties, PROCESS_BALANCE))
+                        .setPayer(properties.getProperty(PROCESS_PAYER))
+                        .setPayee(properties.getProperty(PROCESS_PAYEE))
+                        .setCreditAmount(getBigDecimal(properties, PROCESS_CREDIT_AMOUNT))
+                        .setNextRetry(nextRetry == null ? null : Long.valueOf(nextRetry))
+                        .createProcessPayment();
+            }
+
+            return new PaymentProcess.SavedState(requestPayment, processPayment,
+                    Integer.parseInt(properties.getProperty(FLAGS)));
+        } catch (RuntimeException e) {
+            throw new IOException("saved state is corrupted: " + file, e);
+        }
+    }
+
+    @Override
+    public void save(String paymentId, PaymentProcess.SavedState savedState) throws IOException {
+        if (savedState == null) {
+            throw new NullPointerException("savedState is null");
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(FLAGS, String.valueOf(savedState.getFlags()));
+
+        RequestPayment requestPayment = savedState.getRequestPayment();
+        if (requestPayment != null) {
+            put(properties, REQUEST_STATUS, requestPayment.status);
+            put(properties, REQUEST_ERROR, requestPayment.error);
+            put(properties, REQUEST_ID, requestPayment.requestId);
+            put(properties, REQUEST_CONTRACT_AMOUNT, requestPayment.contractAmount);
+            put(properties, REQUEST_BALANCE, requestPayment.balance);
+        }
+
+        ProcessPayment processPayment = savedState.getProcessPayment();
+        if (processPayment != null) {
+            put(properties, PROCESS_STATUS, processPayment.status);
+            put(properties, PROCESS_ERROR, processPayment.error);
+            put(properties, PROCESS_PAYMENT_ID, processPayment.paymentId);
+            put(properties, PROCESS_INVOICE_ID, processPayment.invoiceId);
+            put(properties, PROCESS_BALANCE, processPayment.balance);
+            put(properties, PROCESS_PAYER, processPayment.payer);
+            put(properties, PROCESS_PAYEE, processPayment.payee);
+            put(properties, PROCESS_CREDIT_AMOUNT, processPayment.creditAmount);
+            put(properties, PROCESS_NEXT_RETRY, processPayment.nextRetry);
+        }
+
+        PropertiesFiles.store(getFile(paymentId), properties);
+    }
+
+    private File getFile(String paymentId) {
+        return new File(directory, PropertiesFiles.toFileName(paymentId) + ".payment");
+    }
+
+    private static void put(Properties properties, String key, Object value) {
+        if (value instanceof BigDecimal) {
+            properties.setProperty(key, ((BigDecimal) value).toPlainString());
+        } else if (value instanceof Enum) {
+            properties.setProperty(key, ((Enum<?>) value).name());
+        } else if (value != null) {
+            properties.setProperty(key, value.toString());
+        }
+    }
+
+    private static Error getError(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        return value == null ? null : Error.valueOf(value);
+    }
+
+    private static BigDecimal getBigDecimal(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        return value == null ? null : new BigDecimal(value);
+    }
+}
@@ -241,6 +241,62 @@ public enum Currency {
         this.numericCode = numericCode;
     }
 
+    /**
+     * Gets number of digits after the decimal separator (minor unit as in ISO 4217). Funds,
+     * precious metals and other currencies without minor unit have 0 digits.
+     *
+     * @return number of fraction digits
+     */
+    public int getFractionDigits() {
+        switch (this) {
+            case BIF:
+            case BYR:
+            case CLP:
+            case DJF:
+            case GNF:
+            case ISK:
+            case JPY:
+            case KMF:
+            case KRW:
+            case PYG:
+            case RWF:
+            case UGX:
+            case UYI:
+            case VND:
+            case VUV:
+            case XAF:
+            case XAG:
+            case XAU:
+            case XBA:
+            case XBB:
+            case XBC:
+            case XBD:
+            case XDR:
+            case XFU:
+            case XOF:
+            case XPD:
+            case XPF:
+            case XPT:
+            case XSU:
+            case XTS:
+            case XUA:
+            case XXX:
+                return 0;
+            case BHD:
+            case IQD:
+            case JOD:
+            case KWD:
+            case LYD:
+            case OMR:
+            case TND:
+                return 3;
+            case CLF:
+                return 4;
+            default:
+                return 2;
+        }
+    }
+
     public static Currency parseAlphaCode(String alphaCode) {
         return ALPHA_MAP.get(alphaCode);
     }
@@ -0,0 +1,230 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.utils;
+
+import org.joda.time.Chronology;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Parsing and formatting of ISO 8601 date-times.
+ * <p/>
+ * RFC 3339 date-times that API uses ({@code 2015-07-10T12:10:29.000+03:00},
+ * {@code 2015-07-10T09:10:29Z}) are handled without {@link DateTimeFormatter}. Other values fall
+ * back to {@link ISODateTimeFormat#dateTimeParser()}. Results are the same as of
+ * {@link DateTime#parse(String)} and {@link DateTime#toString()}.
+ */
+public final class DateTimes {
+
+    private static final DateTimeFormatter PARSER =
+            ISODateTimeFormat.dateTimeParser().withOffsetParsed();
+
+    private static final Chronology UTC = ISOChronology.getInstanceUTC();
+
+    /**
+     * Chronologies of parsed offsets. Offsets are whole minutes within a day, so the map is small.
+     */
+    private static final ConcurrentMap<Integer, Chronology> CHRONOLOGIES =
+            new ConcurrentHashMap<>();
+
+    private static final int MILLIS_IN_MINUTE = (int) MillisecondsIn.MINUTE;
+
+    private DateTimes() {
+        // prevents instantiating of this class
+    }
+
+    /**
+     * Parses ISO 8601 date-time keeping its offset.
+     *
+     * @param value date-time
+     * @return parsed date-time
+     * @throws IllegalArgumentException if value is not a valid date-time
+     */
+    public static DateTime parse(String value) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        DateTime dateTime = parseRfc3339(value);
+        return dateTime == null ? PARSER.parseDateTime(value) : dateTime;
+    }
+
+    /**
+     * Formats date-time as {@code yyyy-MM-dd'T'HH:mm:ss.SSSZZ}.
+     *
+     * @param value date-time
+     * @return formatted date-time
+     */
+    public static String format(DateTime value) {
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        if (!(value.getChronology() instanceof ISOChronology)) {
+            return value.toString();
+        }
+
+        long millis = value.getMillis();
+        int offset = value.getZone().getOffset(millis);
+        long local = millis + offset;
+        int year = UTC.year().get(local);
+        if (offset % MILLIS_IN_MINUTE != 0 || year < 0 || year > 9999) {
+            return value.toString();
+        }
+
+        char[] chars = new char[29];
+        int length = 0;
+        length = appendDigits(chars, length, year, 4);
+        chars[length++] = '-';
+        length = appendDigits(chars, length, UTC.monthOfYear().get(local), 2);
+        chars[length++] = '-';
+        length = appendDigits(chars, length, UTC.dayOfMonth().get(local), 2);
+        chars[length++] = 'T';
+        length = appendDigits(chars, length, UTC.hourOfDay().get(local), 2);
+        chars[length++] = ':';
+        length = appendDigits(chars, length, UTC.minuteOfHour().get(local), 2);
+        chars[length++] = ':';
+        length = appendDigits(chars, length, UTC.secondOfMinute().get(local), 2);
+        chars[length++] = '.';
+        length = appendDigits(chars, length, UTC.millisOfSecond().get(local), 3);
+
+        if (offset == 0) {
+            chars[length++] = 'Z';
+        } else {
+            chars[length++] = offset < 0 ? '-' : '+';
+            int minutes = Math.abs(offset) / MILLIS_IN_MINUTE;
+            length = appendDigits(chars, length, minutes / 60, 2);
+            chars[length++] = ':';
+            length = appendDigits(chars, length, minutes % 60, 2);
+        }
+        return new String(chars, 0, length);
+    }
+
+    /**
+     * Parses {@code yyyy-MM-dd'T'HH:mm:ss[.S[S[S]]](Z|+HH:mm|-HH:mm)}.
+     *
+     * @return parsed date-time or {@code null} if value has other format
+     */
+    private static DateTime parseRfc3339(String value) {
+        int length = value.length();
+        if (length < 20 || value.charAt(4) != '-' || value.charAt(7) != '-' ||
+                value.charAt(10) != 'T' || value.charAt(13) != ':' || value.charAt(16) != ':') {
+            return null;
+        }
+
+        int year = parseDigits(value, 0, 4);
+        int month = parseDigits(value, 5, 2);
+        int day = parseDigits(value, 8, 2);
+        int hour = parseDigits(value, 11, 2);
+        int minute = parseDigits(value, 14, 2);
+        int second = parseDigits(value, 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0) {
+            return null;
+        }
+
+        int index = 19;
+        int millis = 0;
+        if (value.charAt(index) == '.') {
+            int start = ++index;
+            while (index < length && index - start < 3 && isDigit(value.charAt(index))) {
+                millis = millis * 10 + value.charAt(index++) - '0';
+            }
+            int digits = index - start;
+            if (digits == 0 || index < length && isDigit(value.charAt(index))) {
+                return null;
+            }
+            for (; digits < 3; ++digits) {
+                millis *= 10;
+            }
+        }
+
+        if (index >= length) {
+            return null;
+        }
+        int offset;
+        char sign = value.charAt(index);
+        if (sign == 'Z' && index + 1 == length) {
+            offset = 0;
+        } else if ((sign == '+' || sign == '-') && index + 6 == length &&
+                value.charAt(index + 3) == ':') {
+            int offsetHours = parseDigits(value, index + 1, 2);
+            int offsetMinutes = parseDigits(value, index + 4, 2);
+            if (offsetHours < 0 || offsetHours > 23 || offsetMinutes < 0 || offsetMinutes > 59) {
+                return null;
+            }
+            offset = (offsetHours * 60 + offsetMinutes) * MILLIS_IN_MINUTE;
+            if (sign == '-') {
+                offset = -offset;
+            }
+        } else {
+            return null;
+        }
+
+        long local = UTC.getDateTimeMillis(year, month, day, hour, minute, second, millis);
+        return new DateTime(local - offset, getChronology(offset));
+    }
+
+    private static Chronology getChronology(int offset) {
+        if (offset == 0) {
+            return UTC;
+        }
+        Chronology chronology = CHRONOLOGIES.get(offset);
+        if (chronology == null) {
+            chronology = ISOChronology.getInstance(DateTimeZone.forOffsetMillis(offset));
+            Chronology previous = CHRONOLOGIES.putIfAbsent(offset, chronology);
+            if (previous != null) {
+                chronology = previous;
+            }
+        }
+        return chronology;
+    }
+
+    private static int parseDigits(String value, int start, int count) {
+        int result = 0;
+        for (int i = start; i < start + count; ++i) {
+            char c = value.charAt(i);
+            if (!isDigit(c)) {
+                return -1;
+            }
+            result = result * 10 + c - '0';
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static int appendDigits(char[] chars, int offset, int value, int count) {
+        for (int i = offset + count - 1; i >= offset; --i) {
+            chars[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return offset + count;
+    }
+}
@@ -63,6 +63,8 @@ public enum Language {
         cisIso6391Codes = Collections.unmodifiableSet(codes);
     }
 
+    private static volatile DefaultLanguage defaultLanguage;
+
     public final String iso6391Code;
 
     Language(String iso6391Code) {
@@ -74,12 +76,12 @@ public enum Language {
      */
     public static Language getDefault() {
         Locale locale = Locale.getDefault();
-        for (Language value : values()) {
-            if (value.iso6391Code.equals(locale.getLanguage())) {
-                return value;
-            }
+        DefaultLanguage defaultLanguage = Language.defaultLanguage;
+        if (defaultLanguage == null || defaultLanguage.locale != locale) {
+            defaultLanguage = new DefaultLanguage(locale, getSupported(locale.getLanguage()));
+            Language.defaultLanguage = defaultLanguage;
         }
-        return getSupported(locale.getLanguage());
+        return defaultLanguage.language;
     }
 
     /**
@@ -101,4 +103,18 @@ public enum Language {
     private static boolean isCis(String iso6391Code) {
         return cisIso6391Codes.contains(iso6391Code);
     }
+
+    /**
+     * Language resolved for a locale, so it is resolved again only if default locale changes.
+     */
+    private static final class DefaultLanguage {
+
+        final Locale locale;
+        final Language language;
+
+        DefaultLanguage(Locale locale, Language language) {
+            this.locale = locale;
+            this.language = language;
+        }
+    }
 }
@@ -0,0 +1,125 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.api.utils;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/**
+ * Implements common operations with properties files used as simple persistent stores.
+ */
+public final class PropertiesFiles {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private PropertiesFiles() {
+        // prevents instantiating of this class
+    }
+
+    /**
+     * Loads properties from a file.
+     *
+     * @param file the file
+     * @return properties or {@code null} if file does not exist
+     */
+    public static Properties load(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        Properties properties = new Properties();
+        try (Reader reader = new InputStreamReader(new FileInputStream(file), UTF_8)) {
+            properties.load(reader);
+        }
+        return properties;
+    }
+
+    /**
+     * Stores properties to a file. The file is replaced atomically, so it is never partially
+     * written, and data is synced to the device before replacement. Parent directory is created
+     * if not exists.
+     *
+     * @param file the file
+     * @param properties properties to store
+     */
+    public static void store(File file, Properties properties) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+            throw new IOException("unable to create directory: " + directory);
+        }
+
+        File temp = File.createTempFile(file.getName(), ".tmp", directory);
+        try {
+            FileOutputStream stream = new FileOutputStream(temp);
+            try (Writer writer = new OutputStreamWriter(stream, UTF_8)) {
+                properties.store(writer, null);
+                writer.flush();
+                // otherwise the file can be replaced with empty one after a crash
+                stream.getFD().sync();
+            }
+            Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            if (temp.exists() && !temp.delete()) {
+                temp.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Converts a key to a file name. Key is hex encoded with '=' prefix unless it is safe to be
+     * a file name.
+     *
+     * @param key the key
+     * @return file name
+     */
+    public static String toFileName(String key) {
+        if (Strings.isNullOrEmpty(key)) {
+            throw new IllegalArgumentException("key is null or empty");
+        }
+
+        for (int i = 0; i < key.length(); ++i) {
+            char c = key.charAt(i);
+            if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'z' || c >= 'A' && c <= 'Z' ||
+                    c == '-' || c == '_')) {
+                StringBuilder builder = new StringBuilder("=");
+                for (byte b : key.getBytes(UTF_8)) {
+                    builder.append(Character.forDigit((b >> 4) & 0xf, 16))
+                            .append(Character.forDigit(b & 0xf, 16));
+                }
+                return builder.toString();
+            }
+        }
+        return key;
+    }
+}
@@ -55,7 +55,13 @@ public final class Strings {
         if (value == null) {
             throw new NullPointerException("value is null");
         }
-        return value.matches("\\d*");
+        for (int i = 0, length = value.length(); i < length; ++i) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
     }
 
     /**
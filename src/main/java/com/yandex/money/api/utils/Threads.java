@@ -24,6 +24,10 @@
 
 package com.yandex.money.api.utils;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+
 /**
  * @author vyasevich
  */
@@ -45,4 +49,27 @@ public final class Threads {
             // do nothing
         }
     }
+
+    /**
+     * Gets shared scheduler for delayed tasks. It has a single daemon thread, so scheduled tasks
+     * should be short and must not block.
+     *
+     * @return shared scheduler
+     */
+    public static ScheduledExecutorService getScheduler() {
+        return SchedulerHolder.SCHEDULER;
+    }
+
+    private static final class SchedulerHolder {
+
+        static final ScheduledExecutorService SCHEDULER =
+                Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        Thread thread = new Thread(runnable, "YandexMoney Scheduler");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+    }
 }
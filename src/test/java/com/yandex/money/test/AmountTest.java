@@ -0,0 +1,166 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.google.gson.stream.JsonReader;
+import com.yandex.money.api.methods.JsonReaders;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.model.Amount;
+import com.yandex.money.api.net.PostRequestBodyBuffer;
+import com.yandex.money.api.utils.Currency;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+
+public class AmountTest {
+
+    @Test
+    public void testParse() {
+        String[] values = { "100.50", "100.5", "100", "-0.01", "+7.", ".5", "0", "-0",
+                "12.3400", "1.5e2", "92233720368547758.07", "-92233720368547758.08" };
+        for (String value : values) {
+            Amount amount = Amount.parse(value, Currency.RUB);
+            Assert.assertEquals(amount.toBigDecimal().compareTo(new BigDecimal(value)), 0, value);
+            Assert.assertEquals(amount, Amount.valueOf(new BigDecimal(value), Currency.RUB));
+        }
+
+        Assert.assertEquals(Amount.parse("1000", Currency.JPY).minorUnits, 1000);
+        Assert.assertEquals(Amount.parse("1.234", Currency.KWD).minorUnits, 1234);
+        Assert.assertEquals(Amount.parse("100.50", Currency.RUB).minorUnits, 10050);
+    }
+
+    @Test
+    public void testParseInvalid() {
+        String[] illegal = { "", "-", ".", "1.2.3", "1,5", "abc", "e5", "1-" };
+        for (String value : illegal) {
+            try {
+                Amount.parse(value, Currency.RUB);
+                Assert.fail(value);
+            } catch (NumberFormatException e) {
+                // expected
+            }
+        }
+
+        String[] inexact = { "0.001", "1.5", "92233720368547758.08", "1e30" };
+        Currency[] currencies = { Currency.RUB, Currency.JPY, Currency.RUB, Currency.RUB };
+        for (int i = 0; i < inexact.length; ++i) {
+            try {
+                Amount.parse(inexact[i], currencies[i]);
+                Assert.fail(inexact[i]);
+            } catch (ArithmeticException e) {
+                // expected
+            }
+            Assert.assertNull(Amount.tryParse(inexact[i], currencies[i]), inexact[i]);
+        }
+        Assert.assertNull(Amount.tryParse(null, Currency.RUB));
+        Assert.assertEquals(Amount.tryParse("1.5", Currency.RUB).minorUnits, 150);
+    }
+
+    @Test
+    public void testNextAmount() throws IOException {
+        JsonReader reader = new JsonReader(new StringReader("[100.50,null,\"7\"]"));
+        reader.beginArray();
+        Assert.assertEquals(JsonReaders.nextAmount(reader, Currency.RUB).minorUnits, 10050);
+        Assert.assertNull(JsonReaders.nextAmount(reader, Currency.RUB));
+        Assert.assertEquals(JsonReaders.nextAmount(reader, Currency.RUB).minorUnits, 700);
+        reader.endArray();
+    }
+
+    @Test
+    public void testFormat() {
+        long[] values = { 0, 1, -1, 10050, -10050, 100, Long.MAX_VALUE, Long.MIN_VALUE };
+        Currency[] currencies = { Currency.RUB, Currency.JPY, Currency.KWD, Currency.CLF };
+        for (Currency currency : currencies) {
+            for (long value : values) {
+                Amount amount = Amount.ofMinorUnits(value, currency);
+                Assert.assertEquals(amount.toPlainString(), amount.toBigDecimal().toPlainString());
+                Assert.assertEquals(Amount.parse(amount.toPlainString(), currency), amount);
+            }
+        }
+        Assert.assertEquals(Amount.ofMinorUnits(-5, Currency.RUB).toString(), "-0.05 RUB");
+    }
+
+    @Test
+    public void testArithmetic() {
+        Amount amount = Amount.parse("100.50", Currency.RUB);
+        Amount fee = Amount.parse("0.50", Currency.RUB);
+
+        Assert.assertEquals(amount.add(fee), Amount.parse("101", Currency.RUB));
+        Assert.assertEquals(amount.subtract(fee), Amount.parse("100", Currency.RUB));
+        Assert.assertEquals(fee.multiply(3), Amount.parse("1.5", Currency.RUB));
+        Assert.assertEquals(fee.negate().signum(), -1);
+        Assert.assertTrue(fee.compareTo(amount) < 0);
+        Assert.assertEquals(Amount.sum(Arrays.asList(amount, fee, fee.negate()), Currency.RUB),
+                amount);
+        Assert.assertEquals(Amount.sum(Collections.<Amount>emptyList(), Currency.USD),
+                Amount.ofMinorUnits(0, Currency.USD));
+
+        try {
+            amount.add(Amount.parse("1", Currency.USD));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            Amount.ofMinorUnits(Long.MAX_VALUE, Currency.RUB).add(fee);
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            // expected
+        }
+        try {
+            Amount.ofMinorUnits(Long.MIN_VALUE, Currency.RUB).negate();
+            Assert.fail();
+        } catch (ArithmeticException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPostRequestBodyBuffer() {
+        PostRequestBodyBuffer buffer = new PostRequestBodyBuffer()
+                .addParam("pattern_id", "p2p")
+                .addParamIfNotNull("amount", Amount.parse("-100.5", Currency.RUB))
+                .addParamIfNotNull("amount_due", (Amount) null)
+                .addParamIfNotNull("fee", Amount.ofMinorUnits(Long.MIN_VALUE, Currency.JPY));
+        Assert.assertEquals(buffer.toString(),
+                "pattern_id=p2p&amount=-100.50&fee=-9223372036854775808");
+    }
+
+    @Test
+    public void testMinimumAmount() {
+        new RequestPayment.Request("79000000000", new BigDecimal("0.02"));
+        try {
+            new RequestPayment.Request("79000000000", new BigDecimal("0.019"));
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.methods.params.P2pParams;
+import com.yandex.money.api.methods.params.PhoneParams;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.processes.BatchPaymentExecutor;
+import com.yandex.money.api.processes.FilePaymentStateStore;
+import com.yandex.money.api.processes.PaymentProcess;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BatchPaymentExecutorTest {
+
+    private MockWebServer server;
+    private OAuth2Session session;
+    private File directory;
+    private FilePaymentStateStore store;
+
+    private final AtomicInteger requestPayments = new AtomicInteger();
+    private final List<String> processedRequestIds =
+            Collections.synchronizedList(new ArrayList<String>());
+    private final Set<String> failingRequestIds =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+    private final Set<String> unknownRequestIds =
+            Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        requestPayments.set(0);
+        processedRequestIds.clear();
+        failingRequestIds.clear();
+        unknownRequestIds.clear();
+
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                String body = request.getBody().readUtf8();
+                if (request.getPath().endsWith("/request-payment")) {
+                    requestPayments.incrementAndGet();
+                    String to = getParam(body, "to");
+                    if (to == null) {
+                        to = getParam(body, "phone-number");
+                    }
+                    if (to.equals("refused")) {
+                        return MockApi.json("{\"status\":\"refused\",\"error\":\"not_enough_funds\"}");
+                    }
+                    return MockApi.json("{\"status\":\"success\",\"request_id\":\"req-" + to + "\"," +
+                            "\"contract_amount\":10.00,\"balance\":1000}");
+                }
+
+                String requestId = getParam(body, "request_id");
+                processedRequestIds.add(requestId);
+                if (failingRequestIds.remove(requestId)) {
+                    return new MockResponse().setResponseCode(HttpURLConnection.HTTP_UNAVAILABLE);
+                }
+                if (unknownRequestIds.remove(requestId)) {
+                    return MockApi.json("{\"status\":\"something_new\"}");
+                }
+                return MockApi.json("{\"status\":\"success\",\"payment_id\":\"pay-" + requestId + "\"," +
+                        "\"balance\":990}");
+            }
+        });
+        server.start();
+
+        session = new OAuth2Session(MockApi.createClientBuilder(server)
+                .setRetryPolicy(null)
+                .create());
+        session.setAccessToken("token");
+
+        directory = Files.createTempDirectory("payments").toFile();
+        store = new FilePaymentStateStore(directory);
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Assert.assertTrue(file.delete());
+            }
+        }
+        Assert.assertTrue(directory.delete());
+    }
+
+    @Test
+    public void testBatch() throws Exception {
+        List<BatchPaymentExecutor.Payment> payments = new ArrayList<>();
+        for (int i = 0; i < 10; ++i) {
+            payments.add(new BatchPaymentExecutor.Payment("p" + i,
+                    new P2pParams("4100" + i, new BigDecimal("10.00"))));
+        }
+        payments.add(new BatchPaymentExecutor.Payment("phone",
+                new PhoneParams("79000000000", new BigDecimal("10.00"))));
+        payments.add(new BatchPaymentExecutor.Payment("refused",
+                new P2pParams("refused", new BigDecimal("10.00"))));
+        payments.add(new BatchPaymentExecutor.Payment("invalid",
+                new P2pParams("not a payee", new BigDecimal("0.001"))));
+
+        BatchPaymentExecutor.Report report = createExecutor().execute(payments)
+                .get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(report.getResults().size(), 13);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.SUCCESS), 11);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.REFUSED), 1);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.INVALID), 1);
+        for (BatchPaymentExecutor.Result result : report.getResults()) {
+            if (result.outcome == BatchPaymentExecutor.Outcome.INVALID) {
+                Assert.assertEquals(result.paymentId, "invalid");
+                Assert.assertEquals(result.violations.size(), 2);
+            } else if (result.outcome == BatchPaymentExecutor.Outcome.REFUSED) {
+                Assert.assertEquals(result.paymentId, "refused");
+                Assert.assertEquals(result.requestPayment.error, Error.NOT_ENOUGH_FUNDS);
+            } else {
+                Assert.assertEquals(result.processPayment.paymentId,
+                        "pay-" + result.requestPayment.requestId);
+            }
+        }
+        Assert.assertEquals(requestPayments.get(), 12);
+        Assert.assertEquals(processedRequestIds.size(), 11);
+        Assert.assertEquals(directory.listFiles().length, 12);
+    }
+
+    @Test
+    public void testResume() throws Exception {
+        failingRequestIds.add("req-2");
+        List<BatchPaymentExecutor.Payment> payments = new ArrayList<>();
+        for (int i = 0; i < 3; ++i) {
+            payments.add(new BatchPaymentExecutor.Payment("p" + i,
+                    new P2pParams(String.valueOf(i), new BigDecimal("10.00"))));
+        }
+
+        BatchPaymentExecutor.Report report = createExecutor().execute(payments)
+                .get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.SUCCESS), 2);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.FAILED), 1);
+        for (BatchPaymentExecutor.Result result : report.getResults()) {
+            if (result.outcome == BatchPaymentExecutor.Outcome.FAILED) {
+                Assert.assertEquals(result.paymentId, "p2");
+                Assert.assertNotNull(result.exception);
+            }
+        }
+
+        // completed payments are reported from saved state, failed one goes on
+        report = createExecutor().execute(payments).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.SUCCESS), 3);
+        Assert.assertEquals(requestPayments.get(), 3);
+        Assert.assertEquals(processedRequestIds.size(), 4);
+        Assert.assertEquals(processedRequestIds.get(3), "req-2");
+    }
+
+    @Test
+    public void testResumeUnknownStatus() throws Exception {
+        unknownRequestIds.add("req-1");
+        List<BatchPaymentExecutor.Payment> payments = Collections.singletonList(
+                new BatchPaymentExecutor.Payment("p1",
+                        new P2pParams("1", new BigDecimal("10.00"))));
+
+        BatchPaymentExecutor.Report report = createExecutor().execute(payments)
+                .get(10, TimeUnit.SECONDS);
+        BatchPaymentExecutor.Result result = report.getResults().get(0);
+        Assert.assertEquals(result.outcome, BatchPaymentExecutor.Outcome.FAILED);
+        Assert.assertEquals(result.processPayment.status, ProcessPayment.Status.UNKNOWN);
+        Assert.assertNull(result.exception);
+
+        // payment is repeated instead of being reported from saved state
+        report = createExecutor().execute(payments).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.SUCCESS), 1);
+        Assert.assertEquals(requestPayments.get(), 1);
+        Assert.assertEquals(processedRequestIds, Arrays.asList("req-1", "req-1"));
+
+        // completed payment is not repeated
+        report = createExecutor().execute(payments).get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.SUCCESS), 1);
+        Assert.assertEquals(processedRequestIds.size(), 2);
+    }
+
+    @Test
+    public void testPaymentFailedToStart() throws Exception {
+        BatchPaymentExecutor.StateStore failingStore = new BatchPaymentExecutor.StateStore() {
+            @Override
+            public PaymentProcess.SavedState load(String paymentId) throws IOException {
+                if (paymentId.equals("broken")) {
+                    throw new IllegalStateException("corrupted state");
+                }
+                return store.load(paymentId);
+            }
+
+            @Override
+            public void save(String paymentId, PaymentProcess.SavedState savedState)
+                    throws IOException {
+                store.save(paymentId, savedState);
+            }
+        };
+        List<BatchPaymentExecutor.Payment> payments = new ArrayList<>();
+        payments.add(new BatchPaymentExecutor.Payment("broken",
+                new P2pParams("41001", new BigDecimal("10.00"))));
+        payments.add(new BatchPaymentExecutor.Payment("p2",
+                new P2pParams("41002", new BigDecimal("10.00"))));
+
+        BatchPaymentExecutor.Report report = new BatchPaymentExecutor.Builder(session,
+                failingStore)
+                .setParallelism(1)
+                .create()
+                .execute(payments)
+                .get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.SUCCESS), 1);
+        Assert.assertEquals(report.getCount(BatchPaymentExecutor.Outcome.FAILED), 1);
+        for (BatchPaymentExecutor.Result result : report.getResults()) {
+            if (result.outcome == BatchPaymentExecutor.Outcome.FAILED) {
+                Assert.assertEquals(result.paymentId, "broken");
+                Assert.assertTrue(result.exception instanceof IllegalStateException);
+            }
+        }
+    }
+
+    @Test
+    public void testStateStore() throws Exception {
+        Assert.assertNull(store.load("payment"));
+
+        PaymentProcess.SavedState savedState = new PaymentProcess.SavedState(
+                new RequestPayment.Builder()
+                        .setStatus(RequestPayment.Status.SUCCESS)
+                        .setRequestId("req")
+                        .setContractAmount(new BigDecimal("10.50"))
+                        .createRequestPayment(),
+                new ProcessPayment.Builder()
+                        .setStatus(ProcessPayment.Status.IN_PROGRESS)
+                        .setNextRetry(5000L)
+                        .createProcessPayment(),
+                2);
+        store.save("payment", savedState);
+
+        PaymentProcess.SavedState loaded = store.load("payment");
+        Assert.assertEquals(loaded.getFlags(), 2);
+        Assert.assertEquals(loaded.getRequestPayment().requestId, "req");
+        Assert.assertEquals(loaded.getRequestPayment().contractAmount, new BigDecimal("10.50"));
+        Assert.assertEquals(loaded.getProcessPayment().status, ProcessPayment.Status.IN_PROGRESS);
+        Assert.assertEquals(loaded.getProcessPayment().nextRetry, Long.valueOf(5000L));
+    }
+
+    private BatchPaymentExecutor createExecutor() {
+        return new BatchPaymentExecutor.Builder(session, store)
+                .setParallelism(3)
+                .create();
+    }
+
+    private static String getParam(String body, String name) {
+        for (String pair : body.split("&")) {
+            if (pair.startsWith(name + "=")) {
+                return pair.substring(name.length() + 1);
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.exceptions.InvalidTokenException;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.AuxToken;
+import com.yandex.money.api.methods.Token;
+import com.yandex.money.api.model.Scope;
+import com.yandex.money.api.net.CredentialRegistry;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+public class CredentialRegistryTest {
+
+    private final Set<String> revokedTokens = Collections.synchronizedSet(new HashSet<String>());
+
+    private MockWebServer server;
+    private CredentialRegistry registry;
+    private OAuth2Session session;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        revokedTokens.clear();
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().endsWith("/oauth/token")) {
+                    // authorization code is rejected regardless of access token
+                    return MockApi.json("{\"error\":\"invalid_grant\"}");
+                }
+                String token = request.getHeader(HttpHeaders.AUTHORIZATION).substring(7);
+                if (revokedTokens.contains(token)) {
+                    if (request.getPath().endsWith("/token-aux")) {
+                        return MockApi.json("{\"error\":\"invalid_grant\"}");
+                    }
+                    return new MockResponse().setResponseCode(401);
+                }
+                return MockApi.json(request.getPath().endsWith("/token-aux") ?
+                        "{\"aux_token\":\"aux\"}" : MockApi.ACCOUNT_INFO);
+            }
+        });
+        server.start();
+
+        registry = new CredentialRegistry();
+        registry.register("wallet1", "token1");
+        registry.register("wallet2", "token2");
+
+        session = new OAuth2Session(MockApi.createClientBuilder(server)
+                .setRetryPolicy(null)
+                .setCredentialRegistry(registry)
+                .create());
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testFailFastAfterUnauthorized() throws Exception {
+        OAuth2Session wallet1 = registry.bind(session, "wallet1");
+        Assert.assertEquals(wallet1.execute(new AccountInfo.Request()).account, "4100123456789");
+
+        revokedTokens.add("token1");
+        assertInvalidToken(wallet1);
+        Assert.assertEquals(server.getRequestCount(), 2);
+        Assert.assertTrue(registry.isRevoked("wallet1"));
+        Assert.assertFalse(registry.isRevoked("wallet2"));
+
+        // subsequent requests fail without a call
+        assertInvalidToken(wallet1);
+        try {
+            wallet1.executeAsync(new AccountInfo.Request()).get(10, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InvalidTokenException);
+        }
+        Assert.assertEquals(server.getRequestCount(), 2);
+
+        try {
+            registry.bind(session, "wallet1");
+            Assert.fail();
+        } catch (InvalidTokenException e) {
+            // expected
+        }
+
+        // new token revives the wallet
+        registry.register("wallet1", "token3");
+        Assert.assertFalse(registry.isRevoked("wallet1"));
+        registry.bind(session, "wallet1").execute(new AccountInfo.Request());
+        Assert.assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test
+    public void testInvalidGrant() throws Exception {
+        revokedTokens.add("token2");
+        OAuth2Session wallet2 = registry.bind(session, "wallet2");
+
+        AuxToken auxToken = wallet2.execute(new AuxToken.Request(
+                Collections.singleton(Scope.ACCOUNT_INFO)));
+        Assert.assertNotNull(auxToken.error);
+        Assert.assertTrue(registry.isRevoked("wallet2"));
+
+        assertInvalidToken(wallet2);
+        Assert.assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testInvalidCode() throws Exception {
+        OAuth2Session wallet1 = registry.bind(session, "wallet1");
+
+        Token token = wallet1.execute(new Token.Request("code", "client", "https://redirect"));
+        Assert.assertNotNull(token.error);
+        Assert.assertFalse(registry.isRevoked("wallet1"));
+
+        Assert.assertEquals(wallet1.execute(new AccountInfo.Request()).account, "4100123456789");
+        Assert.assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testRevalidate() throws Exception {
+        registry.register("wallet3", "token3");
+        revokedTokens.add("token1");
+        revokedTokens.add("token3");
+
+        Set<String> revoked = registry.revalidate(session);
+        Assert.assertEquals(revoked, new HashSet<>(Arrays.asList("wallet1", "wallet3")));
+        Assert.assertEquals(registry.getRevokedWallets(), revoked);
+        Assert.assertEquals(server.getRequestCount(), 3);
+
+        // revoked tokens are not checked again
+        Assert.assertTrue(registry.revalidate(session).isEmpty());
+        Assert.assertEquals(server.getRequestCount(), 4);
+    }
+
+    @Test
+    public void testUnregisteredToken() throws Exception {
+        Assert.assertNull(registry.getAccessToken("wallet4"));
+        Assert.assertFalse(registry.revoke("token4"));
+
+        revokedTokens.add("token4");
+        OAuth2Session unknown = session.withAccessToken("token4");
+        assertInvalidToken(unknown);
+        assertInvalidToken(unknown);
+        Assert.assertEquals(server.getRequestCount(), 2);
+
+        Assert.assertTrue(registry.unregister("wallet1"));
+        Assert.assertFalse(registry.unregister("wallet1"));
+        Assert.assertEquals(registry.getWallets(), Collections.singleton("wallet2"));
+    }
+
+    private static void assertInvalidToken(OAuth2Session session) throws Exception {
+        try {
+            session.execute(new AccountInfo.Request());
+            Assert.fail();
+        } catch (InvalidTokenException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.yandex.money.api.utils.DateTimes;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.BuddhistChronology;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class DateTimesTest {
+
+    @Test
+    public void testParseAsDateTime() {
+        String[] values = {
+                "2015-07-10T12:10:29.000+03:00",
+                "2015-07-10T12:10:29.123-05:30",
+                "2015-07-10T12:10:29.5+03:00",
+                "2015-07-10T12:10:29.25Z",
+                "2015-07-10T09:10:29Z",
+                "2015-07-10T09:10:29-00:00",
+                "2016-02-29T23:59:59.999+14:00",
+                // handled by general parser
+                "2015-07-10T12:10:29.123456+03:00",
+                "2015-07-10T12:10:29+0300",
+                "2015-07-10T12:10+03:00",
+                "2015-07-10"
+        };
+        for (String value : values) {
+            DateTime expected = DateTime.parse(value);
+            DateTime actual = DateTimes.parse(value);
+            Assert.assertEquals(actual, expected, value);
+            Assert.assertEquals(actual.getZone(), expected.getZone(), value);
+        }
+    }
+
+    @Test
+    public void testParseInvalid() {
+        String[] values = {
+                "2015-02-30T12:10:29.000+03:00",
+                "2015-07-10T25:10:29Z",
+                "2015-07-10T12:10:29.+03:00",
+                "2015-07-10T12:10:29.000+03:00x",
+                "2015-07-10 12:10:29Z",
+                ""
+        };
+        for (String value : values) {
+            try {
+                DateTimes.parse(value);
+                Assert.fail(value);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void testFormatAsDateTime() {
+        DateTime[] values = {
+                new DateTime(2015, 7, 10, 12, 10, 29, 0, DateTimeZone.forOffsetHours(3)),
+                new DateTime(2015, 7, 10, 12, 10, 29, 7, DateTimeZone.forOffsetHoursMinutes(-5,
+                        -30)),
+                new DateTime(2015, 7, 10, 12, 10, 29, 120, DateTimeZone.UTC),
+                new DateTime(2015, 3, 29, 1, 30, 0, 0, DateTimeZone.forID("Europe/Moscow")),
+                new DateTime(2015, 3, 29, 3, 30, 0, 0, DateTimeZone.forID("Europe/Berlin")),
+                new DateTime(42, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC),
+                new DateTime(10000, 1, 1, 0, 0, 0, 0, DateTimeZone.UTC),
+                new DateTime(2015, 7, 10, 0, 0, 0, 0, DateTimeZone.forOffsetMillis(1234))
+        };
+        for (DateTime value : values) {
+            String formatted = DateTimes.format(value);
+            Assert.assertEquals(formatted, value.toString());
+            Assert.assertEquals(DateTimes.parse(formatted).getMillis(), value.getMillis());
+        }
+
+        DateTime buddhist = new DateTime(2558, 7, 10, 0, 0, 0, 0,
+                BuddhistChronology.getInstanceUTC());
+        Assert.assertEquals(DateTimes.format(buddhist), buddhist.toString());
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.Token;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.ExchangeLogger;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+public class ExchangeLoggerTest {
+
+    private static final String ACCESS_TOKEN = "410012345678901.ABCDEF";
+
+    private final MockWebServer server = new MockWebServer();
+    private final List<String> logged = new CopyOnWriteArrayList<>();
+    private final ExchangeLogger.Sink sink = new ExchangeLogger.Sink() {
+        @Override
+        public void log(String exchange) {
+            logged.add(exchange);
+        }
+    };
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().endsWith("/account-info")) {
+                    // secrets with non-string values
+                    return MockApi.json("{\"csc\":987,\"password\" : true," +
+                            MockApi.ACCOUNT_INFO.substring(1));
+                }
+                return new MockResponse()
+                        .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                        .setBody("{\"access_token\":\"" + ACCESS_TOKEN + "\"}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testRedaction() throws Exception {
+        logged.clear();
+        ExchangeLogger logger = createLogger().create();
+        OAuth2Session session = createSession(logger);
+        session.setAccessToken(ACCESS_TOKEN);
+
+        Token token = session.execute(new Token.Request("secret-code", "client", "https://a.b"));
+        Assert.assertEquals(token.accessToken, ACCESS_TOKEN);
+        Assert.assertTrue(logged.isEmpty());
+
+        Assert.assertEquals(logger.drain(), 1);
+        String exchange = logged.get(0);
+        Assert.assertTrue(exchange.startsWith("--> POST "), exchange);
+        Assert.assertTrue(exchange.contains("<-- 200 OK"), exchange);
+        Assert.assertTrue(exchange.contains("Authorization: <redacted>"), exchange);
+        Assert.assertTrue(exchange.contains("code=<redacted>&client_id=client"), exchange);
+        Assert.assertTrue(exchange.contains("{\"access_token\":\"<redacted>\"}"), exchange);
+        Assert.assertFalse(exchange.contains(ACCESS_TOKEN), exchange);
+        Assert.assertFalse(exchange.contains("secret-code"), exchange);
+    }
+
+    @Test
+    public void testScalarRedaction() throws Exception {
+        logged.clear();
+        ExchangeLogger logger = createLogger().create();
+        createSession(logger).execute(new AccountInfo.Request());
+
+        Assert.assertEquals(logger.drain(), 1);
+        String exchange = logged.get(0);
+        Assert.assertTrue(exchange.contains("{\"csc\":\"<redacted>\","), exchange);
+        Assert.assertTrue(exchange.contains("\"password\" : \"<redacted>\","), exchange);
+        Assert.assertFalse(exchange.contains("\"csc\":987"), exchange);
+        Assert.assertTrue(exchange.contains("\"account\":\"4100123456789\""), exchange);
+    }
+
+    @Test
+    public void testSamplingAndBuffer() throws Exception {
+        logged.clear();
+        ExchangeLogger logger = createLogger().setSampleRate(0).create();
+        createSession(logger).execute(new Token.Request("code", "client", "https://a.b"));
+        Assert.assertEquals(logger.drain(), 0);
+
+        logger = createLogger().setBufferSize(2).setMaxBodySize(10).create();
+        OAuth2Session session = createSession(logger);
+        for (int i = 0; i < 3; ++i) {
+            session.execute(new Token.Request("code", "client", "https://a.b"));
+        }
+        Assert.assertEquals(logger.getDropped(), 1);
+        Assert.assertEquals(logger.drain(), 2);
+        Assert.assertTrue(logged.get(0).contains("\n{\"access_t\n"), logged.get(0));
+
+        session.execute(new Token.Request("code", "client", "https://a.b"));
+        Assert.assertEquals(logger.drain(), 1);
+    }
+
+    @Test
+    public void testAsyncDrain() throws Exception {
+        logged.clear();
+        ExchangeLogger logger = createLogger().setDrainDelay(0, TimeUnit.MILLISECONDS).create();
+        createSession(logger).execute(new Token.Request("code", "client", "https://a.b"));
+        for (int i = 0; i < 100 && logged.isEmpty(); ++i) {
+            Thread.sleep(10);
+        }
+        Assert.assertEquals(logged.size(), 1);
+    }
+
+    private ExchangeLogger.Builder createLogger() {
+        return new ExchangeLogger.Builder()
+                .setSink(sink)
+                .setDrainDelay(1, TimeUnit.HOURS);
+    }
+
+    private OAuth2Session createSession(ExchangeLogger logger) {
+        String host = server.getUrl("").toString();
+        return new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .setExchangeLogger(logger)
+                .create());
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.Token;
+import com.yandex.money.api.net.HostsProvider;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.URL;
+
+public class HostsProviderTest {
+
+    @Test
+    public void testDefaultHosts() throws Exception {
+        HostsProvider hostsProvider = new HostsProvider(false);
+        Assert.assertEquals(hostsProvider.getMoneyApiUrl("/account-info").toString(),
+                "https://money.yandex.ru/api/account-info");
+        Assert.assertEquals(hostsProvider.getSpMoneyUrl("/oauth/token").toString(),
+                "https://sp-money.yandex.ru/oauth/token");
+        Assert.assertEquals(new HostsProvider(true).getSpMoneyUrl("/oauth/token").toString(),
+                "https://m.sp-money.yandex.ru/oauth/token");
+    }
+
+    @Test
+    public void testCachedUrls() throws Exception {
+        HostsProvider hostsProvider = new HostsProvider(false);
+        URL url = new AccountInfo.Request().requestURL(hostsProvider);
+        Assert.assertSame(new AccountInfo.Request().requestURL(hostsProvider), url);
+        Assert.assertNotSame(hostsProvider.getMoneyUrl("/account-info"), url);
+    }
+
+    @Test
+    public void testCustomHosts() throws Exception {
+        HostsProvider hostsProvider = new HostsProvider("http://localhost:8080",
+                "http://localhost:8081");
+        Assert.assertEquals(new AccountInfo.Request().requestURL(hostsProvider).toString(),
+                "http://localhost:8080/api/account-info");
+        Assert.assertEquals(new Token.Request("code", "client", "redirect")
+                .requestURL(hostsProvider).toString(), "http://localhost:8081/oauth/token");
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testEmptyHost() {
+        new HostsProvider("", "http://localhost");
+    }
+}
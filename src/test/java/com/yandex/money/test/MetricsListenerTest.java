@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.yandex.money.api.exceptions.InvalidTokenException;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HistogramMetricsListener;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.net.HttpURLConnection;
+import java.util.concurrent.TimeUnit;
+
+public class MetricsListenerTest {
+
+    @Test
+    public void testPercentiles() {
+        HistogramMetricsListener listener = new HistogramMetricsListener();
+        AccountInfo.Request request = new AccountInfo.Request();
+        for (int i = 1; i <= 1000; ++i) {
+            listener.onResponseParsed(request, 0, TimeUnit.MILLISECONDS.toNanos(i));
+        }
+
+        HistogramMetricsListener.Stats stats = listener.getStats(AccountInfo.Request.class);
+        Assert.assertEquals(stats.getCount(), 1000);
+        Assert.assertEquals(stats.getFailures(), 0);
+        assertApproximately(stats.getP50(TimeUnit.MILLISECONDS), 500);
+        assertApproximately(stats.getP99(TimeUnit.MILLISECONDS), 990);
+        assertApproximately(stats.getLatency(1, TimeUnit.MILLISECONDS), 1000);
+        Assert.assertNull(listener.getStats(OperationHistory.Request.class));
+    }
+
+    @Test
+    public void testSessionEvents() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody("{\"account\":\"4100123456789\",\"balance\":1,\"currency\":\"643\"," +
+                        "\"account_status\":\"named\",\"account_type\":\"personal\"," +
+                        "\"balance_details\":{\"total\":1,\"available\":1}}"));
+        server.enqueue(new MockResponse().setResponseCode(HttpURLConnection.HTTP_UNAUTHORIZED));
+        server.start();
+        try {
+            String host = server.getUrl("").toString();
+            OAuth2Session session = new OAuth2Session(new DefaultApiClient.Builder("stub")
+                    .setHostsProvider(new HostsProvider(host, host))
+                    .create());
+            HistogramMetricsListener listener = new HistogramMetricsListener();
+            session.setMetricsListener(listener);
+
+            session.execute(new AccountInfo.Request());
+            try {
+                session.execute(new AccountInfo.Request());
+                Assert.fail("exception expected");
+            } catch (InvalidTokenException e) {
+                // expected
+            }
+
+            HistogramMetricsListener.Stats stats = listener.getStats(AccountInfo.Request.class);
+            Assert.assertEquals(stats.getCount(), 1);
+            Assert.assertEquals(stats.getFailures(), 1);
+            Assert.assertTrue(stats.getP99(TimeUnit.NANOSECONDS) > 0);
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static void assertApproximately(long actual, long expected) {
+        Assert.assertTrue(Math.abs(actual - expected) <= expected / 10,
+                "expected about " + expected + " but was " + actual);
+    }
+}
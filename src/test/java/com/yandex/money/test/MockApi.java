@@ -0,0 +1,65 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+/**
+ * Helpers for tests that run API against {@link MockWebServer}.
+ */
+final class MockApi {
+
+    static final String ACCOUNT_INFO = "{\"account\":\"4100123456789\",\"balance\":1," +
+            "\"currency\":\"643\",\"account_status\":\"named\",\"account_type\":\"personal\"," +
+            "\"balance_details\":{\"total\":1,\"available\":1}}";
+
+    private MockApi() {
+    }
+
+    /**
+     * @param server started server
+     * @return builder of a client that sends requests to the server
+     */
+    static DefaultApiClient.Builder createClientBuilder(MockWebServer server) {
+        String host = server.getUrl("").toString();
+        return new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host));
+    }
+
+    /**
+     * @param body JSON body
+     * @return response with JSON content type
+     */
+    static MockResponse json(String body) {
+        return new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(body);
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class MultiTenantSessionTest {
+
+    private static final int THREADS = 8;
+    private static final int REQUESTS_PER_THREAD = 25;
+
+    private MockWebServer server;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                // echoes token of a request as account number
+                String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+                String account = authorization == null ? "" : authorization.substring(7);
+                return new MockResponse()
+                        .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                        .setBody("{\"account\":\"" + account + "\",\"balance\":1," +
+                                "\"currency\":\"643\",\"account_status\":\"named\"," +
+                                "\"account_type\":\"personal\"," +
+                                "\"balance_details\":{\"total\":1,\"available\":1}}");
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testIsolationUnderContention() throws Exception {
+        final OAuth2Session session = createSession();
+        session.setAccessToken("root");
+
+        final CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<Integer>> results = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; ++i) {
+                final String token = "token" + i;
+                results.add(executor.submit(new Callable<Integer>() {
+                    @Override
+                    public Integer call() throws Exception {
+                        start.await();
+                        int mismatches = 0;
+                        for (int j = 0; j < REQUESTS_PER_THREAD; ++j) {
+                            OAuth2Session tenant = session.withAccessToken(token);
+                            AccountInfo accountInfo = j % 2 == 0 ?
+                                    tenant.execute(new AccountInfo.Request()) :
+                                    tenant.executeAsync(new AccountInfo.Request())
+                                            .get(10, TimeUnit.SECONDS);
+                            if (!token.equals(accountInfo.account)) {
+                                ++mismatches;
+                            }
+                        }
+                        return mismatches;
+                    }
+                }));
+            }
+            start.countDown();
+
+            for (Future<Integer> result : results) {
+                Assert.assertEquals(result.get(30, TimeUnit.SECONDS), Integer.valueOf(0));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        Assert.assertEquals(server.getRequestCount(), THREADS * REQUESTS_PER_THREAD);
+        Assert.assertEquals(session.execute(new AccountInfo.Request()).account, "root");
+    }
+
+    @Test
+    public void testBoundSession() throws Exception {
+        OAuth2Session session = createSession();
+        session.setSingleFlight(true);
+
+        OAuth2Session tenant = session.withAccessToken("token");
+        Assert.assertTrue(tenant.isBound());
+        Assert.assertTrue(tenant.isAuthorized());
+        Assert.assertFalse(session.isBound());
+        Assert.assertFalse(session.isAuthorized());
+        Assert.assertFalse(session.withAccessToken(null).isAuthorized());
+
+        Assert.assertEquals(tenant.execute(new AccountInfo.Request()).account, "token");
+        Assert.assertEquals(session.withAccessToken("other").execute(new AccountInfo.Request())
+                .account, "other");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testBoundSessionTokenIsImmutable() {
+        createSession().withAccessToken("token").setAccessToken("other");
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testBoundSessionSettingsAreImmutable() {
+        createSession().withAccessToken("token").setSingleFlight(true);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testBoundSessionLoggingIsImmutable() {
+        createSession().withAccessToken("token").setDebugLogging(true);
+    }
+
+    @Test(expectedExceptions = UnsupportedOperationException.class)
+    public void testBoundSessionMetricsListenerIsImmutable() {
+        createSession().withAccessToken("token").setMetricsListener(null);
+    }
+
+    private OAuth2Session createSession() {
+        String host = server.getUrl("").toString();
+        return new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .create());
+    }
+}
@@ -33,6 +33,8 @@ import com.google.gson.JsonObject;
 import com.google.gson.JsonParseException;
 import com.squareup.okhttp.mockwebserver.MockResponse;
 import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.squareup.okhttp.mockwebserver.SocketPolicy;
 import com.yandex.money.api.exceptions.InsufficientScopeException;
 import com.yandex.money.api.exceptions.InvalidRequestException;
 import com.yandex.money.api.exceptions.InvalidTokenException;
@@ -44,7 +46,9 @@ import com.yandex.money.api.net.MethodResponse;
 import com.yandex.money.api.net.OAuth2Session;
 import com.yandex.money.api.net.OnResponseReady;
 import com.yandex.money.api.net.PostRequestBodyBuffer;
+import com.yandex.money.api.net.ResponseFuture;
 import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.Language;
 import com.yandex.money.api.utils.MimeTypes;
 
 import org.testng.Assert;
@@ -54,10 +58,18 @@ import org.testng.annotations.Test;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
 import java.lang.reflect.Type;
 import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * @author Slava Yasevich (vyasevich@yamoney.ru)
@@ -133,6 +145,122 @@ public class OAuth2SessionTest {
                 createRequest(true));
     }
 
+    @Test
+    public void testWithParamsFuture() throws Exception {
+        server.enqueue(createResponse());
+        checkResponse(session.executeAsync(createRequest(true)).get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testBadRequestFuture() throws Exception {
+        server.enqueue(createResponse().setResponseCode(HttpURLConnection.HTTP_BAD_REQUEST));
+        try {
+            session.executeAsync(createRequest(true)).get(10, TimeUnit.SECONDS);
+            Assert.fail("exception expected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InvalidRequestException);
+        }
+    }
+
+    @Test(expectedExceptions = CancellationException.class)
+    public void testCancelFuture() throws Exception {
+        // separate server, so hanging response does not affect other tests
+        MockWebServer server = new MockWebServer();
+        server.enqueue(createResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.start();
+        try {
+            ResponseFuture<Mock> future = session.executeAsync(
+                    new Mock.Request(server.getUrl("/abc")));
+            Assert.assertTrue(future.cancel(true));
+            Assert.assertTrue(future.isCancelled());
+            future.get();
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testDefaultHeaders() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(createResponse());
+        server.enqueue(createResponse());
+        server.start();
+        try {
+            OAuth2Session session = new OAuth2Session(new DefaultApiClient("abc", false, "Test"));
+            session.execute(new Mock.Request(server.getUrl("/abc")));
+            session.execute(new Mock.Request(server.getUrl("/abc")));
+            for (int i = 0; i < 2; ++i) {
+                RecordedRequest request = server.takeRequest();
+                Assert.assertEquals(request.getHeader(HttpHeaders.USER_AGENT),
+                        "Yandex.Money.SDK/Test");
+                Assert.assertEquals(request.getHeader(HttpHeaders.ACCEPT_LANGUAGE),
+                        Language.getDefault().iso6391Code);
+                Assert.assertEquals(request.getHeader(HttpHeaders.CACHE_CONTROL), "no-cache");
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test(expectedExceptions = InterruptedIOException.class)
+    public void testRequestTypeReadTimeout() throws Exception {
+        DefaultApiClient client = new DefaultApiClient.Builder("abc")
+                .setReadTimeout(Mock.Request.class, 200, TimeUnit.MILLISECONDS)
+                .create();
+        Assert.assertNotSame(client.getHttpClient(Mock.Request.class), client.getHttpClient());
+        Assert.assertSame(client.getHttpClient(Mock.Request.class).getConnectionPool(),
+                client.getHttpClient().getConnectionPool());
+        Assert.assertSame(client.getHttpClient(Mock.Request.class).getDispatcher(),
+                client.getHttpClient().getDispatcher());
+
+        MockWebServer server = new MockWebServer();
+        server.enqueue(createResponse().setSocketPolicy(SocketPolicy.NO_RESPONSE));
+        server.start();
+        try {
+            new OAuth2Session(client).execute(new Mock.Request(server.getUrl("/abc")));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    @Test
+    public void testCallbackExecutor() throws Exception {
+        final String threadName = "callback executor";
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                return new Thread(r, threadName);
+            }
+        });
+        try {
+            DefaultApiClient client = new DefaultApiClient.Builder("abc")
+                    .setMaxRequestsPerHost(2)
+                    .setCallbackExecutor(executor)
+                    .create();
+            Assert.assertEquals(client.getHttpClient().getDispatcher().getMaxRequestsPerHost(), 2);
+
+            final AtomicReference<String> callbackThread = new AtomicReference<>();
+            final ThreadSync sync = new ThreadSync();
+            server.enqueue(createResponse());
+            new OAuth2Session(client).enqueue(createRequest(true), new OnResponseReady<Mock>() {
+                @Override
+                public void onFailure(Exception exception) {
+                    sync.doNotify();
+                }
+
+                @Override
+                public void onResponse(Mock response) {
+                    callbackThread.set(Thread.currentThread().getName());
+                    sync.doNotify();
+                }
+            });
+            sync.doWait();
+            Assert.assertEquals(callbackThread.get(), threadName);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
     private static MockResponse createResponse() {
         return createResponseBase()
                 .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON);
@@ -0,0 +1,207 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.exceptions.InvalidTokenException;
+import com.yandex.money.api.history.OperationDetailsFetcher;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OperationDetailsFetcherTest {
+
+    private MockWebServer server;
+    private OAuth2Session session;
+
+    private final AtomicInteger active = new AtomicInteger();
+    private final AtomicInteger maxActive = new AtomicInteger();
+    private volatile String failedId;
+    private volatile int failureCode;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                int current = active.incrementAndGet();
+                while (true) {
+                    int max = maxActive.get();
+                    if (current <= max || maxActive.compareAndSet(max, current)) {
+                        break;
+                    }
+                }
+                try {
+                    Thread.sleep(10);
+                    String id = request.getBody().readUtf8().replace("operation_id=", "");
+                    if (id.equals(failedId)) {
+                        return new MockResponse().setResponseCode(failureCode);
+                    }
+                    return new MockResponse()
+                            .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                            .setBody("{\"operation_id\":\"" + id + "\",\"status\":\"success\"," +
+                                    "\"direction\":\"out\",\"amount\":1.00," +
+                                    "\"datetime\":\"2015-07-10T12:10:29.000+03:00\"," +
+                                    "\"title\":\"Transfer\",\"type\":\"outgoing-transfer\"}");
+                } finally {
+                    active.decrementAndGet();
+                }
+            }
+        });
+        server.start();
+
+        String host = server.getUrl("").toString();
+        session = new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .setRetryPolicy(null)
+                .create());
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testFetch() throws Exception {
+        failedId = "7";
+        failureCode = HttpURLConnection.HTTP_UNAVAILABLE;
+
+        CollectingListener listener = new CollectingListener();
+        int processed = new OperationDetailsFetcher.Builder(session)
+                .setParallelism(3)
+                .create()
+                .fetch(ids(20), listener)
+                .get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(processed, 20);
+        Assert.assertEquals(listener.details.size(), 19);
+        Assert.assertEquals(listener.failures.keySet(), Collections.singleton("7"));
+        for (Map.Entry<String, OperationDetails> entry : listener.details.entrySet()) {
+            Assert.assertEquals(entry.getValue().operation.operationId, entry.getKey());
+        }
+        Assert.assertTrue(maxActive.get() <= 3, "max active requests: " + maxActive.get());
+        Assert.assertEquals(server.getRequestCount(), 20);
+    }
+
+    @Test
+    public void testStopsOnInvalidToken() throws Exception {
+        failedId = "0";
+        failureCode = HttpURLConnection.HTTP_UNAUTHORIZED;
+
+        try {
+            new OperationDetailsFetcher.Builder(session)
+                    .setParallelism(1)
+                    .create()
+                    .fetch(ids(10), new CollectingListener())
+                    .get(10, TimeUnit.SECONDS);
+            Assert.fail("exception expected");
+        } catch (ExecutionException e) {
+            Assert.assertTrue(e.getCause() instanceof InvalidTokenException);
+        }
+        Assert.assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testRateLimit() throws Exception {
+        long started = System.nanoTime();
+        int processed = new OperationDetailsFetcher.Builder(session)
+                .setParallelism(4)
+                .setRateLimit(1, 50, TimeUnit.MILLISECONDS)
+                .create()
+                .fetch(ids(4), new CollectingListener())
+                .get(10, TimeUnit.SECONDS);
+
+        Assert.assertEquals(processed, 4);
+        Assert.assertTrue(System.nanoTime() - started >= TimeUnit.MILLISECONDS.toNanos(150));
+    }
+
+    @Test
+    public void testEmpty() throws Exception {
+        int processed = new OperationDetailsFetcher.Builder(session).create()
+                .fetch(Collections.<String>emptyList(), new CollectingListener())
+                .get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(processed, 0);
+    }
+
+    private static Iterator<String> ids(final int count) {
+        return new Iterator<String>() {
+
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < count;
+            }
+
+            @Override
+            public String next() {
+                return String.valueOf(next++);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    private static final class CollectingListener implements OperationDetailsFetcher.Listener {
+
+        final Map<String, OperationDetails> details = new HashMap<>();
+        final Map<String, Exception> failures = new HashMap<>();
+
+        @Override
+        public void onOperationDetails(String operationId, OperationDetails operationDetails) {
+            details.put(operationId, operationDetails);
+        }
+
+        @Override
+        public void onFailure(String operationId, Exception exception) {
+            failures.put(operationId, exception);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.history.OperationHistoryCursor;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Test(singleThreaded = true)
+public class OperationHistoryCursorTest {
+
+    private final MockWebServer server = new MockWebServer();
+    private OAuth2Session session;
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server.start();
+        String host = server.getUrl("").toString();
+        session = new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .create());
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testPagination() throws Exception {
+        enqueuePage("2", "1", "2");
+        enqueuePage("4", "3", "4");
+        enqueuePage(null, "5");
+
+        List<String> ids = new ArrayList<>();
+        OperationHistoryCursor cursor = new OperationHistoryCursor.Builder(session)
+                .setPageSize(2)
+                .create();
+        while (cursor.hasNext()) {
+            ids.add(cursor.next().operationId);
+        }
+        Assert.assertFalse(cursor.hasNext());
+        Assert.assertEquals(ids.toString(), "[1, 2, 3, 4, 5]");
+
+        Assert.assertEquals(takeRequestBody(), "records=2");
+        Assert.assertEquals(takeRequestBody(), "start_record=2&records=2");
+        Assert.assertEquals(takeRequestBody(), "start_record=4&records=2");
+    }
+
+    @Test
+    public void testError() throws Exception {
+        enqueuePage("2", "1", "2");
+        server.enqueue(createResponse("{\"error\":\"illegal_param_start_record\"}"));
+
+        OperationHistoryCursor cursor = new OperationHistoryCursor.Builder(session).create();
+        Assert.assertEquals(cursor.next().operationId, "1");
+        Assert.assertEquals(cursor.next().operationId, "2");
+        try {
+            cursor.hasNext();
+            Assert.fail("exception expected");
+        } catch (OperationHistoryCursor.FetchException e) {
+            Assert.assertEquals(e.error, Error.ILLEGAL_PARAM_START_RECORD);
+        }
+        takeRequestBody();
+        takeRequestBody();
+    }
+
+    private void enqueuePage(String nextRecord, String... ids) {
+        StringBuilder builder = new StringBuilder("{");
+        if (nextRecord != null) {
+            builder.append("\"next_record\":\"").append(nextRecord).append("\",");
+        }
+        builder.append("\"operations\":[");
+        for (int i = 0; i < ids.length; ++i) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append("{\"operation_id\":\"").append(ids[i])
+                    .append("\",\"title\":\"title\",\"direction\":\"in\"}");
+        }
+        server.enqueue(createResponse(builder.append("]}").toString()));
+    }
+
+    private MockResponse createResponse(String body) {
+        return new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(body);
+    }
+
+    private String takeRequestBody() throws InterruptedException {
+        RecordedRequest request = server.takeRequest();
+        return request.getBody().readUtf8();
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.history.OperationHistoryExporter;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.util.List;
+
+public class OperationHistoryExporterTest {
+
+    private static final DateTime FROM = new DateTime(2015, 1, 1, 0, 0, DateTimeZone.UTC);
+    private static final DateTime TILL = FROM.plusDays(3);
+
+    private final MockWebServer server = new MockWebServer();
+    private final OAuth2Session session = new OAuth2Session(new DefaultApiClient("stub") {
+        @Override
+        public HostsProvider getHostsProvider() {
+            return new HostsProvider(false) {
+                @Override
+                public String getMoney() {
+                    return server.getUrl("").toString();
+                }
+            };
+        }
+    });
+
+    @BeforeClass
+    public void setUp() throws IOException {
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                return createSlicePage(request.getBody().readUtf8());
+            }
+        });
+        server.start();
+    }
+
+    @AfterClass
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testExport() throws Exception {
+        List<Operation> operations = new OperationHistoryExporter.Builder(session)
+                .setFrom(FROM)
+                .setTill(TILL)
+                .setSlices(3)
+                .setParallelism(2)
+                .create()
+                .export();
+
+        Assert.assertEquals(operations.size(), 4);
+        Assert.assertEquals(operations.get(0).operationId, "shared");
+        for (int i = 1; i < operations.size(); ++i) {
+            Assert.assertTrue(operations.get(i).datetime.isEqual(FROM.plusDays(i - 1)));
+        }
+        Assert.assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testIllegalWindow() {
+        new OperationHistoryExporter.Builder(session)
+                .setFrom(TILL)
+                .setTill(FROM)
+                .create();
+    }
+
+    /**
+     * Every slice responds with an operation created at the beginning of the slice and with an
+     * operation that is shared between all slices.
+     */
+    private static MockResponse createSlicePage(String body) {
+        String from = null;
+        for (String param : body.split("&")) {
+            if (param.startsWith("from=")) {
+                from = param.substring("from=".length());
+            }
+        }
+        try {
+            from = URLDecoder.decode(from, "UTF-8");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody("{\"operations\":[" +
+                        "{\"operation_id\":\"" + from + "\",\"title\":\"slice\"," +
+                        "\"direction\":\"in\",\"datetime\":\"" + from + "\"}," +
+                        "{\"operation_id\":\"shared\",\"title\":\"shared\",\"direction\":\"in\"," +
+                        "\"datetime\":\"" + FROM.minusDays(1) + "\"}]}");
+    }
+}
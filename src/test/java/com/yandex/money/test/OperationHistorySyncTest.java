@@ -0,0 +1,194 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.yandex.money.api.history.FileCheckpointStore;
+import com.yandex.money.api.history.OperationHistoryCursor;
+import com.yandex.money.api.history.OperationHistorySync;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.joda.time.DateTime;
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class OperationHistorySyncTest {
+
+    private static final String WALLET = "4100123456789";
+
+    private MockWebServer server;
+    private OAuth2Session session;
+    private File directory;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+        String host = server.getUrl("").toString();
+        session = new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .setRetryPolicy(null)
+                .create());
+        directory = Files.createTempDirectory("checkpoints").toFile();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                Assert.assertTrue(file.delete());
+            }
+        }
+        Assert.assertTrue(directory.delete());
+    }
+
+    @Test
+    public void testIncrementalSync() throws Exception {
+        OperationHistorySync sync = createSync(new FileCheckpointStore(directory));
+
+        enqueuePage(operation("3", "12:05:00", "in_progress"),
+                operation("2", "12:00:00", "success"),
+                operation("1", "11:00:00", "success"));
+        Assert.assertEquals(ids(sync.sync()), "[1, 2, 3]");
+        Assert.assertFalse(takeRequestBody().contains("from="));
+
+        // new operation, status change inside the overlap window
+        enqueuePage(operation("4", "12:20:00", "success"), operation("3", "12:05:00", "success"),
+                operation("2", "12:00:00", "success"));
+        Assert.assertEquals(ids(sync.sync()), "[3, 4]");
+        Assert.assertTrue(takeRequestBody().contains("from=2015-07-10T11%3A55%3A00"));
+
+        // nothing new
+        enqueuePage(operation("4", "12:20:00", "success"));
+        Assert.assertEquals(ids(sync.sync()), "[]");
+        Assert.assertTrue(takeRequestBody().contains("from=2015-07-10T12%3A10%3A00"));
+    }
+
+    @Test
+    public void testCheckpointPersisted() throws Exception {
+        enqueuePage(operation("2", "12:00:00", "in_progress"),
+                operation("1", "11:00:00", "success"));
+        createSync(new FileCheckpointStore(directory)).sync();
+
+        OperationHistorySync.Checkpoint checkpoint =
+                new FileCheckpointStore(directory).load(WALLET);
+        Assert.assertNotNull(checkpoint);
+        Assert.assertEquals(checkpoint.operationId, "2");
+        Assert.assertTrue(checkpoint.datetime.isEqual(
+                DateTime.parse("2015-07-10T12:00:00.000+03:00")));
+        Assert.assertEquals(checkpoint.getStatuses().size(), 1);
+        Assert.assertEquals(checkpoint.getStatuses().get("2"), Operation.Status.IN_PROGRESS);
+
+        // another instance continues from the checkpoint
+        enqueuePage(operation("2", "12:00:00", "success"));
+        List<Operation> delta = createSync(new FileCheckpointStore(directory)).sync();
+        Assert.assertEquals(ids(delta), "[2]");
+        Assert.assertEquals(delta.get(0).status, Operation.Status.SUCCESS);
+    }
+
+    @Test
+    public void testFailureKeepsCheckpoint() throws Exception {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        OperationHistorySync sync = createSync(store);
+
+        enqueuePage(operation("1", "12:00:00", "success"));
+        sync.sync();
+
+        server.enqueue(new MockResponse().setResponseCode(HttpURLConnection.HTTP_UNAVAILABLE));
+        try {
+            sync.sync();
+            Assert.fail("exception expected");
+        } catch (OperationHistoryCursor.FetchException e) {
+            // expected
+        }
+        Assert.assertEquals(store.load(WALLET).operationId, "1");
+    }
+
+    @Test
+    public void testUnsafeWalletName() throws Exception {
+        FileCheckpointStore store = new FileCheckpointStore(directory);
+        OperationHistorySync.Checkpoint checkpoint = new OperationHistorySync.Checkpoint(
+                DateTime.now(), "1", new HashMap<String, Operation.Status>());
+        store.save("../wallet", checkpoint);
+        Assert.assertEquals(store.load("../wallet").operationId, "1");
+        Assert.assertNull(store.load("wallet"));
+        Assert.assertEquals(directory.listFiles().length, 1);
+    }
+
+    private OperationHistorySync createSync(OperationHistorySync.CheckpointStore store) {
+        return new OperationHistorySync.Builder(session, store, WALLET)
+                .setOverlap(10, TimeUnit.MINUTES)
+                .create();
+    }
+
+    private void enqueuePage(String... operations) {
+        StringBuilder builder = new StringBuilder("{\"operations\":[");
+        for (int i = 0; i < operations.length; ++i) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(operations[i]);
+        }
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(builder.append("]}").toString()));
+    }
+
+    private String takeRequestBody() throws InterruptedException {
+        return server.takeRequest().getBody().readUtf8();
+    }
+
+    private static String operation(String id, String time, String status) {
+        return "{\"operation_id\":\"" + id + "\",\"status\":\"" + status + "\"," +
+                "\"datetime\":\"2015-07-10T" + time + ".000+03:00\",\"title\":\"title\"," +
+                "\"direction\":\"in\"}";
+    }
+
+    private static String ids(List<Operation> operations) {
+        List<String> ids = new ArrayList<>();
+        for (Operation operation : operations) {
+            ids.add(operation.operationId);
+        }
+        return ids.toString();
+    }
+}
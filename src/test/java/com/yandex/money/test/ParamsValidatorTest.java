@@ -0,0 +1,144 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.methods.params.P2pParams;
+import com.yandex.money.api.methods.params.ParamsValidator;
+import com.yandex.money.api.methods.params.PhoneParams;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.PayeeIdentifierType;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ParamsValidatorTest {
+
+    @Test
+    public void testValidParams() {
+        Assert.assertTrue(ParamsValidator.validate(
+                new P2pParams("41001234567890", new BigDecimal("0.01"), "message")).isEmpty());
+        Assert.assertTrue(ParamsValidator.validate(
+                new P2pParams("user@example.com", new BigDecimal("100.50"))).isEmpty());
+        Assert.assertTrue(ParamsValidator.validate(
+                new PhoneParams("79000000000", new BigDecimal("0.02"))).isEmpty());
+        Assert.assertTrue(new RequestPayment.Request.P2pBuilder()
+                .setTo("+7 (900) 000-00-00")
+                .setAmount(new BigDecimal("10.00"))
+                .setLabel("order-1")
+                .setExpirePeriod(365)
+                .validate()
+                .isEmpty());
+    }
+
+    @Test
+    public void testAllViolationsReported() {
+        List<ParamsValidator.Violation> violations = new RequestPayment.Request.P2pBuilder()
+                .setTo("not a payee")
+                .setAmount(new BigDecimal("0.015"))
+                .setLabel(repeat('x', 65))
+                .setExpirePeriod(0)
+                .validate();
+        assertErrors(violations, Error.ILLEGAL_PARAM_TO, Error.ILLEGAL_PARAM_AMOUNT,
+                Error.ILLEGAL_PARAM_LABEL, Error.ILLEGAL_PARAM_EXPIRE_PERIOD);
+
+        assertErrors(new RequestPayment.Request.P2pBuilder().validate(),
+                Error.ILLEGAL_PARAM_TO, Error.ILLEGAL_PARAM_AMOUNT);
+        assertErrors(new RequestPayment.Request.P2pBuilder()
+                .setTo("41001234567890")
+                .setAmount(BigDecimal.ONE)
+                .setAmountDue(BigDecimal.ONE)
+                .validate(), Error.ILLEGAL_PARAMS);
+        assertErrors(ParamsValidator.validate(new P2pParams("41001234567890", BigDecimal.ZERO)),
+                Error.ILLEGAL_PARAM_AMOUNT_DUE);
+        assertErrors(ParamsValidator.validate(new PhoneParams("+7900", new BigDecimal("0.01"))),
+                Error.ILLEGAL_PARAMS, Error.ILLEGAL_PARAM_AMOUNT);
+    }
+
+    @Test
+    public void testPaymentParameters() {
+        Map<String, String> parameters = new HashMap<>();
+        parameters.put("customerNumber", "1234");
+        parameters.put("sum", "100");
+        Assert.assertTrue(ParamsValidator.validate("337", parameters).isEmpty());
+
+        // shops have their own amount rules
+        parameters.put("amount", "0.001");
+        Assert.assertTrue(ParamsValidator.validate("337", parameters).isEmpty());
+
+        parameters.put("comment", null);
+        List<ParamsValidator.Violation> violations = ParamsValidator.validate("", parameters);
+        assertErrors(violations, Error.ILLEGAL_PARAMS, Error.ILLEGAL_PARAMS);
+
+        parameters.clear();
+        parameters.put("phone-number", "79000000000");
+        parameters.put("amount", "1,50");
+        assertErrors(ParamsValidator.validate(PhoneParams.PATTERN_ID, parameters),
+                Error.ILLEGAL_PARAM_AMOUNT);
+
+        parameters.clear();
+        parameters.put("to", "41001234567890");
+        parameters.put("amount_due", "10.5");
+        Assert.assertTrue(ParamsValidator.validate(P2pParams.PATTERN_ID, parameters).isEmpty());
+    }
+
+    @Test
+    public void testPayeeIdentifierType() {
+        Assert.assertEquals(PayeeIdentifierType.determine("41001234567890"),
+                PayeeIdentifierType.ACCOUNT);
+        Assert.assertEquals(PayeeIdentifierType.determine("+7 900 000-00-00"),
+                PayeeIdentifierType.PHONE);
+        Assert.assertEquals(PayeeIdentifierType.determine("user@example.com"),
+                PayeeIdentifierType.EMAIL);
+        Assert.assertEquals(PayeeIdentifierType.determine("user name"),
+                PayeeIdentifierType.UNKNOWN);
+    }
+
+    private static void assertErrors(List<ParamsValidator.Violation> violations,
+                                     Error... errors) {
+        List<Error> actual = new ArrayList<>();
+        for (ParamsValidator.Violation violation : violations) {
+            actual.add(violation.error);
+        }
+        List<Error> expected = new ArrayList<>();
+        for (Error error : errors) {
+            expected.add(error);
+        }
+        Assert.assertEqualsNoOrder(actual.toArray(), expected.toArray(), violations.toString());
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; ++i) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -34,6 +34,7 @@ import com.yandex.money.api.model.MoneySource;
 import com.yandex.money.api.net.DefaultApiClient;
 import com.yandex.money.api.net.HostsProvider;
 import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.ResponseFuture;
 import com.yandex.money.api.processes.BasePaymentProcess;
 import com.yandex.money.api.processes.ExtendedPaymentProcess;
 import com.yandex.money.api.processes.ExternalPaymentProcess;
@@ -48,6 +49,7 @@ import org.testng.annotations.Test;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author Slava Yasevich (vyasevich@yamoney.ru)
@@ -87,6 +89,21 @@ public class PaymentProcessTest {
         checkAsyncPaymentProcess(new PaymentProcess(session, parameterProvider));
     }
 
+    @Test
+    public void testFuturePaymentProcess() throws Exception {
+        enqueuePaymentProcess();
+        final PaymentProcess process = new PaymentProcess(session, parameterProvider);
+        ProcessPayment processPayment = process.requestPaymentAsync()
+                .thenCompose(new ResponseFuture.Continuation<RequestPayment, ProcessPayment>() {
+                    @Override
+                    public ResponseFuture<ProcessPayment> then(RequestPayment response) {
+                        return process.processPaymentAsync();
+                    }
+                })
+                .get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(processPayment.status, ProcessPayment.Status.SUCCESS);
+    }
+
     @Test
     public void testExternalPaymentProcess() throws Exception {
         enqueueExternalPaymentProcess();
@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.yandex.money.api.net.PostRequestBodyBuffer;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.Charset;
+import java.util.Random;
+
+public class PostRequestBodyBufferTest {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    @Test
+    public void testSimpleParams() throws Exception {
+        PostRequestBodyBuffer buffer = new PostRequestBodyBuffer()
+                .addParam("pattern_id", "p2p")
+                .addParam("to", "41001 1234+5")
+                .addParam("amount", 10)
+                .addParamIfNotNull("comment", (String) null);
+        Assert.assertEquals(new String(buffer.toByteArray(), UTF_8),
+                "pattern_id=p2p&to=41001%201234%2B5&amount=10");
+    }
+
+    @Test
+    public void testSpecialCharacters() throws Exception {
+        checkParam("a b", "a b");
+        checkParam("~!@#$%^&*()_+-=[]{};':\",./<>?\\|`", "\t\r\n\u0000\u007f");
+        checkParam("\u043f\u0435\u0440\u0435\u0432\u043e\u0434", "\u20ac\u00a9\ud83d\ude00");
+        checkParam("lone", "\ud83d x \ude00 \ud83d");
+        checkParam("", "");
+    }
+
+    @Test
+    public void testRandomStrings() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 1000; ++i) {
+            checkParam(randomString(random), randomString(random));
+        }
+    }
+
+    @Test
+    public void testGrowth() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 1000; ++i) {
+            builder.append("\u044f ");
+        }
+        checkParam("long", builder.toString());
+    }
+
+    private static void checkParam(String name, String value) throws Exception {
+        PostRequestBodyBuffer buffer = new PostRequestBodyBuffer()
+                .addParam("first", "1")
+                .addParam(name, value);
+        Assert.assertEquals(buffer.toByteArray(), encode(name, value),
+                "name: " + name + ", value: " + value);
+    }
+
+    /**
+     * Encoding used by {@link PostRequestBodyBuffer} before it started to encode directly.
+     */
+    private static byte[] encode(String name, String value) throws Exception {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        stream.write("first=1&".getBytes(UTF_8));
+        stream.write(URLEncoder.encode(name, UTF_8.name()).getBytes(UTF_8));
+        stream.write('=');
+        stream.write(URLEncoder.encode(value, UTF_8.name()).replace("+", "%20").getBytes(UTF_8));
+        return stream.toByteArray();
+    }
+
+    private static String randomString(Random random) {
+        char[] chars = new char[random.nextInt(20)];
+        for (int i = 0; i < chars.length; ++i) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    chars[i] = (char) random.nextInt(0x80);
+                    break;
+                case 1:
+                    chars[i] = (char) (0x80 + random.nextInt(0x780));
+                    break;
+                case 2:
+                    chars[i] = (char) random.nextInt(0x10000);
+                    break;
+                default:
+                    chars[i] = (char) (0xd800 + random.nextInt(0x800));
+                    break;
+            }
+        }
+        return new String(chars);
+    }
+}
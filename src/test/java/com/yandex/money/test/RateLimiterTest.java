@@ -0,0 +1,178 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.yandex.money.api.exceptions.RateLimitExceededException;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.RateLimiter;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RateLimiterTest {
+
+    private final AccountInfo.Request accountInfo = new AccountInfo.Request();
+    private final OperationHistory.Request operationHistory =
+            new OperationHistory.Request.Builder().createRequest();
+
+    @Test
+    public void testFailFast() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter.Builder()
+                .setLimit(AccountInfo.Request.class, 3, 1, TimeUnit.HOURS)
+                .create();
+
+        for (int i = 0; i < 3; ++i) {
+            Assert.assertEquals(rateLimiter.acquire(accountInfo, "token1"), 0);
+        }
+        try {
+            rateLimiter.acquire(accountInfo, "token1");
+            Assert.fail("exception expected");
+        } catch (RateLimitExceededException e) {
+            // expected
+        }
+
+        // other tokens and types have their own buckets
+        Assert.assertEquals(rateLimiter.acquire(accountInfo, "token2"), 0);
+        Assert.assertEquals(rateLimiter.acquire(accountInfo, null), 0);
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(rateLimiter.acquire(operationHistory, "token1"), 0);
+        }
+    }
+
+    @Test
+    public void testWait() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter.Builder()
+                .setDefaultLimit(1, 1, TimeUnit.SECONDS)
+                .setMaxWait(5, TimeUnit.SECONDS)
+                .create();
+
+        Assert.assertEquals(rateLimiter.acquire(operationHistory, "token"), 0);
+        long wait = rateLimiter.acquire(operationHistory, "token");
+        Assert.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(900), "wait: " + wait);
+        Assert.assertTrue(wait <= TimeUnit.SECONDS.toNanos(1), "wait: " + wait);
+        wait = rateLimiter.acquire(operationHistory, "token");
+        Assert.assertTrue(wait > TimeUnit.MILLISECONDS.toNanos(1900), "wait: " + wait);
+    }
+
+    @Test
+    public void testEviction() throws Exception {
+        RateLimiter rateLimiter = new RateLimiter.Builder()
+                .setDefaultLimit(1, 1, TimeUnit.MILLISECONDS)
+                .create();
+
+        for (int i = 0; i < 1023; ++i) {
+            rateLimiter.acquire(accountInfo, "token" + i);
+        }
+        Assert.assertEquals(rateLimiter.size(), 1023);
+
+        // buckets are refilled to full
+        Thread.sleep(10);
+        rateLimiter.acquire(accountInfo, "token");
+        Assert.assertEquals(rateLimiter.size(), 1);
+    }
+
+    @Test
+    public void testConcurrentAcquire() throws Exception {
+        final int permits = 100;
+        final RateLimiter rateLimiter = new RateLimiter.Builder()
+                .setDefaultLimit(permits, 1, TimeUnit.HOURS)
+                .create();
+
+        final AtomicInteger acquired = new AtomicInteger();
+        final CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        for (int j = 0; j < permits; ++j) {
+                            try {
+                                rateLimiter.acquire(accountInfo, "token");
+                                acquired.incrementAndGet();
+                            } catch (RateLimitExceededException e) {
+                                // rejected
+                            }
+                        }
+                    } catch (InterruptedException e) {
+                        // finish
+                    }
+                }
+            };
+            threads[i].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(acquired.get(), permits);
+    }
+
+    @Test
+    public void testSession() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.start();
+        try {
+            String host = server.getUrl("").toString();
+            OAuth2Session session = new OAuth2Session(new DefaultApiClient.Builder("stub")
+                    .setHostsProvider(new HostsProvider(host, host))
+                    .setRateLimiter(new RateLimiter.Builder()
+                            .setLimit(AccountInfo.Request.class, 1, 1, TimeUnit.HOURS)
+                            .create())
+                    .create());
+            session.setAccessToken("token");
+
+            server.enqueue(new MockResponse()
+                    .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                    .setBody("{\"account\":\"4100123456789\",\"balance\":1," +
+                            "\"currency\":\"643\",\"account_status\":\"named\"," +
+                            "\"account_type\":\"personal\"," +
+                            "\"balance_details\":{\"total\":1,\"available\":1}}"));
+            Assert.assertEquals(session.execute(accountInfo).account, "4100123456789");
+            try {
+                session.execute(accountInfo);
+                Assert.fail("exception expected");
+            } catch (RateLimitExceededException e) {
+                // expected
+            }
+            // rejected request has not reached the server
+            Assert.assertEquals(server.getRequestCount(), 1);
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.OperationDetails;
+import com.yandex.money.api.model.MoneySource;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.ResponseCache;
+import com.yandex.money.api.processes.PaymentProcess;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ResponseCacheTest {
+
+    private static final String ACCOUNT_INFO = "{\"account\":\"4100123456789\",\"balance\":1," +
+            "\"currency\":\"643\",\"account_status\":\"named\",\"account_type\":\"personal\"," +
+            "\"balance_details\":{\"total\":1,\"available\":1}}";
+
+    private MockWebServer server;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testAccountInfoCached() throws Exception {
+        OAuth2Session session = createSession(new ResponseCache.Builder().create());
+        session.setAccessToken("token");
+        enqueue(ACCOUNT_INFO);
+
+        AccountInfo accountInfo = session.execute(new AccountInfo.Request());
+        Assert.assertSame(session.execute(new AccountInfo.Request()), accountInfo);
+        Assert.assertSame(session.executeAsync(new AccountInfo.Request())
+                .get(10, TimeUnit.SECONDS), accountInfo);
+        Assert.assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testTokensSeparated() throws Exception {
+        OAuth2Session session = createSession(new ResponseCache.Builder().create());
+        enqueue(ACCOUNT_INFO);
+        enqueue(ACCOUNT_INFO);
+
+        session.setAccessToken("token1");
+        AccountInfo first = session.execute(new AccountInfo.Request());
+        session.setAccessToken("token2");
+        Assert.assertNotSame(session.execute(new AccountInfo.Request()), first);
+        Assert.assertEquals(server.getRequestCount(), 2);
+
+        session.setAccessToken("token1");
+        Assert.assertSame(session.execute(new AccountInfo.Request()), first);
+    }
+
+    @Test
+    public void testTtl() throws Exception {
+        OAuth2Session session = createSession(new ResponseCache.Builder()
+                .setTtl(AccountInfo.Request.class, 50, TimeUnit.MILLISECONDS)
+                .create());
+        enqueue(ACCOUNT_INFO);
+        enqueue(ACCOUNT_INFO);
+
+        session.execute(new AccountInfo.Request());
+        Thread.sleep(100);
+        session.execute(new AccountInfo.Request());
+        Assert.assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testOperationDetails() throws Exception {
+        OAuth2Session session = createSession(new ResponseCache.Builder()
+                .setTtl(OperationDetails.Request.class, 50, TimeUnit.MILLISECONDS)
+                .create());
+        enqueue(operation("1", "in_progress"));
+        enqueue(operation("1", "success"));
+        enqueue(operation("2", "success"));
+
+        // operation in progress lives for a short time
+        session.execute(new OperationDetails.Request("1"));
+        Thread.sleep(100);
+        session.execute(new OperationDetails.Request("1"));
+        Thread.sleep(100);
+        Assert.assertEquals(session.execute(new OperationDetails.Request("1")).operation.operationId,
+                "1");
+        Assert.assertEquals(server.getRequestCount(), 2);
+
+        // different parameters
+        Assert.assertEquals(session.execute(new OperationDetails.Request("2")).operation.operationId,
+                "2");
+        Assert.assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test
+    public void testMaxSize() throws Exception {
+        ResponseCache cache = new ResponseCache.Builder().setMaxSize(2).create();
+        OAuth2Session session = createSession(cache);
+        for (int i = 0; i < 3; ++i) {
+            enqueue(operation(String.valueOf(i), "success"));
+            session.execute(new OperationDetails.Request(String.valueOf(i)));
+        }
+        Assert.assertEquals(cache.size(), 2);
+
+        // least recently used entry is evicted
+        enqueue(operation("0", "success"));
+        session.execute(new OperationDetails.Request("0"));
+        Assert.assertEquals(server.getRequestCount(), 4);
+        session.execute(new OperationDetails.Request("2"));
+        Assert.assertEquals(server.getRequestCount(), 4);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNotReadOnly() {
+        new ResponseCache.Builder().setTtl(com.yandex.money.api.methods.RequestPayment.Request.class,
+                1, TimeUnit.MINUTES);
+    }
+
+    @Test
+    public void testInvalidatedOnPaymentCompleted() throws Exception {
+        ResponseCache cache = new ResponseCache.Builder().create();
+        OAuth2Session session = createSession(cache);
+        session.setAccessToken("token");
+        enqueue(ACCOUNT_INFO);
+        session.execute(new AccountInfo.Request());
+
+        // other token keeps its balance
+        session.setAccessToken("other");
+        enqueue(ACCOUNT_INFO);
+        session.execute(new AccountInfo.Request());
+        Assert.assertEquals(cache.size(), 2);
+
+        session.setAccessToken("token");
+        enqueue("{\"status\":\"success\",\"request_id\":\"1\",\"balance\":1000}");
+        enqueue("{\"status\":\"success\",\"payment_id\":\"2\",\"balance\":900}");
+        PaymentProcess process = new PaymentProcess(session, createParameterProvider());
+        Assert.assertFalse(process.proceed());
+        Assert.assertEquals(cache.size(), 2);
+        Assert.assertTrue(process.proceed());
+        Assert.assertEquals(cache.size(), 1);
+
+        enqueue(ACCOUNT_INFO);
+        session.execute(new AccountInfo.Request());
+        Assert.assertEquals(server.getRequestCount(), 5);
+    }
+
+    @Test
+    public void testNotInvalidatedOnPaymentRefused() throws Exception {
+        ResponseCache cache = new ResponseCache.Builder().create();
+        OAuth2Session session = createSession(cache);
+        session.setAccessToken("token");
+        enqueue(ACCOUNT_INFO);
+        session.execute(new AccountInfo.Request());
+
+        enqueue("{\"status\":\"success\",\"request_id\":\"1\",\"balance\":1000}");
+        enqueue("{\"status\":\"refused\",\"error\":\"not_enough_funds\"}");
+        PaymentProcess process = new PaymentProcess(session, createParameterProvider());
+        Assert.assertFalse(process.proceed());
+        Assert.assertTrue(process.proceed());
+        Assert.assertEquals(cache.size(), 1);
+    }
+
+    @Test
+    public void testStaleResponseNotCached() throws Exception {
+        ResponseCache cache = new ResponseCache.Builder().create();
+        HostsProvider hostsProvider = new HostsProvider(false);
+        AccountInfo.Request request = new AccountInfo.Request();
+        AccountInfo accountInfo = request.parseResponse(
+                new ByteArrayInputStream(ACCOUNT_INFO.getBytes("UTF-8")));
+
+        // request has been sent before invalidation and completed after it
+        long generation = cache.getGeneration("token");
+        cache.invalidate(AccountInfo.Request.class, "token");
+        Assert.assertFalse(cache.put(request, hostsProvider, "token", accountInfo, generation));
+        Assert.assertNull(cache.get(request, hostsProvider, "token"));
+
+        Assert.assertTrue(cache.put(request, hostsProvider, "token", accountInfo,
+                cache.getGeneration("token")));
+        Assert.assertSame(cache.get(request, hostsProvider, "token"), accountInfo);
+    }
+
+    private OAuth2Session createSession(ResponseCache cache) {
+        String host = server.getUrl("").toString();
+        return new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .setResponseCache(cache)
+                .create());
+    }
+
+    private void enqueue(String body) {
+        server.enqueue(new MockResponse()
+                .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                .setBody(body));
+    }
+
+    private static String operation(String id, String status) {
+        return "{\"operation_id\":\"" + id + "\",\"status\":\"" + status + "\"," +
+                "\"pattern_id\":\"p2p\",\"direction\":\"out\",\"amount\":1.00," +
+                "\"datetime\":\"2015-07-10T12:10:29.000+03:00\",\"title\":\"Transfer\"," +
+                "\"type\":\"outgoing-transfer\"}";
+    }
+
+    private static PaymentProcess.ParameterProvider createParameterProvider() {
+        return new PaymentProcess.ParameterProvider() {
+            @Override
+            public String getPatternId() {
+                return "p2p";
+            }
+
+            @Override
+            public Map<String, String> getPaymentParameters() {
+                return new HashMap<>();
+            }
+
+            @Override
+            public MoneySource getMoneySource() {
+                return null;
+            }
+
+            @Override
+            public String getCsc() {
+                return null;
+            }
+
+            @Override
+            public String getExtAuthSuccessUri() {
+                return "stub";
+            }
+
+            @Override
+            public String getExtAuthFailUri() {
+                return "stub";
+            }
+        };
+    }
+}
@@ -0,0 +1,192 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package com.yandex.money.test;
+
+import com.google.gson.JsonParser;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.BaseProcessPayment;
+import com.yandex.money.api.methods.BaseRequestPayment;
+import com.yandex.money.api.methods.OperationHistory;
+import com.yandex.money.api.methods.ProcessExternalPayment;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestExternalPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.model.Amount;
+import com.yandex.money.api.model.Card;
+import com.yandex.money.api.model.Error;
+import com.yandex.money.api.model.Operation;
+import com.yandex.money.api.model.Wallet;
+import com.yandex.money.api.utils.Currency;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+
+/**
+ * Checks parsing of API responses.
+ */
+public class ResponseParsingTest {
+
+    private static final String OPERATION = "{" +
+            "\"operation_id\":\"1234567\",\"status\":\"success\",\"pattern_id\":\"p2p\"," +
+            "\"direction\":\"out\",\"amount\":500.10,\"datetime\":\"2015-07-10T12:10:29.000+03:00\"," +
+            "\"title\":\"Transfer\",\"unknown\":{\"nested\":[1,2,{}]},\"codepro\":false," +
+            "\"payment_parameters\":{\"sum\":10,\"array\":[1]},\"favourite\":true," +
+            "\"digital_goods\":{\"article\":[{\"serial\":\"1\",\"secret\":\"2\"}]}}";
+
+    @Test
+    public void testOperationHistory() {
+        OperationHistory history = new OperationHistory.Request.Builder().createRequest()
+                .parseResponse(stream("{\"next_record\":\"1\",\"operations\":[" + OPERATION +
+                        "," + OPERATION + "]}"));
+        Assert.assertNull(history.error);
+        Assert.assertEquals(history.nextRecord, "1");
+        Assert.assertEquals(history.operations.size(), 2);
+
+        Operation operation = history.operations.get(0);
+        Assert.assertEquals(operation.operationId, "1234567");
+        Assert.assertEquals(operation.status, Operation.Status.SUCCESS);
+        Assert.assertEquals(operation.direction, Operation.Direction.OUTGOING);
+        Assert.assertEquals(operation.amount, new BigDecimal("500.10"));
+        Assert.assertEquals(operation.amountValue, Amount.ofMinorUnits(50010, Currency.RUB));
+        Assert.assertNull(operation.fee);
+        Assert.assertNull(operation.feeValue);
+        Assert.assertEquals(operation.datetime.getMonthOfYear(), 7);
+        Assert.assertEquals(operation.title, "Transfer");
+        Assert.assertEquals(operation.type, Operation.Type.UNKNOWN);
+        Assert.assertTrue(operation.favorite);
+        Assert.assertEquals(operation.paymentParameters.get("sum"), "10");
+        Assert.assertTrue(operation.paymentParameters.containsKey("array"));
+        Assert.assertNull(operation.paymentParameters.get("array"));
+        Assert.assertEquals(operation.digitalGoods.article.size(), 1);
+        Assert.assertEquals(operation.digitalGoods.bonus.size(), 0);
+
+        Operation fromTree = Operation.createFromJson(new JsonParser().parse(OPERATION));
+        Assert.assertEquals(fromTree.toString(), operation.toString());
+
+        history = new OperationHistory.Request.Builder().createRequest()
+                .parseResponse(stream("{\"error\":\"illegal_param_type\"}"));
+        Assert.assertEquals(history.error, Error.ILLEGAL_PARAM_TYPE);
+        Assert.assertTrue(history.operations.isEmpty());
+    }
+
+    @Test(expectedExceptions = NullPointerException.class)
+    public void testOperationMandatoryValue() {
+        new OperationHistory.Request.Builder().createRequest()
+                .parseResponse(stream("{\"operations\":[{\"operation_id\":\"1\"}]}"));
+    }
+
+    @Test
+    public void testAccountInfo() {
+        AccountInfo accountInfo = new AccountInfo.Request().parseResponse(stream("{" +
+                "\"account\":\"4100123456789\",\"balance\":1000.01,\"currency\":\"643\"," +
+                "\"account_status\":\"named\",\"account_type\":\"personal\"," +
+                "\"balance_details\":{\"total\":1000.01,\"available\":900}," +
+                "\"cards_linked\":[{\"pan_fragment\":\"5280****7918\",\"type\":\"MasterCard\"}]," +
+                "\"services_additional\":[\"loyal\"]}"));
+        Assert.assertEquals(accountInfo.account, "4100123456789");
+        Assert.assertEquals(accountInfo.balance, new BigDecimal("1000.01"));
+        Assert.assertEquals(accountInfo.currency, Currency.RUB);
+        Assert.assertEquals(accountInfo.balanceValue, Amount.ofMinorUnits(100001, Currency.RUB));
+        Assert.assertNull(accountInfo.avatar);
+        Assert.assertEquals(accountInfo.balanceDetails.available, new BigDecimal("900"));
+        Assert.assertEquals(accountInfo.linkedCards.size(), 1);
+        Assert.assertEquals(accountInfo.linkedCards.get(0).type, Card.Type.MASTER_CARD);
+        Assert.assertEquals(accountInfo.additionalServices.get(0), "loyal");
+    }
+
+    @Test
+    public void testRequestPayment() {
+        RequestPayment requestPayment = new RequestPayment.Request("p2p",
+                new HashMap<String, String>()).parseResponse(stream("{\"status\":\"success\"," +
+                "\"money_source\":{\"cards\":{\"items\":[{\"id\":\"1\",\"type\":\"VISA\"}]," +
+                "\"csc_required\":true,\"allowed\":true},\"wallet\":{\"allowed\":true}}," +
+                "\"request_id\":\"2\",\"contract_amount\":10.50}"));
+        Assert.assertEquals(requestPayment.status, BaseRequestPayment.Status.SUCCESS);
+        Assert.assertEquals(requestPayment.requestId, "2");
+        Assert.assertEquals(requestPayment.contractAmount, new BigDecimal("10.50"));
+        Assert.assertTrue(requestPayment.cscRequired);
+        Assert.assertEquals(requestPayment.moneySources.size(), 2);
+        Assert.assertTrue(requestPayment.moneySources.get(0) instanceof Wallet);
+        Assert.assertEquals(requestPayment.moneySources.get(1).id, "1");
+    }
+
+    @Test
+    public void testRequestPaymentNullCards() {
+        RequestPayment requestPayment = new RequestPayment.Request("p2p",
+                new HashMap<String, String>()).parseResponse(stream("{\"status\":\"success\"," +
+                "\"money_source\":{\"cards\":{\"allowed\":false,\"items\":null}," +
+                "\"wallet\":{\"allowed\":true}},\"request_id\":\"2\"}"));
+        Assert.assertEquals(requestPayment.moneySources.size(), 1);
+        Assert.assertTrue(requestPayment.moneySources.get(0) instanceof Wallet);
+
+        // items go before allowed flag
+        requestPayment = new RequestPayment.Request("p2p",
+                new HashMap<String, String>()).parseResponse(stream("{\"status\":\"success\"," +
+                "\"money_source\":{\"cards\":{\"items\":null,\"csc_required\":false," +
+                "\"allowed\":true}},\"request_id\":\"2\"}"));
+        Assert.assertTrue(requestPayment.moneySources.isEmpty());
+    }
+
+    @Test
+    public void testProcessPayment() {
+        ProcessPayment processPayment = new ProcessPayment.Request("1").parseResponse(stream(
+                "{\"status\":\"ext_auth_required\",\"acs_uri\":\"https://acs\"," +
+                        "\"acs_params\":{\"MD\":\"1\"},\"next_retry\":5000}"));
+        Assert.assertEquals(processPayment.status, BaseProcessPayment.Status.EXT_AUTH_REQUIRED);
+        Assert.assertEquals(processPayment.acsParams.get("MD"), "1");
+        Assert.assertEquals(processPayment.nextRetry, Long.valueOf(5000L));
+        Assert.assertNull(processPayment.digitalGoods);
+    }
+
+    @Test
+    public void testExternalPayment() {
+        RequestExternalPayment requestExternalPayment = RequestExternalPayment.Request
+                .newInstance("instance", "pattern", new HashMap<String, String>())
+                .parseResponse(stream("{\"status\":\"success\",\"request_id\":\"1\"," +
+                        "\"contract_amount\":1.00,\"title\":\"title\"}"));
+        Assert.assertEquals(requestExternalPayment.requestId, "1");
+        Assert.assertEquals(requestExternalPayment.title, "title");
+
+        ProcessExternalPayment processExternalPayment = new ProcessExternalPayment.Request(
+                "instance", "1", "success", "fail", true).parseResponse(stream(
+                "{\"status\":\"success\",\"invoice_id\":\"2\",\"money_source\":{" +
+                        "\"type\":\"payment-card\",\"payment_card_type\":\"VISA\"," +
+                        "\"pan_fragment\":\"4444****4448\",\"money_source_token\":\"token\"}}"));
+        Assert.assertEquals(processExternalPayment.invoiceId, "2");
+        Assert.assertTrue(processExternalPayment.acsParams.isEmpty());
+        Assert.assertEquals(processExternalPayment.moneySource.moneySourceToken, "token");
+        Assert.assertEquals(processExternalPayment.moneySource.type, Card.Type.VISA);
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(Charset.forName("UTF-8")));
+    }
+}
@@ -0,0 +1,170 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.exceptions.UnexpectedResponseException;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.methods.ProcessPayment;
+import com.yandex.money.api.methods.RequestPayment;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.RetryPolicy;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+public class RetryPolicyTest {
+
+    private MockWebServer server;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        server.shutdown();
+    }
+
+    @Test
+    public void testReadOnlyRetried() throws Exception {
+        server.enqueue(serverError());
+        server.enqueue(serverError());
+        server.enqueue(MockApi.json(MockApi.ACCOUNT_INFO));
+
+        AccountInfo accountInfo = createSession(createPolicy()).execute(new AccountInfo.Request());
+        Assert.assertEquals(accountInfo.account, "4100123456789");
+        Assert.assertEquals(server.getRequestCount(), 3);
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testMaxAttempts() throws Exception {
+        for (int i = 0; i < 4; ++i) {
+            server.enqueue(serverError());
+        }
+        try {
+            createSession(createPolicy()).execute(new AccountInfo.Request());
+        } finally {
+            Assert.assertEquals(server.getRequestCount(), 3);
+        }
+    }
+
+    @Test
+    public void testProcessPaymentSameRequestId() throws Exception {
+        server.enqueue(serverError());
+        server.enqueue(MockApi.json("{\"status\":\"success\",\"payment_id\":\"1\"}"));
+
+        ProcessPayment processPayment = createSession(createPolicy())
+                .executeAsync(new ProcessPayment.Request("request-1"))
+                .get(10, TimeUnit.SECONDS);
+        Assert.assertEquals(processPayment.paymentId, "1");
+
+        Assert.assertEquals(server.getRequestCount(), 2);
+        for (int i = 0; i < 2; ++i) {
+            RecordedRequest request = server.takeRequest();
+            Assert.assertTrue(request.getBody().readString(Charset.forName("UTF-8"))
+                    .contains("request_id=request-1"));
+        }
+    }
+
+    @Test(expectedExceptions = IOException.class)
+    public void testNotRetryable() throws Exception {
+        server.enqueue(serverError());
+        server.enqueue(MockApi.json("{\"status\":\"success\"}"));
+        try {
+            createSession(createPolicy()).execute(new RequestPayment.Request("p2p",
+                    new HashMap<String, String>()));
+        } finally {
+            Assert.assertEquals(server.getRequestCount(), 1);
+        }
+    }
+
+    @Test
+    public void testUnexpectedCodeNotRetried() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(HttpURLConnection.HTTP_NOT_FOUND));
+        server.enqueue(MockApi.json(MockApi.ACCOUNT_INFO));
+        try {
+            createSession(createPolicy()).execute(new AccountInfo.Request());
+            Assert.fail("exception expected");
+        } catch (UnexpectedResponseException e) {
+            Assert.assertEquals(e.code, HttpURLConnection.HTTP_NOT_FOUND);
+        }
+        Assert.assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testSubMillisecondBackoff() {
+        new RetryPolicy.Builder().setBackoff(500, 1000, TimeUnit.MICROSECONDS);
+    }
+
+    @Test
+    public void testBudget() throws Exception {
+        OAuth2Session session = createSession(new RetryPolicy.Builder()
+                .setBackoff(1, 1, TimeUnit.MILLISECONDS)
+                .setBudget(0, 1)
+                .create());
+
+        server.enqueue(serverError());
+        server.enqueue(MockApi.json(MockApi.ACCOUNT_INFO));
+        session.execute(new AccountInfo.Request());
+        Assert.assertEquals(server.getRequestCount(), 2);
+
+        // budget is spent
+        server.enqueue(serverError());
+        try {
+            session.execute(new AccountInfo.Request());
+            Assert.fail("exception expected");
+        } catch (IOException e) {
+            Assert.assertEquals(server.getRequestCount(), 3);
+        }
+    }
+
+    private OAuth2Session createSession(RetryPolicy retryPolicy) {
+        return new OAuth2Session(MockApi.createClientBuilder(server)
+                .setRetryPolicy(retryPolicy)
+                .create());
+    }
+
+    private static RetryPolicy createPolicy() {
+        return new RetryPolicy.Builder()
+                .setBackoff(1, 10, TimeUnit.MILLISECONDS)
+                .create();
+    }
+
+    private static MockResponse serverError() {
+        return new MockResponse().setResponseCode(HttpURLConnection.HTTP_UNAVAILABLE);
+    }
+}
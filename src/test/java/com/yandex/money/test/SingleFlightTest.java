@@ -0,0 +1,183 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 NBCO Yandex.Money LLC
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.yandex.money.test;
+
+import com.squareup.okhttp.mockwebserver.Dispatcher;
+import com.squareup.okhttp.mockwebserver.MockResponse;
+import com.squareup.okhttp.mockwebserver.MockWebServer;
+import com.squareup.okhttp.mockwebserver.RecordedRequest;
+import com.yandex.money.api.methods.AccountInfo;
+import com.yandex.money.api.net.DefaultApiClient;
+import com.yandex.money.api.net.HostsProvider;
+import com.yandex.money.api.net.OAuth2Session;
+import com.yandex.money.api.net.OnResponseReady;
+import com.yandex.money.api.net.ResponseFuture;
+import com.yandex.money.api.utils.HttpHeaders;
+import com.yandex.money.api.utils.MimeTypes;
+
+import org.testng.Assert;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class SingleFlightTest {
+
+    private static final String ACCOUNT_INFO = "{\"account\":\"4100123456789\",\"balance\":1," +
+            "\"currency\":\"643\",\"account_status\":\"named\",\"account_type\":\"personal\"," +
+            "\"balance_details\":{\"total\":1,\"available\":1}}";
+
+    private MockWebServer server;
+    private CountDownLatch release;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        release = new CountDownLatch(1);
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await(10, TimeUnit.SECONDS);
+                return new MockResponse()
+                        .addHeader(HttpHeaders.CONTENT_TYPE, MimeTypes.Application.JSON)
+                        .setBody(ACCOUNT_INFO);
+            }
+        });
+        server.start();
+    }
+
+    @AfterMethod
+    public void tearDown() throws IOException {
+        release.countDown();
+        server.shutdown();
+    }
+
+    @Test
+    public void testSharedCall() throws Exception {
+        OAuth2Session session = createSession();
+        session.setSingleFlight(true);
+        session.setAccessToken("token");
+
+        List<ResponseFuture<AccountInfo>> futures = executeConcurrently(session, 5);
+        release.countDown();
+
+        AccountInfo first = futures.get(0).get(10, TimeUnit.SECONDS);
+        for (ResponseFuture<AccountInfo> future : futures) {
+            Assert.assertSame(future.get(10, TimeUnit.SECONDS), first);
+        }
+        Assert.assertEquals(server.getRequestCount(), 1);
+
+        // completed flight is not reused
+        session.execute(new AccountInfo.Request());
+        Assert.assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testCancelOneCaller() throws Exception {
+        OAuth2Session session = createSession();
+        session.setSingleFlight(true);
+
+        List<ResponseFuture<AccountInfo>> futures = executeConcurrently(session, 2);
+        Assert.assertTrue(futures.get(0).cancel(true));
+        release.countDown();
+
+        Assert.assertEquals(futures.get(1).get(10, TimeUnit.SECONDS).account, "4100123456789");
+        Assert.assertTrue(futures.get(0).isCancelled());
+        Assert.assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testFailingCallback() throws Exception {
+        OAuth2Session session = createSession();
+        session.setSingleFlight(true);
+
+        List<ResponseFuture<AccountInfo>> futures = executeConcurrently(session, 2);
+        futures.get(0).addCallback(new OnResponseReady<AccountInfo>() {
+            @Override
+            public void onFailure(Exception exception) {
+                throw new IllegalStateException("callback failed");
+            }
+
+            @Override
+            public void onResponse(AccountInfo response) {
+                throw new IllegalStateException("callback failed");
+            }
+        });
+        release.countDown();
+
+        // other waiters of the flight are notified
+        Assert.assertEquals(futures.get(1).get(10, TimeUnit.SECONDS).account, "4100123456789");
+        Assert.assertEquals(futures.get(0).get(10, TimeUnit.SECONDS).account, "4100123456789");
+        Assert.assertEquals(server.getRequestCount(), 1);
+    }
+
+    @Test
+    public void testDifferentTokens() throws Exception {
+        OAuth2Session session = createSession();
+        session.setSingleFlight(true);
+
+        session.setAccessToken("token1");
+        ResponseFuture<AccountInfo> first = session.executeAsync(new AccountInfo.Request());
+        session.setAccessToken("token2");
+        ResponseFuture<AccountInfo> second = session.executeAsync(new AccountInfo.Request());
+        release.countDown();
+
+        Assert.assertNotSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        Assert.assertEquals(server.getRequestCount(), 2);
+    }
+
+    @Test
+    public void testDisabledByDefault() throws Exception {
+        OAuth2Session session = createSession();
+
+        List<ResponseFuture<AccountInfo>> futures = executeConcurrently(session, 3);
+        release.countDown();
+
+        for (ResponseFuture<AccountInfo> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        Assert.assertEquals(server.getRequestCount(), 3);
+    }
+
+    private OAuth2Session createSession() {
+        String host = server.getUrl("").toString();
+        return new OAuth2Session(new DefaultApiClient.Builder("stub")
+                .setHostsProvider(new HostsProvider(host, host))
+                .create());
+    }
+
+    private static List<ResponseFuture<AccountInfo>> executeConcurrently(OAuth2Session session,
+                                                                        int count) {
+        List<ResponseFuture<AccountInfo>> futures = new ArrayList<>(count);
+        for (int i = 0; i < count; ++i) {
+            futures.add(session.executeAsync(new AccountInfo.Request()));
+        }
+        return futures;
+    }
+}